@@ -28,6 +28,19 @@ public interface CustomBlockBehaviour {
      */
     default void onPlace(CustomBlockPlaceEvent event) {}
 
+    /**
+     * Checks, if the behaviour reacts on placement. Place
+     * events are not fired for blocks placed in bulk, if it
+     * does not, so behaviours overriding nothing about
+     * placement may return {@code false}.
+     *
+     * @return {@code true}, if {@link #onPlace(CustomBlockPlaceEvent)}
+     *         has to be called for every placed block
+     */
+    default boolean handlesPlacement() {
+        return true;
+    }
+
     /**
      * Called when block is destroyed by any reason.
      *
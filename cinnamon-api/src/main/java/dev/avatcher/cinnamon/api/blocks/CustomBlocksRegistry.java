@@ -1,9 +1,14 @@
 package dev.avatcher.cinnamon.api.blocks;
 
+import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.Registry;
 import org.bukkit.block.Block;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Registry of custom blocks
@@ -47,4 +52,44 @@ public interface CustomBlocksRegistry extends Registry<CustomBlock> {
      *         an unregistered custom block
      */
     CustomBlock get(Block block);
+
+    /**
+     * Places a custom block at all the given locations.
+     * The placement is spread across server ticks, writes
+     * are grouped by chunk, and neighbours are updated once
+     * at the end instead of after every single block. Place
+     * events are fired in a batch after the blocks are placed.
+     *
+     * @param block     Custom block to place
+     * @param locations Locations to place the block at
+     * @return Future completed on the main thread
+     *         with the amount of placed blocks
+     */
+    CompletableFuture<Integer> placeAll(CustomBlock block, Collection<Location> locations);
+
+    /**
+     * Fills a cuboid region between two corners,
+     * inclusive, with a custom block, the same way as
+     * {@link #placeAll(CustomBlock, Collection)} does.
+     *
+     * @param block Custom block to place
+     * @param from  First corner of the region
+     * @param to    Second corner of the region
+     * @return Future completed on the main thread
+     *         with the amount of placed blocks
+     * @throws IllegalArgumentException if the region has
+     *         more than 4194304 blocks
+     */
+    CompletableFuture<Integer> fill(CustomBlock block, Location from, Location to);
+
+    /**
+     * Gets all the custom blocks placed in a loaded
+     * chunk, including regular noteblocks. The blocks
+     * are found using an index of custom blocks, so
+     * the chunk is not scanned block by block.
+     *
+     * @param chunk Loaded chunk
+     * @return Custom blocks placed in the chunk
+     */
+    List<Block> getCustomBlocks(Chunk chunk);
 }
@@ -81,7 +81,6 @@ public interface CustomItem extends Keyed {
      *         or does not contain a custom item at all
      */
     static Optional<CustomItem> get(ItemStack itemStack) {
-        if (!CustomItem.isCustom(itemStack)) return Optional.empty();
         return Optional.ofNullable(Cinnamon.getInstance().getCustomItems().get(itemStack));
     }
 
@@ -14,6 +14,7 @@ public interface CustomItemsRegistry extends Registry<CustomItem> {
      * contains custom item. The result of this
      * method does not imply that the custom
      * item can be surely found in {@link CustomItemsRegistry}.
+     * Only materials of registered custom items are recognized.
      *
      * @param itemStack Item stack to check
      * @return {@code true}, if {@code itemStack} is a custom item
@@ -4,21 +4,38 @@ import dev.avatcher.cinnamon.api.Cinnamon;
 import dev.avatcher.cinnamon.api.CinnamonAPI;
 import dev.avatcher.cinnamon.api.blocks.CustomBlocksRegistry;
 import dev.avatcher.cinnamon.api.items.CustomItemsRegistry;
+import dev.avatcher.cinnamon.core.block.BulkBlockPlacer;
+import dev.avatcher.cinnamon.core.block.CustomBlocksConfig;
+import dev.avatcher.cinnamon.core.block.MushroomNormalizer;
+import dev.avatcher.cinnamon.core.block.NoteblockUpdateQueue;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarriers;
+import dev.avatcher.cinnamon.core.block.index.CustomBlockIndex;
+import dev.avatcher.cinnamon.core.block.listeners.CustomBlockIndexListener;
+import dev.avatcher.cinnamon.core.block.listeners.CustomBlockListener;
+import dev.avatcher.cinnamon.core.block.listeners.MushroomBlockListener;
 import dev.avatcher.cinnamon.core.block.listeners.NoteblockListener;
 import dev.avatcher.cinnamon.core.commands.CGiveCommand;
+import dev.avatcher.cinnamon.core.commands.CinnamonCommand;
 import dev.avatcher.cinnamon.core.commands.CommandBase;
 import dev.avatcher.cinnamon.core.commands.InspectCommand;
 import dev.avatcher.cinnamon.core.exceptions.CinnamonRuntimeException;
+import dev.avatcher.cinnamon.core.item.CustomItemsConfig;
 import dev.avatcher.cinnamon.core.item.listeners.ItemEventListener;
 import dev.avatcher.cinnamon.core.resources.CinnamonResources;
 import dev.avatcher.cinnamon.core.resources.CinnamonResourcesManager;
+import dev.avatcher.cinnamon.core.resources.ResourceReloader;
+import dev.avatcher.cinnamon.core.resources.ResourcesConfig;
+import dev.avatcher.cinnamon.core.resources.ResourcesWatcher;
+import dev.avatcher.cinnamon.core.resources.resourcepack.ResourcepackArchive;
 import dev.avatcher.cinnamon.core.resources.resourcepack.ResourcepackServerConfig;
 import dev.avatcher.cinnamon.core.resources.resourcepack.ResourcepackServerImpl;
+import dev.avatcher.cinnamon.core.resources.source.FolderCinnamonResources;
 import dev.avatcher.cinnamon.core.resources.source.JarCinnamonResources;
 import dev.jorel.commandapi.CommandAPI;
 import dev.jorel.commandapi.CommandAPIBukkitConfig;
 import lombok.Getter;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
@@ -28,9 +45,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -50,11 +65,57 @@ public final class CinnamonPlugin extends JavaPlugin implements CinnamonAPI {
      */
     @Getter
     private CinnamonResourcesManager resourcesManager;
+    /**
+     * Reloader of loaded Cinnamon resources
+     */
+    @Getter
+    private ResourceReloader resourceReloader;
+    /**
+     * Watcher reloading changed folder resources,
+     * {@code null}, if watching is disabled
+     */
+    private ResourcesWatcher resourcesWatcher;
     /**
      * Http server for sending resourcepack
      */
     @Getter
     private ResourcepackServerImpl resourcepackServer;
+    /**
+     * Configuration of custom items
+     */
+    @Getter
+    private CustomItemsConfig customItemsConfig;
+    /**
+     * Configuration of resources and the resource pack
+     */
+    @Getter
+    private ResourcesConfig resourcesConfig;
+    /**
+     * Block carriers custom blocks may use
+     */
+    @Getter
+    private BlockCarriers blockCarriers;
+    /**
+     * Placer of custom blocks in bulk
+     */
+    @Getter
+    private BulkBlockPlacer blockPlacer;
+    /**
+     * Index of custom blocks placed in loaded chunks
+     */
+    @Getter
+    private CustomBlockIndex customBlockIndex;
+    /**
+     * Queue of noteblocks to be re-sent to clients
+     */
+    @Getter
+    private NoteblockUpdateQueue noteblockUpdateQueue;
+    /**
+     * Rewriter of natural mushroom blocks, or
+     * {@code null}, if mushroom carrier is disabled
+     */
+    @Getter
+    private MushroomNormalizer mushroomNormalizer;
 
     /**
      * Loads Cinnamon resources from plugin's jar
@@ -77,6 +138,13 @@ public final class CinnamonPlugin extends JavaPlugin implements CinnamonAPI {
      */
     public void load(CinnamonResources resources) {
         instance.getResourcesManager().load(resources);
+        if (this.resourcesWatcher != null && resources instanceof FolderCinnamonResources folderResources) {
+            try {
+                this.resourcesWatcher.watch(folderResources);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to watch resources " + resources, e);
+            }
+        }
         try {
             resources.close();
         } catch (IOException e) {
@@ -105,7 +173,18 @@ public final class CinnamonPlugin extends JavaPlugin implements CinnamonAPI {
         instance = this;
         log = this.getLogger();
         this.saveDefaultConfig();
+        this.customItemsConfig = new CustomItemsConfig(this.getConfigSection(CustomItemsConfig.CONFIG_PATH));
+        this.resourcesConfig = new ResourcesConfig(this.getConfigSection(ResourcesConfig.CONFIG_PATH));
+        CustomBlocksConfig customBlocksConfig = new CustomBlocksConfig(this.getConfigSection(CustomBlocksConfig.CONFIG_PATH));
+        this.blockCarriers = new BlockCarriers(customBlocksConfig.getCarriers(), log);
+        this.blockPlacer = new BulkBlockPlacer(this, customBlocksConfig.getPlacementTickBudget());
+        this.customBlockIndex = new CustomBlockIndex(this, this.blockCarriers);
+        this.noteblockUpdateQueue = new NoteblockUpdateQueue();
+        for (World world : Bukkit.getWorlds()) {
+            this.customBlockIndex.load(world);
+        }
         try {
+            // Assets were copied there by older versions
             FileUtils.deleteDirectory(this.getDataFolder().toPath()
                     .resolve(CinnamonResourcesManager.RESOURCE_PACK_FOLDER)
                     .resolve("assets/")
@@ -114,13 +193,30 @@ public final class CinnamonPlugin extends JavaPlugin implements CinnamonAPI {
         } catch (IOException e) {
             throw new CinnamonRuntimeException(e);
         }
+        this.resourceReloader = new ResourceReloader(this, this.resourcesManager, this.resourcesConfig.getReloadTickBudget());
+        if (this.resourcesConfig.isWatchFolders()) {
+            try {
+                this.resourcesWatcher = new ResourcesWatcher(this, this.resourceReloader);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Failed to start watching resource folders", e);
+            }
+        }
         this.registerEvents(
                 new ItemEventListener(),
-                new NoteblockListener()
+                new NoteblockListener(),
+                new CustomBlockListener(),
+                new CustomBlockIndexListener(),
+                this.noteblockUpdateQueue
         );
+        if (this.blockCarriers.isEnabled(BlockCarriers.MUSHROOM_BLOCK)) {
+            this.mushroomNormalizer = new MushroomNormalizer(this, BlockCarriers.MUSHROOM_BLOCK, this.customBlockIndex);
+            Bukkit.getWorlds().forEach(this.mushroomNormalizer::normalize);
+            this.registerEvents(new MushroomBlockListener());
+        }
         this.registerCommands(
                 new CGiveCommand(),
-                new InspectCommand()
+                new InspectCommand(),
+                new CinnamonCommand()
         );
         // Register API instance
         if (Cinnamon.getInstance() == null) {
@@ -133,16 +229,24 @@ public final class CinnamonPlugin extends JavaPlugin implements CinnamonAPI {
     @Override
     public void onDisable() {
         CommandAPI.onDisable();
-        if (this.resourcepackServer != null) {
-            this.resourcepackServer.stop();
+        if (this.blockPlacer != null) {
+            this.blockPlacer.stop();
+        }
+        if (this.customBlockIndex != null) {
+            for (World world : Bukkit.getWorlds()) {
+                this.customBlockIndex.save(world);
+            }
         }
-        if (this.resourcesManager.getResourcePackBuilder() != null) {
+        if (this.resourcesWatcher != null) {
             try {
-                this.resourcesManager.getResourcePackBuilder().clear();
+                this.resourcesWatcher.close();
             } catch (IOException e) {
-                log.log(Level.WARNING, "An exception occurred while clearing resourcepack.", e);
+                log.log(Level.WARNING, "An exception occurred while closing resources watcher.", e);
             }
         }
+        if (this.resourcepackServer != null) {
+            this.resourcepackServer.stop();
+        }
     }
 
     /**
@@ -180,19 +284,31 @@ public final class CinnamonPlugin extends JavaPlugin implements CinnamonAPI {
         }
     }
 
+    /**
+     * Gets a subsection of the main config,
+     * creating an empty one, if it is missing.
+     *
+     * @param path Path of the subsection
+     * @return Configuration section
+     */
+    private @NotNull ConfigurationSection getConfigSection(String path) {
+        ConfigurationSection configSection = this.getConfig().getConfigurationSection(path);
+        if (configSection == null) {
+            configSection = this.getConfig().createSection(path);
+        }
+        return configSection;
+    }
+
     /**
      * Initializes and starts resourcepack transmitting server
      *
      * @see ResourcepackServerImpl
      */
     private void initializeResourcepackServer() {
-        ConfigurationSection configSection = this.getConfig().getConfigurationSection(ResourcepackServerConfig.CONFIG_PATH);
-        if (configSection == null) {
-            configSection = this.getConfig().createSection(ResourcepackServerConfig.CONFIG_PATH);
-        }
-        ResourcepackServerConfig config = new ResourcepackServerConfig(configSection);
+        ResourcepackServerConfig config = new ResourcepackServerConfig(this.getConfigSection(ResourcepackServerConfig.CONFIG_PATH));
         try {
-            this.resourcepackServer = new ResourcepackServerImpl(config.getPort(), config.getUrl(), config.getMessage());
+            this.resourcepackServer = new ResourcepackServerImpl(config);
+            this.registerEvents(this.resourcepackServer.getAuthorizer());
             if (config.isForceOnJoin()) {
                 this.registerEvents(this.resourcepackServer);
             }
@@ -201,10 +317,9 @@ public final class CinnamonPlugin extends JavaPlugin implements CinnamonAPI {
             return;
         }
         try {
-            byte[] resourcePack = this.resourcesManager.getResourcePackBuilder().buildZip();
-            Path zipPath = CinnamonPlugin.getInstance().getDataFolder().toPath().resolve("resourcepack.zip");
-            Files.write(zipPath, resourcePack, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            this.resourcepackServer.setResourcepackBytes(resourcePack);
+            Path zipPath = this.getDataFolder().toPath().resolve(CinnamonResourcesManager.RESOURCE_PACK_ZIP);
+            ResourcepackArchive resourcePack = this.resourcesManager.getResourcePackBuilder().buildZip(zipPath);
+            this.resourcepackServer.setResourcepack(resourcePack);
         } catch (IOException e) {
             log.log(Level.SEVERE, "An exception occurred while building resource pack's Zip archive.", e);
         }
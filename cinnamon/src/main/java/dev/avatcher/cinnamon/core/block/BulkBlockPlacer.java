@@ -0,0 +1,377 @@
+package dev.avatcher.cinnamon.core.block;
+
+import com.google.common.base.Preconditions;
+import dev.avatcher.cinnamon.api.blocks.CustomBlock;
+import dev.avatcher.cinnamon.api.blocks.CustomBlockBehaviour;
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.events.CustomBlockPlaceEventImpl;
+import dev.avatcher.cinnamon.core.block.index.CustomBlockIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Places custom blocks in bulk, spreading the work
+ * across server ticks within a configured time budget.
+ * <p>
+ * Positions of a placement are sorted chunk by chunk, so
+ * the writes touching one chunk go together. Blocks fully
+ * surrounded by other placed blocks are written without
+ * physics, and only the outer shell of the placement is
+ * written with physics at the end, updating the neighbours
+ * once. Place events are fired in a batch after all the
+ * blocks of the placement have been written.
+ *
+ * @see CustomBlocksConfig#getPlacementTickBudget()
+ */
+public class BulkBlockPlacer implements Runnable {
+    /**
+     * The largest region a single fill may cover,
+     * keeping its positions within 32 MB of heap
+     */
+    public static final int MAX_FILL_VOLUME = 1 << 22;
+    /**
+     * Amount of written blocks between checks
+     * of the tick budget
+     */
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+
+    private final Plugin plugin;
+    private final Logger log;
+    private final long tickBudget;
+    private final Queue<Job> jobs = new ConcurrentLinkedQueue<>();
+    private BukkitTask task;
+
+    /**
+     * Creates a new bulk block placer.
+     *
+     * @param plugin     Plugin owning the placement task
+     * @param tickBudget Time in milliseconds placement
+     *                   may take every tick
+     */
+    public BulkBlockPlacer(@NotNull Plugin plugin, int tickBudget) {
+        this.plugin = plugin;
+        this.log = plugin.getLogger();
+        this.tickBudget = TimeUnit.MILLISECONDS.toNanos(tickBudget);
+    }
+
+    /**
+     * Schedules placement of a custom block at
+     * all the given locations. Locations may
+     * belong to different worlds.
+     *
+     * @param customBlock Custom block to place
+     * @param locations   Locations to place the block at
+     * @return Future completed on the main thread
+     *         with the amount of placed blocks
+     */
+    public CompletableFuture<Integer> placeAll(@NotNull CustomBlock customBlock, @NotNull Collection<Location> locations) {
+        Map<World, long[]> positions = new HashMap<>();
+        Map<World, Integer> counts = new HashMap<>();
+        for (Location location : locations) {
+            Preconditions.checkNotNull(location.getWorld(), "Location %s has no world", location);
+            counts.merge(location.getWorld(), 1, Integer::sum);
+        }
+        counts.forEach((world, count) -> positions.put(world, new long[count]));
+        counts.replaceAll((world, count) -> 0);
+        for (Location location : locations) {
+            World world = location.getWorld();
+            int index = counts.merge(world, 1, Integer::sum) - 1;
+            positions.get(world)[index] = pack(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        }
+        CompletableFuture<Integer> result = CompletableFuture.completedFuture(0);
+        for (var entry : positions.entrySet()) {
+            result = result.thenCombine(this.submit(entry.getKey(), customBlock, entry.getValue()), Integer::sum);
+        }
+        return result;
+    }
+
+    /**
+     * Schedules placement of a custom block filling
+     * a cuboid region between two corners, inclusive.
+     *
+     * @param customBlock Custom block to place
+     * @param from        First corner of the region
+     * @param to          Second corner of the region
+     * @return Future completed on the main thread
+     *         with the amount of placed blocks
+     * @throws IllegalArgumentException if the region has
+     *         more than {@link #MAX_FILL_VOLUME} blocks
+     */
+    public CompletableFuture<Integer> fill(@NotNull CustomBlock customBlock, @NotNull Location from, @NotNull Location to) {
+        World world = from.getWorld();
+        Preconditions.checkNotNull(world, "Location %s has no world", from);
+        Preconditions.checkArgument(world.equals(to.getWorld()), "Corners of the region must be in the same world");
+        int minX = Math.min(from.getBlockX(), to.getBlockX());
+        int maxX = Math.max(from.getBlockX(), to.getBlockX());
+        int minY = Math.max(Math.min(from.getBlockY(), to.getBlockY()), world.getMinHeight());
+        int maxY = Math.min(Math.max(from.getBlockY(), to.getBlockY()), world.getMaxHeight() - 1);
+        int minZ = Math.min(from.getBlockZ(), to.getBlockZ());
+        int maxZ = Math.max(from.getBlockZ(), to.getBlockZ());
+        if (minY > maxY) return CompletableFuture.completedFuture(0);
+        long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        Preconditions.checkArgument(volume <= MAX_FILL_VOLUME, "Region is too large: %s blocks, at most %s allowed",
+                volume, MAX_FILL_VOLUME);
+        long[] positions = new long[(int) volume];
+        int i = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    positions[i++] = pack(x, y, z);
+                }
+            }
+        }
+        return this.submit(world, customBlock, positions);
+    }
+
+    /**
+     * Schedules placement of a custom block
+     * at packed positions of a world.
+     *
+     * @param world       World to place the block in
+     * @param customBlock Custom block to place
+     * @param positions   Positions packed by {@link #pack(int, int, int)},
+     *                    the array is taken over by the placer
+     * @return Future completed on the main thread
+     *         with the amount of placed blocks
+     */
+    private CompletableFuture<Integer> submit(World world, CustomBlock customBlock, long[] positions) {
+        Job job = new Job(world, customBlock, positions);
+        this.jobs.add(job);
+        synchronized (this) {
+            if (this.task == null) {
+                this.task = Bukkit.getScheduler().runTaskTimer(this.plugin, this, 0, 1);
+            }
+        }
+        return job.future;
+    }
+
+    /**
+     * Processes scheduled placements until
+     * the tick budget is exhausted.
+     */
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + this.tickBudget;
+        Job job;
+        while ((job = this.jobs.peek()) != null) {
+            try {
+                if (!job.process(deadline)) return;
+                job.future.complete(job.placed);
+            } catch (RuntimeException e) {
+                log.log(Level.SEVERE, "An exception occurred while placing custom block %s in bulk"
+                        .formatted(job.customBlock.getKey()), e);
+                job.future.completeExceptionally(e);
+            }
+            this.jobs.poll();
+        }
+        synchronized (this) {
+            if (this.jobs.isEmpty() && this.task != null) {
+                this.task.cancel();
+                this.task = null;
+            }
+        }
+    }
+
+    /**
+     * Cancels all the scheduled placements.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (this.task != null) {
+                this.task.cancel();
+                this.task = null;
+            }
+        }
+        Job job;
+        while ((job = this.jobs.poll()) != null) {
+            job.future.cancel(false);
+        }
+    }
+
+    /**
+     * Packs block coordinates into a long, so that sorting
+     * packed positions groups them chunk by chunk. Chunk X and Z
+     * take 22 bits each, Y takes 12 bits and the coordinates
+     * inside the chunk take 4 bits each.
+     *
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @return Packed position
+     */
+    static long pack(int x, int y, int z) {
+        return ((long) (x >> 4) & 0x3FFFFF) << 42
+                | ((long) (z >> 4) & 0x3FFFFF) << 20
+                | ((long) y & 0xFFF) << 8
+                | (long) (z & 15) << 4
+                | (x & 15);
+    }
+
+    static int unpackX(long position) {
+        return (int) (position >> 42) << 4 | (int) (position & 15);
+    }
+
+    static int unpackY(long position) {
+        return (int) (position << 44 >> 52);
+    }
+
+    static int unpackZ(long position) {
+        return (int) (position << 22 >> 42) << 4 | (int) (position >> 4 & 15);
+    }
+
+    /**
+     * Stage of a placement
+     */
+    private enum Stage {
+        /**
+         * Writing blocks surrounded by other placed
+         * blocks without physics
+         */
+        INTERIOR,
+        /**
+         * Writing outer blocks of the placement with
+         * physics, updating the neighbours
+         */
+        SHELL,
+        /**
+         * Firing place events
+         */
+        EVENTS
+    }
+
+    /**
+     * A single scheduled placement
+     */
+    private static final class Job {
+        private final World world;
+        private final CustomBlock customBlock;
+        private final BlockData blockData;
+        private final CustomBlockIndex index;
+        private final long[] positions;
+        private final int size;
+        private final BitSet shell;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+        private final int minY;
+        private final int maxY;
+        private Stage stage = Stage.INTERIOR;
+        private int cursor;
+        private int placed;
+
+        private Job(World world, CustomBlock customBlock, long[] positions) {
+            this.world = world;
+            this.customBlock = customBlock;
+            this.blockData = customBlock.createBlockData();
+            this.index = CinnamonPlugin.getInstance().getCustomBlockIndex();
+            this.minY = world.getMinHeight();
+            this.maxY = world.getMaxHeight() - 1;
+            Arrays.sort(positions);
+            int size = 0;
+            for (int i = 0; i < positions.length; i++) {
+                if (i == 0 || positions[i] != positions[size - 1]) {
+                    positions[size++] = positions[i];
+                }
+            }
+            this.positions = positions;
+            this.size = size;
+            this.shell = new BitSet(size);
+        }
+
+        /**
+         * Continues the placement.
+         *
+         * @param deadline {@link System#nanoTime()} the
+         *                 processing must stop at
+         * @return {@code true}, if the placement is complete
+         */
+        private boolean process(long deadline) {
+            while (true) {
+                switch (this.stage) {
+                    case INTERIOR -> {
+                        for (; this.cursor < this.size; this.cursor++) {
+                            if (this.cursor % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) return false;
+                            long position = this.positions[this.cursor];
+                            int y = unpackY(position);
+                            if (y < this.minY || y > this.maxY) continue;
+                            if (this.isShell(position)) {
+                                this.shell.set(this.cursor);
+                                continue;
+                            }
+                            this.write(position, false);
+                        }
+                        this.stage = Stage.SHELL;
+                        this.cursor = this.shell.nextSetBit(0);
+                    }
+                    case SHELL -> {
+                        int checked = 0;
+                        for (; this.cursor >= 0; this.cursor = this.shell.nextSetBit(this.cursor + 1)) {
+                            if (checked++ % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) return false;
+                            this.write(this.positions[this.cursor], true);
+                        }
+                        this.stage = Stage.EVENTS;
+                        this.cursor = 0;
+                        if (!this.customBlock.getBehaviour().handlesPlacement()) return true;
+                    }
+                    case EVENTS -> {
+                        CustomBlockBehaviour behaviour = this.customBlock.getBehaviour();
+                        for (; this.cursor < this.size; this.cursor++) {
+                            if (this.cursor % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) return false;
+                            long position = this.positions[this.cursor];
+                            int y = unpackY(position);
+                            if (y < this.minY || y > this.maxY) continue;
+                            new CustomBlockPlaceEventImpl(this.world.getBlockAt(unpackX(position), y, unpackZ(position)),
+                                    this.customBlock, null).fire(behaviour);
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Checks, if any of the six neighbours of a
+         * position is not a part of the placement.
+         *
+         * @param position Packed position
+         * @return {@code true}, if position belongs to the
+         *         outer shell of the placement
+         */
+        private boolean isShell(long position) {
+            int x = unpackX(position);
+            int y = unpackY(position);
+            int z = unpackZ(position);
+            return y == this.minY || y == this.maxY
+                    || !this.contains(pack(x + 1, y, z)) || !this.contains(pack(x - 1, y, z))
+                    || !this.contains(pack(x, y + 1, z)) || !this.contains(pack(x, y - 1, z))
+                    || !this.contains(pack(x, y, z + 1)) || !this.contains(pack(x, y, z - 1));
+        }
+
+        private boolean contains(long position) {
+            return Arrays.binarySearch(this.positions, 0, this.size, position) >= 0;
+        }
+
+        private void write(long position, boolean applyPhysics) {
+            Block block = this.world.getBlockAt(unpackX(position), unpackY(position), unpackZ(position));
+            block.setBlockData(this.blockData, applyPhysics);
+            if (CarriedCustomBlock.isCustom(block)) this.index.add(block);
+            this.placed++;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package dev.avatcher.cinnamon.core.block;
+
+import com.google.common.base.Preconditions;
+import dev.avatcher.cinnamon.api.blocks.CustomBlock;
+import dev.avatcher.cinnamon.api.blocks.CustomBlockBehaviour;
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.behaviour.DefaultCustomBlockBehaviour;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarrier;
+import dev.avatcher.cinnamon.core.block.events.CustomBlockPlaceEventImpl;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The representation of Cinnamon custom block,
+ * occupying a blockstate of a vanilla block.
+ *
+ * @see BlockCarrier
+ */
+@Getter
+public class CarriedCustomBlock implements CustomBlock {
+    private final NamespacedKey identifier;
+    private final NamespacedKey model;
+    private final BlockCarrier carrier;
+    /**
+     * Index of the carrier's state
+     * occupied by this block
+     */
+    private final int stateIndex;
+    /**
+     * Block data of this custom block, built once and shared
+     * by all the placements. It must never be modified,
+     * use {@link #createBlockData()} to get a modifiable copy.
+     */
+    private final BlockData blockData;
+    private CustomBlockBehaviour behaviour = new DefaultCustomBlockBehaviour();
+
+    /**
+     * Creates a new custom block based
+     * on a state of a block carrier.
+     *
+     * @param key        The identifier of the block,
+     *                   that is later can be used in
+     *                   various methods such as
+     *                   {@link CustomBlock#get(NamespacedKey)}
+     * @param modelKey   The key of block's model defined
+     *                   inside a resource pack
+     * @param carrier    Carrier of the block
+     * @param stateIndex Index of the carrier's state
+     *                   reserved by this block
+     */
+    public CarriedCustomBlock(NamespacedKey key, NamespacedKey modelKey, BlockCarrier carrier, int stateIndex) {
+        this(key, modelKey, carrier, stateIndex, new DefaultCustomBlockBehaviour());
+    }
+
+    /**
+     * Creates a new custom block based
+     * on a state of a block carrier
+     * with some behaviour.
+     *
+     * @param key        The identifier of the block,
+     *                   that is later can be used in
+     *                   various methods such as
+     *                   {@link CustomBlock#get(NamespacedKey)}
+     * @param modelKey   The key of block's model defined
+     *                   inside a resource pack
+     * @param carrier    Carrier of the block
+     * @param stateIndex Index of the carrier's state
+     *                   reserved by this block
+     * @param behaviour  The behaviour of the block
+     */
+    public CarriedCustomBlock(NamespacedKey key, NamespacedKey modelKey, BlockCarrier carrier, int stateIndex,
+                              CustomBlockBehaviour behaviour) {
+        this.identifier = key;
+        this.model = modelKey;
+        this.carrier = carrier;
+        this.stateIndex = stateIndex;
+        this.blockData = carrier.createBlockData(stateIndex);
+        this.setBehaviour(behaviour);
+    }
+
+    /**
+     * Places this custom block at a given location.
+     *
+     * @param location Location to place the custom
+     *                 block at
+     */
+    public void placeAt(@NotNull Location location) {
+        this.placeAt(location, null);
+    }
+
+    /**
+     * Places this custom block at a given location
+     * by a specific player.
+     *
+     * @param location Location to place the custom
+     *                 block at
+     * @param player   Player that placed the block
+     */
+    public void placeAt(@NotNull Location location, Player player) {
+        Block block = location.getBlock();
+        block.setBlockData(this.blockData, true);
+        CinnamonPlugin.getInstance().getCustomBlockIndex().add(block);
+
+        CustomBlockPlaceEventImpl.builder()
+                .block(block)
+                .customBlock(this)
+                .player(player)
+                .build()
+                .fire(this.getBehaviour());
+    }
+
+    /**
+     * Checks, if certain block may be custom,
+     * i.e. it is a block of an enabled carrier.
+     *
+     * @param block Block to be checked
+     * @return {@code true}, if it is a custom block
+     */
+    public static boolean isCustom(@Nullable Block block) {
+        return block != null && CinnamonPlugin.getInstance().getBlockCarriers().isCarrier(block.getType());
+    }
+
+    @Override
+    public BlockData createBlockData() {
+        return this.blockData.clone();
+    }
+
+    /**
+     * Sets the behaviour of this block. If
+     * {@code null} is provided, a new instance of
+     * {@link DefaultCustomBlockBehaviour} will be used.
+     *
+     * @param behaviour New behaviour of the block
+     */
+    public void setBehaviour(@Nullable CustomBlockBehaviour behaviour) {
+        this.behaviour = behaviour == null
+                ? new DefaultCustomBlockBehaviour()
+                : behaviour;
+        CinnamonPlugin.getInstance().getSLF4JLogger().info("Set behaviour of custom block '{}' to {}",
+                this.getKey(), this.behaviour.getClass().getSimpleName());
+    }
+
+    /**
+     * Sets the behaviour of this block by a new instance
+     * of a given behaviour's class. The method initializes
+     * a new behaviour instance using either the constructor
+     * accepting a single {@link CustomBlock} argument or
+     * the No-Args constructor, if the first one is not found.
+     *
+     * @param behaviourClazz Class of block behaviour
+     */
+    public void setBehaviour(Class<?> behaviourClazz) {
+        if (behaviourClazz == null) {
+            this.setBehaviour((CustomBlockBehaviour) null);
+            return;
+        }
+        Preconditions.checkArgument(CustomBlockBehaviour.class.isAssignableFrom(behaviourClazz),
+                "Custom block behaviour class '%s' does not implement %s interface"
+                        .formatted(behaviourClazz, CustomBlockBehaviour.class));
+        @SuppressWarnings("unchecked")
+        Class<? extends CustomBlockBehaviour> clazz = (Class<? extends CustomBlockBehaviour>) behaviourClazz;
+        try {
+            Constructor<? extends CustomBlockBehaviour> constructor = clazz.getConstructor(CustomBlock.class);
+            CustomBlockBehaviour behaviour = constructor.newInstance(this);
+            this.setBehaviour(behaviour);
+            return;
+        } catch (NoSuchMethodException ignored) {
+        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        try {
+            Constructor<? extends CustomBlockBehaviour> constructor = clazz.getConstructor();
+            CustomBlockBehaviour behaviour = constructor.newInstance();
+            this.setBehaviour(behaviour);
+            return;
+        } catch (NoSuchMethodException ignored) {
+        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        // Reached, only if two instances of
+        // NoSuchMethodException were thrown
+        throw new IllegalStateException("Custom block behaviour '%s' does not have a matching constructor"
+                .formatted(behaviourClazz));
+    }
+
+    @Override
+    public @NotNull NamespacedKey getKey() {
+        return this.getIdentifier();
+    }
+}
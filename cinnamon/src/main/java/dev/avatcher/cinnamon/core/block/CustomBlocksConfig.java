@@ -0,0 +1,65 @@
+package dev.avatcher.cinnamon.core.block;
+
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of custom blocks' handling
+ */
+@Getter
+public final class CustomBlocksConfig implements ConfigurationSerializable {
+    /**
+     * The main config's subsection name
+     * containing this config.
+     */
+    public static final String CONFIG_PATH = "custom-blocks";
+
+    /**
+     * Time in milliseconds bulk placement of
+     * custom blocks may take every tick
+     */
+    private final int placementTickBudget;
+    /**
+     * Names of the block carriers custom blocks may
+     * use in addition to noteblocks, which are always enabled
+     *
+     * @see dev.avatcher.cinnamon.core.block.carrier.BlockCarriers
+     */
+    private final List<String> carriers;
+
+    /**
+     * Builds config from given map
+     * of configuration values.
+     *
+     * @param state Values of the config
+     */
+    public CustomBlocksConfig(Map<String, Object> state) {
+        this.placementTickBudget = (int) state.get("placement-tick-budget");
+        @SuppressWarnings("unchecked")
+        List<String> carriers = (List<String>) state.getOrDefault("carriers", List.of());
+        this.carriers = List.copyOf(carriers);
+    }
+
+    /**
+     * Builds config from a configuration section.
+     *
+     * @param config Configuration section
+     */
+    public CustomBlocksConfig(ConfigurationSection config) {
+        this.placementTickBudget = Math.max(1, config.getInt("placement-tick-budget", 10));
+        this.carriers = List.copyOf(config.getStringList("carriers"));
+    }
+
+    @Override
+    public @NotNull Map<String, Object> serialize() {
+        return Map.of(
+                "placement-tick-budget", this.placementTickBudget,
+                "carriers", this.carriers
+        );
+    }
+}
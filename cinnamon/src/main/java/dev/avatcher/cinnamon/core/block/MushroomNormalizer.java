@@ -0,0 +1,144 @@
+package dev.avatcher.cinnamon.core.block;
+
+import dev.avatcher.cinnamon.core.block.carrier.MushroomCarrier;
+import dev.avatcher.cinnamon.core.block.index.ChunkCustomBlocks;
+import dev.avatcher.cinnamon.core.block.index.CustomBlockIndex;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites mushroom blocks, that have not been
+ * placed as custom blocks, to the vanilla state.
+ * <p>
+ * World generation and vanilla placement unset faces of
+ * mushroom blocks touching each other, so natural mushroom
+ * blocks use the states carrying custom blocks and would be
+ * rendered as them. Every chunk is normalized once, the first
+ * time it is loaded with the mushroom carrier enabled, by
+ * scanning its snapshot asynchronously, and is marked so in
+ * its persistent data. This also rewrites mushrooms of chunks
+ * generated before the carrier has been enabled.
+ *
+ * @see MushroomCarrier
+ */
+public class MushroomNormalizer {
+    private final Plugin plugin;
+    private final CustomBlockIndex index;
+    private final NamespacedKey storageKey;
+    private final Map<Material, BlockData> vanillaStates = new EnumMap<>(Material.class);
+    /**
+     * Chunks being scanned by their worlds and keys
+     */
+    private final Set<String> pending = new HashSet<>();
+
+    /**
+     * Creates a new mushroom normalizer.
+     *
+     * @param plugin  Plugin owning the chunks' persistent data
+     * @param carrier Mushroom block carrier
+     * @param index   Custom block index
+     */
+    public MushroomNormalizer(@NotNull Plugin plugin, @NotNull MushroomCarrier carrier, @NotNull CustomBlockIndex index) {
+        this.plugin = plugin;
+        this.index = index;
+        this.storageKey = new NamespacedKey(plugin, "mushrooms_normalized");
+        for (Material material : carrier.getMaterials()) {
+            this.vanillaStates.put(material, carrier.createBlockData(carrier.getVanillaState(material)));
+        }
+    }
+
+    /**
+     * Gets the data of a vanilla mushroom block.
+     *
+     * @param material Mushroom block
+     * @return Data with all the faces set
+     */
+    public @NotNull BlockData getVanillaState(@NotNull Material material) {
+        return this.vanillaStates.get(material);
+    }
+
+    /**
+     * Checks, if mushroom blocks of a chunk have been normalized,
+     * so the ones of non-vanilla states are custom blocks.
+     *
+     * @param chunk Loaded chunk
+     * @return {@code true}, if the chunk has been normalized
+     */
+    public boolean isNormalized(@NotNull Chunk chunk) {
+        return chunk.getPersistentDataContainer().has(this.storageKey);
+    }
+
+    /**
+     * Normalizes all the loaded chunks of a world.
+     *
+     * @param world Loaded world
+     */
+    public void normalize(@NotNull World world) {
+        for (Chunk chunk : world.getLoadedChunks()) {
+            this.normalize(chunk);
+        }
+    }
+
+    /**
+     * Schedules normalization of a chunk,
+     * unless it has already been normalized.
+     *
+     * @param chunk Loaded chunk
+     */
+    public void normalize(@NotNull Chunk chunk) {
+        if (this.isNormalized(chunk)) return;
+        World world = chunk.getWorld();
+        String key = world.getUID() + ":" + chunk.getChunkKey();
+        if (!this.pending.add(key)) return;
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+        int chunkX = chunk.getX();
+        int chunkZ = chunk.getZ();
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> {
+            ChunkCustomBlocks found = new ChunkCustomBlocks(minHeight, maxHeight);
+            for (int baseY = minHeight; baseY < maxHeight; baseY += 16) {
+                if (snapshot.isSectionEmpty((baseY - minHeight) >> 4)) continue;
+                for (int y = baseY; y < baseY + 16 && y < maxHeight; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            BlockData vanilla = this.vanillaStates.get(snapshot.getBlockType(x, y, z));
+                            if (vanilla != null && !vanilla.equals(snapshot.getBlockData(x, y, z))) found.add(x, y, z);
+                        }
+                    }
+                }
+            }
+            Bukkit.getScheduler().runTask(this.plugin, () -> {
+                this.pending.remove(key);
+                if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+                Chunk loaded = world.getChunkAt(chunkX, chunkZ);
+                found.forEach((x, y, z) -> this.normalize(loaded.getBlock(x, y, z)));
+                loaded.getPersistentDataContainer().set(this.storageKey, PersistentDataType.BYTE, (byte) 1);
+            });
+        });
+    }
+
+    /**
+     * Rewrites a natural mushroom block to the vanilla state,
+     * keeping custom blocks placed since the chunk was scanned.
+     */
+    private void normalize(Block block) {
+        BlockData vanilla = this.vanillaStates.get(block.getType());
+        if (vanilla == null || this.index.contains(block)) return;
+        block.setBlockData(vanilla, false);
+    }
+}
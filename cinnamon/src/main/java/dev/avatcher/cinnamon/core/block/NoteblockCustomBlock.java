@@ -1,23 +1,17 @@
 package dev.avatcher.cinnamon.core.block;
 
-import com.google.common.base.Preconditions;
 import dev.avatcher.cinnamon.api.blocks.CustomBlock;
 import dev.avatcher.cinnamon.api.blocks.CustomBlockBehaviour;
 import dev.avatcher.cinnamon.core.CinnamonPlugin;
 import dev.avatcher.cinnamon.core.block.behaviour.DefaultCustomBlockBehaviour;
 import dev.avatcher.cinnamon.core.block.behaviour.NoteblockBehaviour;
-import dev.avatcher.cinnamon.core.block.events.CustomBlockPlaceEventImpl;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarriers;
 import lombok.Getter;
 import org.bukkit.*;
 import org.bukkit.block.Block;
-import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.type.NoteBlock;
-import org.bukkit.entity.Player;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Optional;
 import java.util.Set;
 
@@ -25,7 +19,7 @@ import java.util.Set;
  * The representation of Cinnamon noteblock-based custom block
  */
 @Getter
-public class NoteblockCustomBlock implements CustomBlock {
+public class NoteblockCustomBlock extends CarriedCustomBlock {
     /**
      * A custom block representing a "normal" noteblock
      */
@@ -38,10 +32,7 @@ public class NoteblockCustomBlock implements CustomBlock {
         NOTEBLOCK = new NoteblockCustomBlock(noteblockKey, noteblockModelKey, noteblockTune, new NoteblockBehaviour());
     }
 
-    private final NamespacedKey identifier;
-    private final NamespacedKey model;
     private final NoteblockTune tune;
-    private CustomBlockBehaviour behaviour = new DefaultCustomBlockBehaviour();
 
     /**
      * Creates a new custom block based
@@ -76,10 +67,13 @@ public class NoteblockCustomBlock implements CustomBlock {
      * @param behaviour The behaviour of the block
      */
     public NoteblockCustomBlock(NamespacedKey key, NamespacedKey modelKey, NoteblockTune tune, CustomBlockBehaviour behaviour) {
-        this.identifier = key;
-        this.model = modelKey;
+        super(key, modelKey, BlockCarriers.NOTE_BLOCK, tune.stateIndex(), behaviour);
         this.tune = tune;
-        this.setBehaviour(behaviour);
+    }
+
+    @Override
+    public NoteBlock getBlockData() {
+        return (NoteBlock) super.getBlockData();
     }
 
     /**
@@ -105,111 +99,16 @@ public class NoteblockCustomBlock implements CustomBlock {
     }
 
     /**
-     * Places this custom block at a given location.
-     *
-     * @param location Location to place the custom
-     *                 block at
-     */
-    public void placeAt(@NotNull Location location) {
-        this.placeAt(location, null);
-    }
-
-    /**
-     * Places this custom block at a given location
-     * by a specific player.
-     *
-     * @param location Location to place the custom
-     *                 block at
-     * @param player   Player that placed the block
-     */
-    public void placeAt(@NotNull Location location, Player player) {
-        Block block = location.getBlock();
-        block.setBlockData(this.createBlockData(), true);
-
-        CustomBlockPlaceEventImpl.builder()
-                .block(block)
-                .customBlock(this)
-                .player(player)
-                .build()
-                .fire(this.getBehaviour());
-    }
-
-    /**
-     * Checks, if certain block is custom.
+     * Checks, if certain block is a noteblock,
+     * either a custom or a regular one.
      *
      * @param block Block to be checked
-     * @return {@code true}, if it is a custom block
+     * @return {@code true}, if it is a noteblock
      */
     public static boolean isCustom(@Nullable Block block) {
         return block != null && block.getType() == Material.NOTE_BLOCK;
     }
 
-    @Override
-    public BlockData createBlockData() {
-        NoteBlock blockData = (NoteBlock) Material.NOTE_BLOCK.createBlockData();
-        blockData.setNote(this.tune.getNote());
-        blockData.setInstrument(this.tune.getInstrument());
-        return blockData;
-    }
-
-    /**
-     * Sets the behaviour of this block. If
-     * {@code null} is provided, a new instance of
-     * {@link DefaultCustomBlockBehaviour} will be used.
-     *
-     * @param behaviour New behaviour of the block
-     */
-    public void setBehaviour(@Nullable CustomBlockBehaviour behaviour) {
-        this.behaviour = behaviour == null
-                ? new DefaultCustomBlockBehaviour()
-                : behaviour;
-        CinnamonPlugin.getInstance().getSLF4JLogger().info("Set behaviour of custom block '{}' to {}",
-                this.getKey(), this.behaviour.getClass().getSimpleName());
-    }
-
-    /**
-     * Sets the behaviour of this block by a new instance
-     * of a given behaviour's class. The method initializes
-     * a new behaviour instance using either the constructor
-     * accepting a single {@link CustomBlock} argument or
-     * the No-Args constructor, if the first one is not found.
-     *
-     * @param behaviourClazz Class of block behaviour
-     */
-    public void setBehaviour(Class<?> behaviourClazz) {
-        if (behaviourClazz == null) {
-            this.setBehaviour((CustomBlockBehaviour) null);
-            return;
-        }
-        Preconditions.checkArgument(CustomBlockBehaviour.class.isAssignableFrom(behaviourClazz),
-                "Custom block behaviour class '%s' does not implement %s interface"
-                        .formatted(behaviourClazz, CustomBlockBehaviour.class));
-        @SuppressWarnings("unchecked")
-        Class<? extends CustomBlockBehaviour> clazz = (Class<? extends CustomBlockBehaviour>) behaviourClazz;
-        try {
-            Constructor<? extends CustomBlockBehaviour> constructor = clazz.getConstructor(CustomBlock.class);
-            CustomBlockBehaviour behaviour = constructor.newInstance(this);
-            this.setBehaviour(behaviour);
-            return;
-        } catch (NoSuchMethodException ignored) {
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
-        try {
-            Constructor<? extends CustomBlockBehaviour> constructor = clazz.getConstructor();
-            CustomBlockBehaviour behaviour = constructor.newInstance();
-            this.setBehaviour(behaviour);
-            return;
-        } catch (NoSuchMethodException ignored) {
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
-            throw new RuntimeException(e);
-        }
-        // Reached, only if two instances of
-        // NoSuchMethodException were thrown
-        throw new IllegalStateException("Custom block behaviour '%s' does not have a matching constructor"
-                .formatted(behaviourClazz));
-    }
-
     /**
      * Checks, if certain block is a custom block
      * <strong>and</strong> it is a normal noteblock.
@@ -219,9 +118,7 @@ public class NoteblockCustomBlock implements CustomBlock {
      */
     public static boolean isRegularNoteblock(@Nullable Block block) {
         if (!isCustom(block)) return false;
-        NoteBlock blockData = (NoteBlock) block.getBlockData();
-        return blockData.getNote().equals(NoteblockCustomBlock.NOTEBLOCK.getNote())
-                && blockData.getInstrument().equals(NoteblockCustomBlock.NOTEBLOCK.getInstrument());
+        return CinnamonPlugin.getInstance().getResourcesManager().getCustomBlocks().get(block) == NOTEBLOCK;
     }
 
     /**
@@ -284,20 +181,8 @@ public class NoteblockCustomBlock implements CustomBlock {
      *         is not possible
      */
     public static Optional<NoteblockCustomBlock> of(Block block) {
-        if (!isCustom(block)) return Optional.empty();
-        NoteBlock blockData = (NoteBlock) block.getBlockData();
-        Note blockNote = blockData.getNote();
-        Instrument blockInstrument = blockData.getInstrument();
-        return CinnamonPlugin.getInstance().getResourcesManager().getCustomBlocks().stream()
-                .filter(customBlock -> customBlock instanceof NoteblockCustomBlock)
-                .map(customBlock -> (NoteblockCustomBlock) customBlock)
-                .filter(customBlock -> customBlock.getNote().equals(blockNote))
-                .filter(customBlock -> customBlock.getInstrument().equals(blockInstrument))
-                .findAny();
-    }
-
-    @Override
-    public @NotNull NamespacedKey getKey() {
-        return this.getIdentifier();
+        CustomBlock customBlock = CinnamonPlugin.getInstance().getResourcesManager().getCustomBlocks().get(block);
+        if (!(customBlock instanceof NoteblockCustomBlock noteblockCustomBlock)) return Optional.empty();
+        return Optional.of(noteblockCustomBlock);
     }
 }
@@ -0,0 +1,90 @@
+package dev.avatcher.cinnamon.core.block;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.type.NoteBlock;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Restores tunes of noteblocks moved by pistons.
+ * <p>
+ * A noteblock arriving at its destination recalculates its
+ * instrument from the block below, turning a custom block into
+ * another one. Tunes captured before the move are re-applied
+ * in a single batched pass once the moving blocks have settled.
+ */
+public class NoteblockMoveRestorer implements Runnable {
+    /**
+     * Amount of ticks to wait for a moving block to settle
+     */
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final Plugin plugin;
+    private List<MovedNoteblock> pending = new ArrayList<>();
+    private BukkitTask task;
+
+    /**
+     * Creates a new restorer.
+     *
+     * @param plugin Plugin owning the restoring task
+     */
+    public NoteblockMoveRestorer(@NotNull Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Schedules restoring of a moved noteblock's tune.
+     *
+     * @param destination Position the noteblock is moved to
+     * @param blockData   Block data of the noteblock before the move
+     */
+    public void restore(@NotNull Block destination, @NotNull NoteBlock blockData) {
+        this.pending.add(new MovedNoteblock(destination, blockData, 0));
+        if (this.task == null) {
+            this.task = Bukkit.getScheduler().runTaskTimer(this.plugin, this, 1, 1);
+        }
+    }
+
+    @Override
+    public void run() {
+        List<MovedNoteblock> moved = this.pending;
+        this.pending = new ArrayList<>();
+        for (MovedNoteblock noteblock : moved) {
+            Block block = noteblock.destination();
+            Material type = block.getType();
+            if (type == Material.MOVING_PISTON) {
+                if (noteblock.attempts() < MAX_ATTEMPTS) {
+                    this.pending.add(new MovedNoteblock(block, noteblock.blockData(), noteblock.attempts() + 1));
+                }
+                continue;
+            }
+            if (type != Material.NOTE_BLOCK) continue;
+            NoteBlock saved = noteblock.blockData();
+            NoteBlock current = (NoteBlock) block.getBlockData();
+            if (current.getInstrument() == saved.getInstrument() && current.getNote().equals(saved.getNote())) continue;
+            current.setInstrument(saved.getInstrument());
+            current.setNote(saved.getNote());
+            block.setBlockData(current, false);
+        }
+        if (this.pending.isEmpty()) {
+            this.task.cancel();
+            this.task = null;
+        }
+    }
+
+    /**
+     * A noteblock moved by a piston
+     *
+     * @param destination Position the noteblock is moved to
+     * @param blockData   Block data of the noteblock before the move
+     * @param attempts    Amount of ticks the noteblock has been moving
+     */
+    private record MovedNoteblock(Block destination, NoteBlock blockData, int attempts) {
+    }
+}
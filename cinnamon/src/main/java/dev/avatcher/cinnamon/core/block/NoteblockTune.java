@@ -2,8 +2,10 @@ package dev.avatcher.cinnamon.core.block;
 
 import org.bukkit.Instrument;
 import org.bukkit.Keyed;
+import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.Note;
+import org.bukkit.block.data.type.NoteBlock;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
@@ -12,14 +14,80 @@ import org.jetbrains.annotations.NotNull;
  * including its note and instrument.
  */
 public record NoteblockTune(NamespacedKey key, byte note, byte instrument) implements Keyed {
+    /**
+     * Amount of notes a noteblock can play
+     * with a single instrument
+     */
+    public static final int NOTES = 25;
+
+    /**
+     * All the noteblock instruments, indexed by
+     * their ordinal
+     */
+    private static final Instrument[] INSTRUMENTS = Instrument.values();
+
+    /**
+     * Minecraft names of the noteblock instruments, indexed
+     * by their ordinal, resolved once they are requested
+     */
+    private static final String[] INSTRUMENT_NAMES = new String[INSTRUMENTS.length];
+
+    /**
+     * Prefix of the instrument property
+     * in a noteblock's blockstate string
+     */
+    private static final String INSTRUMENT_PROPERTY = "instrument=";
+
+    /**
+     * All the noteblock notes, indexed by their id
+     */
+    private static final Note[] NOTE_VALUES = new Note[NOTES];
+
+    static {
+        for (int i = 0; i < NOTES; i++) {
+            NOTE_VALUES[i] = new Note(i);
+        }
+    }
+
+    /**
+     * Amount of all the noteblock tunes, that
+     * can be represented by a noteblock blockstate
+     */
+    public static final int STATES = INSTRUMENTS.length * NOTES;
+
+    /**
+     * Gets the dense index of a noteblock tune
+     * with the given note and instrument.
+     *
+     * @param note       Note of the tune
+     * @param instrument Instrument of the tune
+     * @return Index in range from {@code 0} to {@link #STATES} (exclusive)
+     */
+    @Contract(pure = true)
+    public static int stateIndex(@NotNull Note note, @NotNull Instrument instrument) {
+        return instrument.ordinal() * NOTES + note.getId();
+    }
+
+    /**
+     * Gets the dense index of this noteblock tune.
+     *
+     * @return Index in range from {@code 0} to {@link #STATES} (exclusive)
+     *
+     * @see #stateIndex(Note, Instrument)
+     */
+    @Contract(pure = true)
+    public int stateIndex() {
+        return this.instrument * NOTES + this.note;
+    }
+
     /**
      * Gets the note of the noteblock tune.
      *
      * @return This tune's note
      */
-    @Contract(value = " -> new", pure = true)
+    @Contract(pure = true)
     public @NotNull Note getNote() {
-        return new Note(this.note);
+        return NOTE_VALUES[this.note];
     }
 
     /**
@@ -29,7 +97,7 @@ public record NoteblockTune(NamespacedKey key, byte note, byte instrument) imple
      */
     @Contract(pure = true)
     public Instrument getInstrument() {
-        return Instrument.values()[this.instrument];
+        return INSTRUMENTS[this.instrument];
     }
 
     /**
@@ -38,35 +106,76 @@ public record NoteblockTune(NamespacedKey key, byte note, byte instrument) imple
      * <p>
      *     All possible values include:
      * <ul>
-     *     <li>{@code bass}</li>
+     *     <li>{@code harp}</li>
+     *     <li>{@code basedrum}</li>
      *     <li>{@code snare}</li>
      *     <li>{@code hat}</li>
-     *     <li>{@code basedrum}</li>
-     *     <li>{@code bell}</li>
+     *     <li>{@code bass}</li>
      *     <li>{@code flute}</li>
-     *     <li>{@code chime}</li>
+     *     <li>{@code bell}</li>
      *     <li>{@code guitar}</li>
+     *     <li>{@code chime}</li>
      *     <li>{@code xylophone}</li>
+     *     <li>{@code iron_xylophone}</li>
      *     <li>{@code cow_bell}</li>
      *     <li>{@code didgeridoo}</li>
      *     <li>{@code bit}</li>
      *     <li>{@code banjo}</li>
      *     <li>{@code pling}</li>
-     *     <li>{@code skeleton}</li>
-     *     <li>{@code wither_skeleton}</li>
      *     <li>{@code zombie}</li>
+     *     <li>{@code skeleton}</li>
      *     <li>{@code creeper}</li>
+     *     <li>{@code dragon}</li>
+     *     <li>{@code wither_skeleton}</li>
      *     <li>{@code piglin}</li>
-     *     <li>{@code ender_dragon}</li>
-     *     <li>{@code harp}</li>
+     *     <li>{@code custom_head}</li>
      * </ul>
      * </p>
+     * The name is taken from the blockstate string of
+     * a noteblock, so it always matches the name used by
+     * blockstate files of resource packs.
      *
      * @return Minecraft name of this tune's instrument
      */
     public @NotNull String getInstrumentMcString() {
-        String soundName = this.getInstrument().getSound().name().toLowerCase();
-        return soundName.substring(soundName.lastIndexOf("_") + 1);
+        return getInstrumentMcString(this.getInstrument());
+    }
+
+    /**
+     * Gets a minecraft name of a noteblock instrument.
+     *
+     * @param instrument Noteblock instrument
+     * @return Minecraft name of the instrument
+     *
+     * @see #getInstrumentMcString()
+     */
+    public static @NotNull String getInstrumentMcString(@NotNull Instrument instrument) {
+        String name = INSTRUMENT_NAMES[instrument.ordinal()];
+        if (name == null) {
+            NoteBlock blockData = (NoteBlock) Material.NOTE_BLOCK.createBlockData();
+            blockData.setInstrument(instrument);
+            String state = blockData.getAsString();
+            int start = state.indexOf(INSTRUMENT_PROPERTY) + INSTRUMENT_PROPERTY.length();
+            int end = start;
+            while (end < state.length() && state.charAt(end) != ',' && state.charAt(end) != ']') end++;
+            name = state.substring(start, end);
+            INSTRUMENT_NAMES[instrument.ordinal()] = name;
+        }
+        return name;
+    }
+
+    /**
+     * Gets a noteblock tune by its dense index.
+     *
+     * @param key        Key of the tune
+     * @param stateIndex Index in range from {@code 0} to {@link #STATES} (exclusive)
+     * @return Noteblock tune
+     *
+     * @see #stateIndex()
+     */
+    @Contract(pure = true)
+    public static @NotNull NoteblockTune of(NamespacedKey key, int stateIndex) {
+        return new NoteblockTune(key, (byte) (stateIndex % NOTES), (byte) (stateIndex / NOTES));
     }
 
     @Override
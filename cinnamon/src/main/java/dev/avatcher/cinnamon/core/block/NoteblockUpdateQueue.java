@@ -0,0 +1,182 @@
+package dev.avatcher.cinnamon.core.block;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Queue of noteblocks whose state has to be re-sent to the clients.
+ * <p>
+ * Clients predict a noteblock's tune change when its neighbours
+ * change, while the server cancels it, so the affected noteblocks
+ * have to be re-sent. Instead of updating a block state on every
+ * event, positions are collected during the tick, deduplicated,
+ * and flushed once at the end of the tick by sending the block's
+ * custom data to the players who can see it.
+ * <p>
+ * The data of each block is captured, when it is first enqueued
+ * during the tick, before its neighbour update is applied. If the
+ * update has changed the tune of a custom block anyway,
+ * the captured data is restored on the server before it is re-sent,
+ * so the wrong state is repaired instead of being spread to clients.
+ */
+public class NoteblockUpdateQueue implements Listener {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<UUID, long[]> positions = new HashMap<>();
+    private final Map<UUID, Integer> sizes = new HashMap<>();
+    /**
+     * Data of enqueued blocks at their first enqueuing during the tick
+     */
+    private final Map<UUID, Map<Long, BlockData>> states = new HashMap<>();
+    /**
+     * Total amount of enqueued positions
+     */
+    @Getter
+    private long enqueued;
+    /**
+     * Total amount of positions actually re-sent
+     */
+    @Getter
+    private long applied;
+    /**
+     * Total amount of enqueued positions merged
+     * with another update of the same tick
+     */
+    @Getter
+    private long coalesced;
+
+    /**
+     * Enqueues a block to be re-sent
+     * to clients at the end of the tick.
+     *
+     * @param block Block to re-send
+     */
+    public void enqueue(@NotNull Block block) {
+        UUID world = block.getWorld().getUID();
+        long[] buffer = this.positions.get(world);
+        int size = this.sizes.getOrDefault(world, 0);
+        if (buffer == null) {
+            buffer = new long[INITIAL_CAPACITY];
+            this.positions.put(world, buffer);
+        } else if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, size * 2);
+            this.positions.put(world, buffer);
+        }
+        buffer[size] = block.getBlockKey();
+        this.sizes.put(world, size + 1);
+        this.states.computeIfAbsent(world, uuid -> new HashMap<>())
+                .putIfAbsent(block.getBlockKey(), block.getBlockData());
+        this.enqueued++;
+    }
+
+    /**
+     * Flushes the queue at the end of every tick.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(@NotNull ServerTickEndEvent event) {
+        this.flush();
+    }
+
+    /**
+     * Re-sends all the enqueued blocks, each one once.
+     */
+    public void flush() {
+        if (this.sizes.isEmpty()) return;
+        for (var entry : this.sizes.entrySet()) {
+            int size = entry.getValue();
+            if (size == 0) continue;
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) continue;
+            long[] buffer = this.positions.get(entry.getKey());
+            Arrays.sort(buffer, 0, size);
+            Map<Long, BlockData> worldStates = this.states.get(entry.getKey());
+            List<Viewer> viewers = world.getPlayers().stream().map(Viewer::of).toList();
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                long position = buffer[i];
+                if (i > 0 && position == previous) {
+                    this.coalesced++;
+                    continue;
+                }
+                previous = position;
+                this.resend(world.getBlockAtKey(position), worldStates.get(position), viewers);
+            }
+        }
+        this.sizes.clear();
+        this.states.clear();
+    }
+
+    /**
+     * Sends a noteblock's custom data to players whose view
+     * distance covers it, restoring the data on the server,
+     * if the tune of a custom block has changed.
+     *
+     * @param block    Block to re-send
+     * @param captured Data of the block captured on enqueuing
+     * @param viewers  Players of the block's world
+     */
+    private void resend(@NotNull Block block, @NotNull BlockData captured, @NotNull List<Viewer> viewers) {
+        if (block.getType() != Material.NOTE_BLOCK) return;
+        BlockData blockData = block.getBlockData();
+        if (!blockData.equals(captured) && isCustom(captured)) {
+            block.setBlockData(captured, false);
+            blockData = captured;
+        }
+        Location location = block.getLocation();
+        int chunkX = block.getX() >> 4;
+        int chunkZ = block.getZ() >> 4;
+        for (Viewer viewer : viewers) {
+            if (Math.abs(viewer.chunkX() - chunkX) > viewer.distance()
+                    || Math.abs(viewer.chunkZ() - chunkZ) > viewer.distance()) continue;
+            viewer.player().sendBlockChange(location, blockData);
+        }
+        this.applied++;
+    }
+
+    /**
+     * Checks, if block data belongs to a non-regular custom block.
+     *
+     * @param blockData Data of a noteblock
+     * @return {@code true}, if the data is of a custom block
+     */
+    private static boolean isCustom(@NotNull BlockData blockData) {
+        CarriedCustomBlock customBlock = CinnamonPlugin.getInstance().getResourcesManager().getCustomBlocks().get(blockData);
+        return customBlock != null && customBlock != NoteblockCustomBlock.NOTEBLOCK;
+    }
+
+    /**
+     * A player with the chunk and view distance
+     * captured once per flush
+     *
+     * @param player   Player
+     * @param chunkX   X coordinate of the player's chunk
+     * @param chunkZ   Z coordinate of the player's chunk
+     * @param distance View distance of the player in chunks
+     */
+    private record Viewer(Player player, int chunkX, int chunkZ, int distance) {
+        private static Viewer of(Player player) {
+            Location location = player.getLocation();
+            return new Viewer(player, location.getBlockX() >> 4, location.getBlockZ() >> 4, player.getViewDistance());
+        }
+    }
+}
@@ -7,4 +7,8 @@ import dev.avatcher.cinnamon.api.blocks.CustomBlockBehaviour;
  * all custom blocks by default
  */
 public final class DefaultCustomBlockBehaviour implements CustomBlockBehaviour {
+    @Override
+    public boolean handlesPlacement() {
+        return false;
+    }
 }
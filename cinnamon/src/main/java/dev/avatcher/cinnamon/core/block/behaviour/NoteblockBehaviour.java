@@ -9,4 +9,9 @@ import dev.avatcher.cinnamon.api.blocks.events.CustomBlockInteractEvent;
 public class NoteblockBehaviour implements CustomBlockBehaviour {
     @Override
     public void onInteract(CustomBlockInteractEvent event) {}
+
+    @Override
+    public boolean handlesPlacement() {
+        return false;
+    }
 }
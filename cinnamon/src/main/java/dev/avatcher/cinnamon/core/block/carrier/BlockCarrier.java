@@ -0,0 +1,114 @@
+package dev.avatcher.cinnamon.core.block.carrier;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A vanilla block, whose blockstates carry custom blocks.
+ * <p>
+ * Every state a carrier is able to represent has a dense index
+ * in range from {@code 0} to {@link #getStates()} (exclusive),
+ * so custom blocks of a carrier are looked up in a plain array.
+ * Some of the states are reserved for the vanilla block itself
+ * and are never given to custom blocks.
+ *
+ * @see BlockCarriers
+ */
+public interface BlockCarrier {
+    /**
+     * Gets the name of the carrier used
+     * in configs and block definitions.
+     *
+     * @return Name of the carrier
+     */
+    @NotNull String getName();
+
+    /**
+     * Gets all the materials, blockstates
+     * of which carry custom blocks.
+     *
+     * @return Materials of the carrier
+     */
+    @NotNull Set<Material> getMaterials();
+
+    /**
+     * Gets the amount of states this carrier can represent.
+     *
+     * @return Amount of states, including the reserved ones
+     */
+    int getStates();
+
+    /**
+     * Checks, if a state is reserved for the vanilla block.
+     *
+     * @param stateIndex Index of the state
+     * @return {@code true}, if custom blocks cannot use the state
+     */
+    boolean isReserved(int stateIndex);
+
+    /**
+     * Creates block data of a state.
+     *
+     * @param stateIndex Index of the state
+     * @return New block data
+     */
+    @NotNull BlockData createBlockData(int stateIndex);
+
+    /**
+     * Gets all the block data, a placed block of
+     * a state can have without changing its look.
+     *
+     * @param stateIndex Index of the state
+     * @return Block data of the placed state
+     */
+    default @NotNull List<BlockData> getPlacedStates(int stateIndex) {
+        return List.of(this.createBlockData(stateIndex));
+    }
+
+    /**
+     * Gets the variant of a state as it is
+     * written in a resource pack's blockstate file.
+     *
+     * @param stateIndex Index of the state
+     * @return Blockstate variant, such as {@code note=1,instrument=harp}
+     */
+    @NotNull String getVariant(int stateIndex);
+
+    /**
+     * Gets the material of a state.
+     *
+     * @param stateIndex Index of the state
+     * @return Material of the state
+     */
+    @NotNull Material getMaterial(int stateIndex);
+
+    /**
+     * Gets the model of the vanilla block, which is used in
+     * a resource pack by all the states, that do not carry
+     * a custom block, once the blockstate file is overridden.
+     *
+     * @param material Material of the carrier
+     * @return Key of the model
+     */
+    @NotNull String getVanillaModel(@NotNull Material material);
+
+    /**
+     * Checks, if the states carrying custom blocks also occur
+     * naturally, e.g. in generated, grown or placed blocks.
+     * Blocks of such a carrier are rewritten to the vanilla
+     * state, when they appear, and are not custom in chunks,
+     * that have not been rewritten yet. They are indexed only
+     * where custom blocks are placed, not by scanning chunks.
+     *
+     * @return {@code true}, if the states occur naturally
+     *
+     * @see dev.avatcher.cinnamon.core.block.MushroomNormalizer
+     */
+    default boolean hasNaturalStates() {
+        return false;
+    }
+}
@@ -0,0 +1,135 @@
+package dev.avatcher.cinnamon.core.block.carrier;
+
+import lombok.Getter;
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Block carriers enabled on the server.
+ * Noteblocks are always enabled, the other
+ * carriers are enabled in the config.
+ *
+ * @see dev.avatcher.cinnamon.core.block.CustomBlocksConfig
+ */
+public class BlockCarriers {
+    /**
+     * The carrier based on noteblock tunes
+     */
+    public static final NoteblockCarrier NOTE_BLOCK = new NoteblockCarrier();
+    /**
+     * The carrier based on faces of mushroom blocks
+     */
+    public static final MushroomCarrier MUSHROOM_BLOCK = new MushroomCarrier();
+
+    /**
+     * All the known carriers by their names
+     */
+    private static final Map<String, BlockCarrier> KNOWN = Map.of(
+            NOTE_BLOCK.getName(), NOTE_BLOCK,
+            MUSHROOM_BLOCK.getName(), MUSHROOM_BLOCK
+    );
+
+    /**
+     * Enabled carriers
+     */
+    @Getter
+    private final List<BlockCarrier> carriers;
+    /**
+     * Enabled carriers indexed by
+     * ordinals of their materials
+     */
+    private final BlockCarrier[] byMaterial = new BlockCarrier[Material.values().length];
+
+    /**
+     * Enables carriers with the given names.
+     *
+     * @param names Names of the carriers
+     * @param log   Logger reporting unknown carriers
+     */
+    public BlockCarriers(@NotNull Collection<String> names, @NotNull Logger log) {
+        List<BlockCarrier> carriers = new ArrayList<>();
+        carriers.add(NOTE_BLOCK);
+        for (String name : names) {
+            BlockCarrier carrier = KNOWN.get(name);
+            if (carrier == null) {
+                log.warning("Unknown custom block carrier '%s', known carriers are %s"
+                        .formatted(name, KNOWN.keySet()));
+            } else if (!carriers.contains(carrier)) {
+                carriers.add(carrier);
+            }
+        }
+        this.carriers = List.copyOf(carriers);
+        this.carriers.forEach(carrier -> carrier.getMaterials()
+                .forEach(material -> this.byMaterial[material.ordinal()] = carrier));
+    }
+
+    /**
+     * Gets an enabled carrier by its name.
+     *
+     * @param name Name of the carrier
+     * @return {@code null}, if the carrier
+     *         is unknown or disabled
+     */
+    public @Nullable BlockCarrier get(@NotNull String name) {
+        BlockCarrier carrier = KNOWN.get(name);
+        return this.carriers.contains(carrier) ? carrier : null;
+    }
+
+    /**
+     * Gets an enabled carrier of a material.
+     *
+     * @param material Material of a block
+     * @return {@code null}, if the material
+     *         carries no custom blocks
+     */
+    public @Nullable BlockCarrier get(@NotNull Material material) {
+        return this.byMaterial[material.ordinal()];
+    }
+
+    /**
+     * Checks, if blocks of a material may be custom.
+     *
+     * @param material Material of a block
+     * @return {@code true}, if an enabled
+     *         carrier uses the material
+     */
+    public boolean isCarrier(@NotNull Material material) {
+        return this.byMaterial[material.ordinal()] != null;
+    }
+
+    /**
+     * Checks, if a carrier is enabled.
+     *
+     * @param carrier Carrier to check
+     * @return {@code true}, if the carrier is enabled
+     */
+    public boolean isEnabled(@NotNull BlockCarrier carrier) {
+        return this.carriers.contains(carrier);
+    }
+
+    /**
+     * Gets a known carrier by its name, even if it is disabled.
+     *
+     * @param name Name of the carrier
+     * @return {@code null}, if the carrier is unknown
+     */
+    public static @Nullable BlockCarrier getKnown(@NotNull String name) {
+        return KNOWN.get(name);
+    }
+
+    /**
+     * Gets all the known carriers, including disabled ones.
+     *
+     * @return Known carriers
+     */
+    public static @NotNull Collection<BlockCarrier> getKnown() {
+        return KNOWN.values();
+    }
+}
@@ -0,0 +1,21 @@
+package dev.avatcher.cinnamon.core.block.carrier;
+
+import org.bukkit.Keyed;
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A state of a block carrier occupied by a custom block.
+ *
+ * @param key        Key of the custom block
+ * @param carrier    Name of the carrier
+ * @param stateIndex Index of the carrier's state
+ *
+ * @see BlockCarrier
+ */
+public record CarrierState(NamespacedKey key, String carrier, int stateIndex) implements Keyed {
+    @Override
+    public @NotNull NamespacedKey getKey() {
+        return this.key();
+    }
+}
@@ -0,0 +1,142 @@
+package dev.avatcher.cinnamon.core.block.carrier;
+
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.MultipleFacing;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A carrier of custom blocks based on the faces of
+ * mushroom blocks. Each of the three mushroom blocks
+ * has 64 states, one bit per face, the state with all
+ * the faces set is reserved for the vanilla block.
+ * <p>
+ * State index is {@code material * 64 + faces}, where
+ * {@code material} is the position of the block in
+ * {@link #MATERIALS} and the bits of {@code faces}
+ * follow the order of {@link #FACES}.
+ * <p>
+ * World generation and vanilla placement unset faces of
+ * mushroom blocks touching each other, so natural mushroom
+ * blocks occupy the same states as custom blocks. Enabling
+ * the carrier rewrites all the mushroom blocks of existing
+ * worlds to the vanilla state, and face updates of all the
+ * mushroom blocks are cancelled, see {@link #hasNaturalStates()}.
+ */
+public final class MushroomCarrier implements BlockCarrier {
+    /**
+     * The name of the carrier
+     */
+    public static final String NAME = "mushroom_block";
+
+    /**
+     * Mushroom blocks in the order of their state indices
+     */
+    private static final List<Material> MATERIALS = List.of(
+            Material.BROWN_MUSHROOM_BLOCK,
+            Material.RED_MUSHROOM_BLOCK,
+            Material.MUSHROOM_STEM
+    );
+
+    /**
+     * Faces of a mushroom block in the order of their bits,
+     * which is also the order of blockstate properties
+     */
+    private static final BlockFace[] FACES = {
+            BlockFace.DOWN,
+            BlockFace.EAST,
+            BlockFace.NORTH,
+            BlockFace.SOUTH,
+            BlockFace.UP,
+            BlockFace.WEST
+    };
+
+    /**
+     * Amount of states of a single mushroom block
+     */
+    private static final int MATERIAL_STATES = 1 << FACES.length;
+
+    /**
+     * Faces of the state, vanilla mushroom blocks are placed with
+     */
+    private static final int VANILLA_FACES = MATERIAL_STATES - 1;
+
+    @Override
+    public @NotNull String getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull Set<Material> getMaterials() {
+        return Set.copyOf(MATERIALS);
+    }
+
+    @Override
+    public int getStates() {
+        return MATERIALS.size() * MATERIAL_STATES;
+    }
+
+    @Override
+    public boolean isReserved(int stateIndex) {
+        return stateIndex % MATERIAL_STATES == VANILLA_FACES;
+    }
+
+    /**
+     * Gets the index of the state, vanilla
+     * mushroom blocks are placed with.
+     *
+     * @param material Mushroom block
+     * @return Index of the reserved state
+     */
+    public int getVanillaState(@NotNull Material material) {
+        return MATERIALS.indexOf(material) * MATERIAL_STATES + VANILLA_FACES;
+    }
+
+    @Override
+    public @NotNull BlockData createBlockData(int stateIndex) {
+        MultipleFacing blockData = (MultipleFacing) this.getMaterial(stateIndex).createBlockData();
+        int faces = stateIndex % MATERIAL_STATES;
+        for (int i = 0; i < FACES.length; i++) {
+            blockData.setFace(FACES[i], (faces & (1 << i)) != 0);
+        }
+        return blockData;
+    }
+
+    @Override
+    public @NotNull String getVariant(int stateIndex) {
+        int faces = stateIndex % MATERIAL_STATES;
+        StringBuilder variant = new StringBuilder();
+        for (int i = 0; i < FACES.length; i++) {
+            if (i > 0) variant.append(',');
+            variant.append(FACES[i].name().toLowerCase())
+                    .append('=')
+                    .append((faces & (1 << i)) != 0);
+        }
+        return variant.toString();
+    }
+
+    @Override
+    public @NotNull Material getMaterial(int stateIndex) {
+        return MATERIALS.get(stateIndex / MATERIAL_STATES);
+    }
+
+    @Override
+    public boolean hasNaturalStates() {
+        return true;
+    }
+
+    /**
+     * Gets the model of a mushroom block with all the faces set.
+     *
+     * @param material Mushroom block
+     * @return Key of the model
+     */
+    @Override
+    public @NotNull String getVanillaModel(@NotNull Material material) {
+        return "minecraft:block/" + material.getKey().getKey() + "_inventory";
+    }
+}
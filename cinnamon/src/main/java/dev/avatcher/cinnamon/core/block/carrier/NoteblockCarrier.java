@@ -0,0 +1,80 @@
+package dev.avatcher.cinnamon.core.block.carrier;
+
+import dev.avatcher.cinnamon.core.block.NoteblockTune;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.NoteBlock;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A carrier of custom blocks based on noteblock tunes.
+ * States are indexed by {@link NoteblockTune#stateIndex()},
+ * the tune {@code (0,0)} is reserved for regular noteblocks.
+ */
+public final class NoteblockCarrier implements BlockCarrier {
+    /**
+     * The name of the carrier
+     */
+    public static final String NAME = "note_block";
+
+    /**
+     * Index of the regular noteblock's tune
+     */
+    private static final int REGULAR_STATE = 0;
+
+    @Override
+    public @NotNull String getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull Set<Material> getMaterials() {
+        return Set.of(Material.NOTE_BLOCK);
+    }
+
+    @Override
+    public int getStates() {
+        return NoteblockTune.STATES;
+    }
+
+    @Override
+    public boolean isReserved(int stateIndex) {
+        return stateIndex == REGULAR_STATE;
+    }
+
+    @Override
+    public @NotNull BlockData createBlockData(int stateIndex) {
+        NoteblockTune tune = NoteblockTune.of(null, stateIndex);
+        NoteBlock blockData = (NoteBlock) Material.NOTE_BLOCK.createBlockData();
+        blockData.setNote(tune.getNote());
+        blockData.setInstrument(tune.getInstrument());
+        return blockData;
+    }
+
+    @Override
+    public @NotNull List<BlockData> getPlacedStates(int stateIndex) {
+        NoteBlock unpowered = (NoteBlock) this.createBlockData(stateIndex);
+        NoteBlock powered = (NoteBlock) unpowered.clone();
+        powered.setPowered(true);
+        return List.of(unpowered, powered);
+    }
+
+    @Override
+    public @NotNull String getVariant(int stateIndex) {
+        NoteblockTune tune = NoteblockTune.of(null, stateIndex);
+        return "note=%d,instrument=%s".formatted(tune.note(), tune.getInstrumentMcString());
+    }
+
+    @Override
+    public @NotNull Material getMaterial(int stateIndex) {
+        return Material.NOTE_BLOCK;
+    }
+
+    @Override
+    public @NotNull String getVanillaModel(@NotNull Material material) {
+        return "minecraft:block/note_block";
+    }
+}
@@ -1,12 +1,15 @@
 package dev.avatcher.cinnamon.core.block.events;
 
+import dev.avatcher.cinnamon.api.blocks.CustomBlock;
 import dev.avatcher.cinnamon.api.blocks.CustomBlockBehaviour;
 import dev.avatcher.cinnamon.api.blocks.events.CustomBlockPlaceEvent;
 import dev.avatcher.cinnamon.core.block.AbstractCustomBlockBehaviourEvent;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.experimental.SuperBuilder;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Implementation of {@link CustomBlockPlaceEvent}
@@ -17,6 +20,18 @@ public class CustomBlockPlaceEventImpl extends AbstractCustomBlockBehaviourEvent
     @Getter
     private final Player player;
 
+    /**
+     * Creates a place event of a custom block.
+     *
+     * @param block       Minecraft block
+     * @param customBlock Custom block
+     * @param player      Player who placed the block
+     */
+    public CustomBlockPlaceEventImpl(@NotNull Block block, @NotNull CustomBlock customBlock, Player player) {
+        super(block, customBlock);
+        this.player = player;
+    }
+
     @Override
     public void fire(CustomBlockBehaviour behaviour) {
         behaviour.onPlace(this);
@@ -0,0 +1,244 @@
+package dev.avatcher.cinnamon.core.block.index;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Positions of noteblock-based custom blocks inside a single chunk.
+ * <p>
+ * Positions are stored per chunk section as sorted arrays of
+ * short-packed local coordinates {@code y << 8 | z << 4 | x},
+ * so adding, removing and looking up a position is a binary
+ * search in at most 4096 entries, and a section without any
+ * custom block is recognized by a single array access.
+ */
+public final class ChunkCustomBlocks {
+    private static final int INITIAL_SECTION_CAPACITY = 8;
+
+    private final int minSection;
+    private final short[][] sections;
+    private final int[] sizes;
+    /**
+     * Total amount of indexed positions
+     */
+    @Getter
+    private int size;
+    /**
+     * Whether the index has been changed
+     * since it was last saved
+     */
+    @Getter
+    private boolean dirty;
+    /**
+     * Whether the index is known to contain
+     * all the noteblocks of the chunk
+     */
+    @Getter
+    private boolean tracked;
+
+    /**
+     * Creates an empty chunk index.
+     *
+     * @param minHeight Minimal height of the world
+     * @param maxHeight Maximal height of the world, exclusive
+     */
+    public ChunkCustomBlocks(int minHeight, int maxHeight) {
+        this.minSection = minHeight >> 4;
+        int sectionCount = ((maxHeight - 1) >> 4) - this.minSection + 1;
+        this.sections = new short[sectionCount][];
+        this.sizes = new int[sectionCount];
+    }
+
+    /**
+     * Adds a position to the index.
+     *
+     * @param x Block X, only the lowest 4 bits are used
+     * @param y Block Y
+     * @param z Block Z, only the lowest 4 bits are used
+     * @return {@code true}, if the position was not indexed before
+     */
+    public boolean add(int x, int y, int z) {
+        int section = (y >> 4) - this.minSection;
+        if (section < 0 || section >= this.sections.length) return false;
+        short packed = pack(x, y, z);
+        short[] positions = this.sections[section];
+        int size = this.sizes[section];
+        if (positions == null) {
+            positions = this.sections[section] = new short[INITIAL_SECTION_CAPACITY];
+        }
+        int index = Arrays.binarySearch(positions, 0, size, packed);
+        if (index >= 0) return false;
+        index = -index - 1;
+        if (size == positions.length) {
+            positions = this.sections[section] = Arrays.copyOf(positions, size * 2);
+        }
+        System.arraycopy(positions, index, positions, index + 1, size - index);
+        positions[index] = packed;
+        this.sizes[section]++;
+        this.size++;
+        this.dirty = true;
+        return true;
+    }
+
+    /**
+     * Removes a position from the index.
+     *
+     * @param x Block X, only the lowest 4 bits are used
+     * @param y Block Y
+     * @param z Block Z, only the lowest 4 bits are used
+     * @return {@code true}, if the position was indexed
+     */
+    public boolean remove(int x, int y, int z) {
+        int section = (y >> 4) - this.minSection;
+        if (section < 0 || section >= this.sections.length) return false;
+        short[] positions = this.sections[section];
+        if (positions == null) return false;
+        int size = this.sizes[section];
+        int index = Arrays.binarySearch(positions, 0, size, pack(x, y, z));
+        if (index < 0) return false;
+        System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+        if (--this.sizes[section] == 0) {
+            this.sections[section] = null;
+        }
+        this.size--;
+        this.dirty = true;
+        return true;
+    }
+
+    /**
+     * Checks, if a position is indexed.
+     *
+     * @param x Block X, only the lowest 4 bits are used
+     * @param y Block Y
+     * @param z Block Z, only the lowest 4 bits are used
+     * @return {@code true}, if the position is indexed
+     */
+    public boolean contains(int x, int y, int z) {
+        int section = (y >> 4) - this.minSection;
+        if (section < 0 || section >= this.sections.length) return false;
+        short[] positions = this.sections[section];
+        return positions != null && Arrays.binarySearch(positions, 0, this.sizes[section], pack(x, y, z)) >= 0;
+    }
+
+    /**
+     * Checks, if a chunk section contains
+     * at least one indexed position.
+     *
+     * @param sectionY Y coordinate of the section, i.e. {@code blockY >> 4}
+     * @return {@code true}, if the section has indexed positions
+     */
+    public boolean hasSection(int sectionY) {
+        int section = sectionY - this.minSection;
+        return section >= 0 && section < this.sections.length && this.sections[section] != null;
+    }
+
+    /**
+     * Visits all the indexed positions.
+     *
+     * @param consumer Consumer of local X, world Y and local Z
+     */
+    public void forEach(@NotNull PositionConsumer consumer) {
+        for (int section = 0; section < this.sections.length; section++) {
+            short[] positions = this.sections[section];
+            if (positions == null) continue;
+            int baseY = (section + this.minSection) << 4;
+            for (int i = 0, size = this.sizes[section]; i < size; i++) {
+                short packed = positions[i];
+                consumer.accept(packed & 15, baseY + (packed >> 8 & 15), packed >> 4 & 15);
+            }
+        }
+    }
+
+    /**
+     * Serializes the index as an array of
+     * {@code sectionY << 16 | packedPosition} values.
+     *
+     * @return Serialized index
+     */
+    public int[] toIntArray() {
+        int[] result = new int[this.size];
+        int i = 0;
+        for (int section = 0; section < this.sections.length; section++) {
+            short[] positions = this.sections[section];
+            if (positions == null) continue;
+            int sectionY = section + this.minSection;
+            for (int j = 0, size = this.sizes[section]; j < size; j++) {
+                result[i++] = sectionY << 16 | positions[j] & 0xFFFF;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds all the positions of an index
+     * serialized by {@link #toIntArray()}.
+     *
+     * @param serialized Serialized index
+     */
+    public void addAll(int @NotNull [] serialized) {
+        for (int value : serialized) {
+            int sectionY = value >> 16;
+            int packed = value & 0xFFFF;
+            this.add(packed & 15, sectionY << 4 | packed >> 8 & 15, packed >> 4 & 15);
+        }
+    }
+
+    /**
+     * Marks the index as complete, i.e. containing
+     * all the noteblocks of the chunk.
+     */
+    public void markTracked() {
+        if (this.tracked) return;
+        this.tracked = true;
+        this.dirty = true;
+    }
+
+    /**
+     * Marks the index as incomplete, e.g. while the chunk
+     * is rescanned, so no section of it is skipped.
+     */
+    public void markUntracked() {
+        this.tracked = false;
+    }
+
+    /**
+     * Checks, if noteblocks may be placed in a chunk
+     * section. Untracked indices may miss some noteblocks,
+     * so any section of them is considered occupied.
+     *
+     * @param sectionY Y coordinate of the section, i.e. {@code blockY >> 4}
+     * @return {@code false}, if the section surely
+     *         has no noteblocks
+     */
+    public boolean mayContain(int sectionY) {
+        return !this.tracked || this.hasSection(sectionY);
+    }
+
+    /**
+     * Marks the index as saved.
+     */
+    public void markSaved() {
+        this.dirty = false;
+    }
+
+    private static short pack(int x, int y, int z) {
+        return (short) ((y & 15) << 8 | (z & 15) << 4 | (x & 15));
+    }
+
+    /**
+     * Consumer of indexed positions
+     */
+    @FunctionalInterface
+    public interface PositionConsumer {
+        /**
+         * Accepts an indexed position.
+         *
+         * @param x Local X inside the chunk
+         * @param y World Y
+         * @param z Local Z inside the chunk
+         */
+        void accept(int x, int y, int z);
+    }
+}
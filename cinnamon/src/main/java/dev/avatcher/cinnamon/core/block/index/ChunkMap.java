@@ -0,0 +1,131 @@
+package dev.avatcher.cinnamon.core.block.index;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Open addressing hash map of chunk indices by chunk keys,
+ * so lookups on the physics hot path neither box the key
+ * nor follow a chain of entries.
+ *
+ * @see org.bukkit.Chunk#getChunkKey(int, int)
+ */
+final class ChunkMap {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    /**
+     * Values of the slots, {@code null} for free slots
+     */
+    private ChunkCustomBlocks[] values = new ChunkCustomBlocks[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Gets the index of a chunk.
+     *
+     * @param key Key of the chunk
+     * @return {@code null}, if the chunk has no index
+     */
+    @Nullable ChunkCustomBlocks get(long key) {
+        int mask = this.keys.length - 1;
+        for (int slot = slot(key, mask); this.values[slot] != null; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == key) return this.values[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Puts the index of a chunk.
+     *
+     * @param key   Key of the chunk
+     * @param value Index of the chunk
+     */
+    void put(long key, @NotNull ChunkCustomBlocks value) {
+        if ((this.size + 1) * 2 > this.keys.length) this.resize(this.keys.length * 2);
+        int mask = this.keys.length - 1;
+        int slot = slot(key, mask);
+        for (; this.values[slot] != null; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == key) {
+                this.values[slot] = value;
+                return;
+            }
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        this.size++;
+    }
+
+    /**
+     * Removes the index of a chunk.
+     *
+     * @param key Key of the chunk
+     * @return Removed index, or {@code null}, if the chunk had none
+     */
+    @Nullable ChunkCustomBlocks remove(long key) {
+        int mask = this.keys.length - 1;
+        int slot = slot(key, mask);
+        for (; this.values[slot] != null; slot = (slot + 1) & mask) {
+            if (this.keys[slot] != key) continue;
+            ChunkCustomBlocks removed = this.values[slot];
+            this.shiftBack(slot, mask);
+            this.size--;
+            return removed;
+        }
+        return null;
+    }
+
+    /**
+     * Visits all the chunk indices.
+     *
+     * @param consumer Consumer of chunk keys and their indices
+     */
+    void forEach(@NotNull EntryConsumer consumer) {
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.values[slot] != null) consumer.accept(this.keys[slot], this.values[slot]);
+        }
+    }
+
+    /**
+     * Frees a slot, moving the following entries of
+     * its cluster back, so no lookup stops early.
+     */
+    private void shiftBack(int free, int mask) {
+        for (int slot = (free + 1) & mask; this.values[slot] != null; slot = (slot + 1) & mask) {
+            int home = slot(this.keys[slot], mask);
+            // Entries, whose home slot lies cyclically in (free, slot], stay
+            if (free <= slot ? free < home && home <= slot : free < home || home <= slot) continue;
+            this.keys[free] = this.keys[slot];
+            this.values[free] = this.values[slot];
+            free = slot;
+        }
+        this.values[free] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        ChunkCustomBlocks[] oldValues = this.values;
+        this.keys = new long[capacity];
+        this.values = new ChunkCustomBlocks[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = slot(oldKeys[i], mask);
+            while (this.values[slot] != null) slot = (slot + 1) & mask;
+            this.keys[slot] = oldKeys[i];
+            this.values[slot] = oldValues[i];
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32) & mask;
+    }
+
+    /**
+     * Consumer of chunk keys and their indices
+     */
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long key, @NotNull ChunkCustomBlocks value);
+    }
+}
@@ -0,0 +1,346 @@
+package dev.avatcher.cinnamon.core.block.index;
+
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarrier;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarriers;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Index of custom blocks placed in loaded chunks.
+ * <p>
+ * Every loaded chunk has its own {@link ChunkCustomBlocks}
+ * saved in the chunk's persistent data container, so finding custom blocks of a chunk does not require
+ * reading every block of it. All the blocks of the enabled
+ * {@link BlockCarriers} are indexed, including regular noteblocks,
+ * since they can turn into custom blocks by changing their tune.
+ * Blocks of carriers with natural states are an exception: they
+ * are indexed only where custom blocks are placed, since natural
+ * ones are rewritten to the vanilla state.
+ * <p>
+ * A chunk is tracked, if its index is known to contain all of its
+ * noteblocks: either the chunk has stored index, or it has just been
+ * generated. Chunks saved before the index existed are scanned once
+ * asynchronously using a {@link ChunkSnapshot}, until then any section
+ * of them is assumed to contain noteblocks.
+ * <p>
+ * The index is only an accelerator for finding custom blocks, and
+ * nothing keeping tunes of noteblocks intact relies on it. It may
+ * contain stale positions, if a noteblock was removed bypassing
+ * events, so readers should check the actual block before relying
+ * on it. Noteblocks placed bypassing events, e.g. by WorldEdit or
+ * {@link Block#setBlockData(org.bukkit.block.data.BlockData)} in other
+ * plugins, are missing from the index of a tracked chunk, until a
+ * neighbour update reveals them or the chunk is rescanned with
+ * {@link #rescan(Chunk)}.
+ */
+public class CustomBlockIndex {
+    private final Plugin plugin;
+    private final NamespacedKey storageKey;
+    private final BlockCarriers carriers;
+    private final Map<UUID, ChunkMap> worlds = new HashMap<>();
+    /**
+     * Chunk indices of the last looked up world, since
+     * consecutive lookups tend to hit the same world
+     */
+    private UUID cachedWorld;
+    private ChunkMap cachedChunks;
+
+    /**
+     * Creates a new custom block index.
+     *
+     * @param plugin   Plugin owning the index' persistent data
+     * @param carriers Enabled block carriers
+     */
+    public CustomBlockIndex(@NotNull Plugin plugin, @NotNull BlockCarriers carriers) {
+        this.plugin = plugin;
+        this.carriers = carriers;
+        this.storageKey = new NamespacedKey(plugin, "custom_blocks");
+    }
+
+    /**
+     * Gets the index of a chunk.
+     *
+     * @param chunk Chunk
+     * @return {@code null}, if the chunk
+     *         has not been indexed
+     */
+    public @Nullable ChunkCustomBlocks get(@NotNull Chunk chunk) {
+        return this.get(chunk.getWorld(), Chunk.getChunkKey(chunk.getX(), chunk.getZ()));
+    }
+
+    /**
+     * Gets the index of a chunk by its key.
+     *
+     * @param world    World of the chunk
+     * @param chunkKey Key of the chunk
+     * @return {@code null}, if the chunk
+     *         has not been indexed
+     *
+     * @see Chunk#getChunkKey(int, int)
+     */
+    public @Nullable ChunkCustomBlocks get(@NotNull World world, long chunkKey) {
+        ChunkMap chunks = this.getChunks(world);
+        return chunks == null ? null : chunks.get(chunkKey);
+    }
+
+    private @Nullable ChunkMap getChunks(@NotNull World world) {
+        UUID worldId = world.getUID();
+        if (worldId.equals(this.cachedWorld)) return this.cachedChunks;
+        ChunkMap chunks = this.worlds.get(worldId);
+        if (chunks != null) {
+            this.cachedWorld = worldId;
+            this.cachedChunks = chunks;
+        }
+        return chunks;
+    }
+
+    /**
+     * Checks, if noteblocks may be placed in
+     * the chunk section of a block.
+     *
+     * @param block Block to check
+     * @return {@code false}, if there is surely no
+     *         noteblock in the block's section
+     */
+    public boolean mayContain(@NotNull Block block) {
+        ChunkCustomBlocks chunk = this.get(block.getWorld(), Chunk.getChunkKey(block.getX() >> 4, block.getZ() >> 4));
+        return chunk == null || chunk.mayContain(block.getY() >> 4);
+    }
+
+    /**
+     * Adds a placed block to the index.
+     *
+     * @param block Placed noteblock
+     */
+    public void add(@NotNull Block block) {
+        World world = block.getWorld();
+        long chunkKey = Chunk.getChunkKey(block.getX() >> 4, block.getZ() >> 4);
+        ChunkCustomBlocks chunk = this.get(world, chunkKey);
+        if (chunk == null) {
+            chunk = new ChunkCustomBlocks(world.getMinHeight(), world.getMaxHeight());
+            this.worlds.computeIfAbsent(world.getUID(), uuid -> new ChunkMap()).put(chunkKey, chunk);
+        }
+        chunk.add(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Removes a block from the index.
+     *
+     * @param block Block that is no longer a noteblock
+     */
+    public void remove(@NotNull Block block) {
+        ChunkCustomBlocks chunk = this.get(block.getWorld(), Chunk.getChunkKey(block.getX() >> 4, block.getZ() >> 4));
+        if (chunk != null) chunk.remove(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Checks, if a block is indexed.
+     *
+     * @param block Block to check
+     * @return {@code true}, if the block is indexed
+     */
+    public boolean contains(@NotNull Block block) {
+        ChunkCustomBlocks chunk = this.get(block.getWorld(), Chunk.getChunkKey(block.getX() >> 4, block.getZ() >> 4));
+        return chunk != null && chunk.contains(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Gets all the custom blocks placed in a chunk,
+     * dropping stale positions from the index. For a chunk
+     * that has not been scanned yet the result may be partial.
+     *
+     * @param chunk Loaded chunk
+     * @return Placed custom blocks
+     */
+    public @NotNull List<Block> getCustomBlocks(@NotNull Chunk chunk) {
+        ChunkCustomBlocks index = this.get(chunk);
+        if (index == null) return List.of();
+        List<Block> blocks = new ArrayList<>(index.getSize());
+        List<Block> stale = new ArrayList<>();
+        index.forEach((x, y, z) -> {
+            Block block = chunk.getBlock(x, y, z);
+            (this.carriers.isCarrier(block.getType()) ? blocks : stale).add(block);
+        });
+        stale.forEach(block -> index.remove(block.getX(), block.getY(), block.getZ()));
+        return blocks;
+    }
+
+    /**
+     * Loads the index of a chunk from its persistent data,
+     * or schedules a scan of the chunk, if it has none.
+     *
+     * @param chunk    Loaded chunk
+     * @param newChunk Whether the chunk has just been generated
+     */
+    public void load(@NotNull Chunk chunk, boolean newChunk) {
+        World world = chunk.getWorld();
+        ChunkCustomBlocks index = new ChunkCustomBlocks(world.getMinHeight(), world.getMaxHeight());
+        this.worlds.computeIfAbsent(world.getUID(), uuid -> new ChunkMap())
+                .put(Chunk.getChunkKey(chunk.getX(), chunk.getZ()), index);
+        int[] serialized = chunk.getPersistentDataContainer().get(this.storageKey, PersistentDataType.INTEGER_ARRAY);
+        if (serialized != null) {
+            index.addAll(serialized);
+            index.markTracked();
+            index.markSaved();
+        } else if (newChunk) {
+            index.markTracked();
+        } else {
+            this.scan(chunk, index);
+        }
+    }
+
+    /**
+     * Scans a loaded chunk once again, adding noteblocks placed
+     * bypassing events to its index. Until the scan completes,
+     * any section of the chunk is assumed to contain noteblocks.
+     *
+     * @param chunk Loaded chunk
+     */
+    public void rescan(@NotNull Chunk chunk) {
+        ChunkCustomBlocks index = this.get(chunk);
+        if (index == null) {
+            this.load(chunk, false);
+            return;
+        }
+        if (!index.isTracked()) return;
+        index.markUntracked();
+        this.scan(chunk, index);
+    }
+
+    /**
+     * Finds noteblocks of a chunk, that has no stored index,
+     * or has to be rescanned, by scanning its snapshot asynchronously.
+     *
+     * @param chunk Loaded chunk
+     * @param index Index of the chunk
+     */
+    private void scan(@NotNull Chunk chunk, @NotNull ChunkCustomBlocks index) {
+        World world = chunk.getWorld();
+        int minHeight = world.getMinHeight();
+        int maxHeight = world.getMaxHeight();
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> {
+            ChunkCustomBlocks scanned = new ChunkCustomBlocks(minHeight, maxHeight);
+            for (int baseY = minHeight; baseY < maxHeight; baseY += 16) {
+                if (snapshot.isSectionEmpty((baseY - minHeight) >> 4)) continue;
+                for (int y = baseY; y < baseY + 16 && y < maxHeight; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            if (this.isScanned(snapshot.getBlockType(x, y, z))) scanned.add(x, y, z);
+                        }
+                    }
+                }
+            }
+            int[] found = scanned.toIntArray();
+            Bukkit.getScheduler().runTask(this.plugin, () -> {
+                if (this.get(world, Chunk.getChunkKey(chunk.getX(), chunk.getZ())) != index) return;
+                index.addAll(found);
+                index.markTracked();
+            });
+        });
+    }
+
+    /**
+     * Checks, if blocks of a material are indexed,
+     * when they are found in a chunk or placed.
+     *
+     * @param material Material of a block
+     * @return {@code false}, if the material is not of a carrier,
+     *         or its carrier's states occur naturally
+     *
+     * @see BlockCarrier#hasNaturalStates()
+     */
+    public boolean isScanned(@NotNull Material material) {
+        BlockCarrier carrier = this.carriers.get(material);
+        return carrier != null && !carrier.hasNaturalStates();
+    }
+
+    /**
+     * Saves the index of a chunk to its persistent
+     * data, if it has changed since the last save.
+     *
+     * @param chunk Loaded chunk
+     */
+    public void save(@NotNull Chunk chunk) {
+        ChunkCustomBlocks index = this.get(chunk);
+        if (index != null) this.save(chunk, index);
+    }
+
+    private void save(@NotNull Chunk chunk, @NotNull ChunkCustomBlocks index) {
+        // An incomplete index must not be stored, otherwise
+        // the chunk would be considered tracked on the next load
+        if (!index.isDirty() || !index.isTracked()) return;
+        PersistentDataContainer container = chunk.getPersistentDataContainer();
+        container.set(this.storageKey, PersistentDataType.INTEGER_ARRAY, index.toIntArray());
+        index.markSaved();
+    }
+
+    /**
+     * Saves and drops the index of an unloaded chunk.
+     *
+     * @param chunk Chunk being unloaded
+     */
+    public void unload(@NotNull Chunk chunk) {
+        ChunkMap chunks = this.getChunks(chunk.getWorld());
+        if (chunks == null) return;
+        ChunkCustomBlocks index = chunks.remove(Chunk.getChunkKey(chunk.getX(), chunk.getZ()));
+        if (index != null) this.save(chunk, index);
+    }
+
+    /**
+     * Loads indices of all the currently loaded chunks of a world.
+     *
+     * @param world Loaded world
+     */
+    public void load(@NotNull World world) {
+        for (Chunk chunk : world.getLoadedChunks()) {
+            this.load(chunk, false);
+        }
+    }
+
+    /**
+     * Saves all the changed indices of a world.
+     *
+     * @param world Loaded world
+     */
+    public void save(@NotNull World world) {
+        ChunkMap chunks = this.getChunks(world);
+        if (chunks == null) return;
+        chunks.forEach((chunkKey, index) -> {
+            if (!index.isDirty()) return;
+            this.save(world.getChunkAt(chunkKey), index);
+        });
+    }
+
+    /**
+     * Saves and drops all the indices of a world.
+     *
+     * @param world World being unloaded
+     */
+    public void unload(@NotNull World world) {
+        this.save(world);
+        this.worlds.remove(world.getUID());
+        this.invalidateCache();
+    }
+
+    private void invalidateCache() {
+        this.cachedWorld = null;
+        this.cachedChunks = null;
+    }
+}
@@ -0,0 +1,157 @@
+package dev.avatcher.cinnamon.core.block.listeners;
+
+import com.destroystokyo.paper.event.block.BlockDestroyEvent;
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.CarriedCustomBlock;
+import dev.avatcher.cinnamon.core.block.index.CustomBlockIndex;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Listener that keeps {@link CustomBlockIndex} up to date
+ */
+public class CustomBlockIndexListener implements Listener {
+    private final CustomBlockIndex index;
+
+    /**
+     * Creates a new listener of the
+     * default Cinnamon custom block index.
+     */
+    public CustomBlockIndexListener() {
+        this.index = CinnamonPlugin.getInstance().getCustomBlockIndex();
+    }
+
+    /**
+     * Loads the index of a loaded chunk.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(@NotNull ChunkLoadEvent event) {
+        this.index.load(event.getChunk(), event.isNewChunk());
+    }
+
+    /**
+     * Saves and drops the index of an unloaded chunk.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(@NotNull ChunkUnloadEvent event) {
+        this.index.unload(event.getChunk());
+    }
+
+    /**
+     * Loads indices of chunks loaded together with a world.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(@NotNull WorldLoadEvent event) {
+        this.index.load(event.getWorld());
+    }
+
+    /**
+     * Saves changed indices of a saved world.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(@NotNull WorldSaveEvent event) {
+        this.index.save(event.getWorld());
+    }
+
+    /**
+     * Saves and drops indices of an unloaded world.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(@NotNull WorldUnloadEvent event) {
+        this.index.unload(event.getWorld());
+    }
+
+    /**
+     * Indexes a placed noteblock. Vanilla blocks of
+     * carriers with natural states are not indexed.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(@NotNull BlockPlaceEvent event) {
+        if (this.index.isScanned(event.getBlockPlaced().getType())) {
+            this.index.add(event.getBlockPlaced());
+        }
+    }
+
+    /**
+     * Removes a broken block from the index.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(@NotNull BlockBreakEvent event) {
+        this.index.remove(event.getBlock());
+    }
+
+    /**
+     * Removes a destroyed block from the index.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockDestroy(@NotNull BlockDestroyEvent event) {
+        this.index.remove(event.getBlock());
+    }
+
+    /**
+     * Removes a burnt block from the index.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(@NotNull BlockBurnEvent event) {
+        this.index.remove(event.getBlock());
+    }
+
+    /**
+     * Removes blocks blown up by a block from the index.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(@NotNull BlockExplodeEvent event) {
+        this.removeAll(event.blockList());
+    }
+
+    /**
+     * Removes blocks blown up by an entity from the index.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(@NotNull EntityExplodeEvent event) {
+        this.removeAll(event.blockList());
+    }
+
+    private void removeAll(@NotNull List<Block> blocks) {
+        for (Block block : blocks) {
+            if (CarriedCustomBlock.isCustom(block)) this.index.remove(block);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package dev.avatcher.cinnamon.core.block.listeners;
+
+import com.destroystokyo.paper.event.block.BlockDestroyEvent;
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.CarriedCustomBlock;
+import dev.avatcher.cinnamon.core.block.NoteblockCustomBlock;
+import dev.avatcher.cinnamon.core.block.events.CustomBlockBreakEventImpl;
+import dev.avatcher.cinnamon.core.block.events.CustomBlockDestroyEventImpl;
+import org.bukkit.GameMode;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Listener that processes breaking of custom
+ * blocks regardless of their carriers
+ *
+ * @see dev.avatcher.cinnamon.core.block.carrier.BlockCarrier
+ */
+public class CustomBlockListener implements Listener {
+    /**
+     * Manages how custom blocks are broken.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onCustomBlockBreak(BlockBreakEvent event) {
+        Block block = event.getBlock();
+        CarriedCustomBlock customBlock = this.getCustomBlock(block);
+        if (customBlock == null) return;
+
+        var behaviourEvent = CustomBlockBreakEventImpl.builder()
+                .block(block)
+                .customBlock(customBlock)
+                .player(event.getPlayer())
+                .tool(event.getPlayer().getActiveItem())
+                .build();
+        behaviourEvent.fire(customBlock.getBehaviour());
+        event.setDropItems(false);
+        if (event.getPlayer().getGameMode() != GameMode.CREATIVE) {
+            behaviourEvent.getDrop().forEach(itemStack -> block.getWorld().dropItemNaturally(block.getLocation(), itemStack));
+        }
+    }
+
+    /**
+     * Manages how custom blocks are destroyed.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onCustomBlockDestroy(BlockDestroyEvent event) {
+        Block block = event.getBlock();
+        CarriedCustomBlock customBlock = this.getCustomBlock(block);
+        if (customBlock == null) return;
+
+        var behaviourEvent = CustomBlockDestroyEventImpl.builder()
+                .block(block)
+                .customBlock(customBlock)
+                .build();
+        behaviourEvent.fire(customBlock.getBehaviour());
+        event.setWillDrop(false);
+        behaviourEvent.getDrop().forEach(itemStack -> block.getWorld().dropItemNaturally(block.getLocation(), itemStack));
+    }
+
+    /**
+     * Gets a custom block of a placed block, excluding regular
+     * noteblocks and natural blocks of chunks not normalized yet.
+     *
+     * @param block Placed block
+     * @return {@code null}, if the block is not custom
+     */
+    private @Nullable CarriedCustomBlock getCustomBlock(Block block) {
+        CarriedCustomBlock customBlock = CinnamonPlugin.getInstance().getResourcesManager().getCustomBlocks().get(block);
+        return customBlock == NoteblockCustomBlock.NOTEBLOCK ? null : customBlock;
+    }
+}
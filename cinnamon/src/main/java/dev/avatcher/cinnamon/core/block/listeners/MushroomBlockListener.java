@@ -0,0 +1,93 @@
+package dev.avatcher.cinnamon.core.block.listeners;
+
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.MushroomNormalizer;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarriers;
+import dev.avatcher.cinnamon.core.block.carrier.MushroomCarrier;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Listener keeping faces of mushroom blocks intact,
+ * registered only if the mushroom carrier is enabled.
+ * Natural mushroom blocks are rewritten to the vanilla
+ * state, when they are generated, grown or placed.
+ *
+ * @see MushroomCarrier
+ * @see MushroomNormalizer
+ */
+public class MushroomBlockListener implements Listener {
+    private final Set<Material> materials = BlockCarriers.MUSHROOM_BLOCK.getMaterials();
+    private final MushroomNormalizer normalizer;
+
+    /**
+     * Creates a new mushroom block listener
+     * using the default Cinnamon mushroom normalizer.
+     */
+    public MushroomBlockListener() {
+        this.normalizer = CinnamonPlugin.getInstance().getMushroomNormalizer();
+    }
+
+    /**
+     * Cancels change of mushroom block's faces via updates of
+     * neighbour blocks. Faces of all the mushroom blocks are
+     * kept, since any of them may be a custom block.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onMushroomPhysics(@NotNull BlockPhysicsEvent event) {
+        if (!this.materials.contains(event.getBlock().getType())) return;
+        event.setCancelled(true);
+    }
+
+    /**
+     * Normalizes mushroom blocks of a loaded chunk,
+     * including generated ones, once per chunk.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(@NotNull ChunkLoadEvent event) {
+        this.normalizer.normalize(event.getChunk());
+    }
+
+    /**
+     * Grows huge mushrooms with all the faces
+     * set, since the other states carry custom blocks.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onMushroomGrow(@NotNull StructureGrowEvent event) {
+        for (BlockState state : event.getBlocks()) {
+            Material material = state.getType();
+            if (this.materials.contains(material)) state.setBlockData(this.normalizer.getVanillaState(material));
+        }
+    }
+
+    /**
+     * Places vanilla mushroom blocks with all the faces
+     * set, since the other states carry custom blocks.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onMushroomPlace(@NotNull BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        Material material = block.getType();
+        if (!this.materials.contains(material)) return;
+        block.setBlockData(this.normalizer.getVanillaState(material), false);
+    }
+}
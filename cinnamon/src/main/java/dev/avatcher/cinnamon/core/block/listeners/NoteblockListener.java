@@ -1,19 +1,22 @@
 package dev.avatcher.cinnamon.core.block.listeners;
 
 import com.destroystokyo.paper.event.block.BlockDestroyEvent;
-import dev.avatcher.cinnamon.api.blocks.CustomBlock;
 import dev.avatcher.cinnamon.api.items.CustomItem;
 import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.CarriedCustomBlock;
 import dev.avatcher.cinnamon.core.block.NoteblockCustomBlock;
+import dev.avatcher.cinnamon.core.block.NoteblockMoveRestorer;
 import dev.avatcher.cinnamon.core.block.NoteblockTune;
-import dev.avatcher.cinnamon.core.block.events.CustomBlockBreakEventImpl;
-import dev.avatcher.cinnamon.core.block.events.CustomBlockDestroyEventImpl;
+import dev.avatcher.cinnamon.core.block.NoteblockUpdateQueue;
+import dev.avatcher.cinnamon.core.block.index.CustomBlockIndex;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
 import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.NoteBlock;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -23,13 +26,26 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Listener that processes noteblock-related events
  */
 public class NoteblockListener implements Listener {
+    private final NoteblockUpdateQueue updateQueue;
+    private final CustomBlockIndex index;
+    private final NoteblockMoveRestorer moveRestorer;
+
+    /**
+     * Creates a new noteblock listener using the default
+     * Cinnamon update queue and custom block index.
+     */
+    public NoteblockListener() {
+        this.updateQueue = CinnamonPlugin.getInstance().getNoteblockUpdateQueue();
+        this.index = CinnamonPlugin.getInstance().getCustomBlockIndex();
+        this.moveRestorer = new NoteblockMoveRestorer(CinnamonPlugin.getInstance());
+    }
 
     /**
      * Cancels a play of note by a noteblock.
@@ -43,58 +59,34 @@ public class NoteblockListener implements Listener {
     }
 
     /**
-     * Manages how noteblocks are broken.
+     * Updates noteblocks around a broken block.
      *
      * @param event Event
+     *
+     * @see CustomBlockListener
      */
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onNoteblockBreak(BlockBreakEvent event) {
-        if (this.updateSurroundings(event.getBlock())) return;
-        Block block = event.getBlock();
-        var customBlock = CustomBlock.get(block).orElseThrow();
-
-        var behaviourEvent = CustomBlockBreakEventImpl.builder()
-                .block(block)
-                .customBlock(customBlock)
-                .player(event.getPlayer())
-                .tool(event.getPlayer().getActiveItem())
-                .build();
-        behaviourEvent.fire(customBlock.getBehaviour());
-        event.setDropItems(false);
-        if (event.getPlayer().getGameMode() != GameMode.CREATIVE) {
-            behaviourEvent.getDrop().forEach(itemStack -> block.getWorld().dropItemNaturally(block.getLocation(), itemStack));
-        }
+        this.updateSurroundings(event.getBlock());
     }
 
     /**
-     * Manages how noteblocks are destroyed.
+     * Updates noteblocks around a destroyed block.
      *
      * @param event Event
+     *
+     * @see CustomBlockListener
      */
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onNoteblockDestroy(BlockDestroyEvent event) {
-        CinnamonPlugin.getInstance().getSLF4JLogger().warn("Destroyed: " + event.getBlock());
-        if (this.updateSurroundings(event.getBlock())) return;
-        Block block = event.getBlock();
-        CustomBlock customBlock = CustomBlock.get(block).orElseThrow();
-
-        var behaviourEvent = CustomBlockDestroyEventImpl.builder()
-                .block(block)
-                .customBlock(customBlock)
-                .build();
-        behaviourEvent.fire(customBlock.getBehaviour());
-        event.setWillDrop(false);
-        behaviourEvent.getDrop().forEach(itemStack -> block.getWorld().dropItemNaturally(block.getLocation(), itemStack));
+        this.updateSurroundings(event.getBlock());
     }
 
-    private boolean updateSurroundings(Block block) {
-        Stream.of(BlockFace.DOWN, BlockFace.UP)
-                .map(block::getRelative)
-                .filter(b -> b.getType() == Material.NOTE_BLOCK)
-                .forEach(b -> b.getState().update(true, true));
-
-        Optional<NoteblockCustomBlock> customBlock = NoteblockCustomBlock.of(block);
-        return customBlock.isEmpty() || NoteblockCustomBlock.isRegularNoteblock(block);
+    private void updateSurroundings(Block block) {
+        Block below = block.getRelative(BlockFace.DOWN);
+        if (below.getType() == Material.NOTE_BLOCK) this.updateQueue.enqueue(below);
+        Block above = block.getRelative(BlockFace.UP);
+        if (above.getType() == Material.NOTE_BLOCK) this.updateQueue.enqueue(above);
     }
 
     /**
@@ -125,6 +117,9 @@ public class NoteblockListener implements Listener {
             BlockData blockdata = itemstack.getType().createBlockData();
             if (!event.getPlayer().getGameMode().equals(GameMode.CREATIVE)) itemstack.add(-1);
             placeBlock.setBlockData(blockdata, true);
+            if (CarriedCustomBlock.isCustom(placeBlock)) {
+                this.index.add(placeBlock);
+            }
             Sound placeSound = blockdata.getSoundGroup().getPlaceSound();
             placeBlock.getWorld().playSound(placeBlock.getLocation(), placeSound, 1f, 1f);
         }
@@ -132,6 +127,9 @@ public class NoteblockListener implements Listener {
 
     /**
      * Cancels unintentional change of noteblock's tune via updates of neighbour blocks.
+     * Types of the neighbours are read from the world without creating their
+     * blocks, and every noteblock is checked, since noteblocks written bypassing
+     * events are missing from the index. Such noteblocks are indexed, once found.
      *
      * @param event Event
      *
@@ -139,37 +137,67 @@ public class NoteblockListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void MY_onBlockPhysics(BlockPhysicsEvent event) {
-        Block blockAbove = event.getBlock().getRelative(BlockFace.UP);
-        if (blockAbove.getType() == Material.NOTE_BLOCK) {
+        Block block = event.getBlock();
+        World world = block.getWorld();
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        if (y + 1 < world.getMaxHeight() && world.getType(x, y + 1, z) == Material.NOTE_BLOCK) {
             event.setCancelled(true);
-            blockAbove.getState().update(true, true);
+            Block blockAbove = block.getRelative(BlockFace.UP);
+            this.index.add(blockAbove);
+            this.updateQueue.enqueue(blockAbove);
         }
-        if (event.getBlock().getRelative(BlockFace.DOWN).getType() == Material.NOTE_BLOCK) {
+        if (y - 1 >= world.getMinHeight() && world.getType(x, y - 1, z) == Material.NOTE_BLOCK) {
             event.setCancelled(true);
+            this.index.add(block.getRelative(BlockFace.DOWN));
         }
     }
 
     /**
-     * Cancels noteblock's movement by a piston on extend.
+     * Moves noteblocks pushed by a piston.
      *
      * @param event Event
      */
-    @EventHandler(priority = EventPriority.HIGHEST)
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onNoteblockMoved(@NotNull BlockPistonExtendEvent event) {
-        if (event.getBlocks().stream().anyMatch(b -> b.getType().equals(Material.NOTE_BLOCK))) {
-            event.setCancelled(true);
-        }
+        this.moveNoteblocks(event.getBlocks(), event.getDirection());
     }
 
     /**
-     * Cancels noteblock's movement by a piston on retract.
+     * Moves noteblocks pulled by a piston.
      *
      * @param event Event
      */
-    @EventHandler(priority = EventPriority.HIGHEST)
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onNoteblockMoved(@NotNull BlockPistonRetractEvent event) {
-        if (event.getBlocks().stream().anyMatch(b -> b.getType().equals(Material.NOTE_BLOCK))) {
-            event.setCancelled(true);
+        this.moveNoteblocks(event.getBlocks(), event.getDirection());
+    }
+
+    /**
+     * Captures tunes of noteblocks about to be moved by
+     * a piston and schedules restoring them at their
+     * destinations, keeping the custom block index up to date.
+     *
+     * @param blocks    Blocks moved by the piston
+     * @param direction Direction the blocks are moved in
+     */
+    private void moveNoteblocks(@NotNull List<Block> blocks, @NotNull BlockFace direction) {
+        List<Block> noteblocks = new ArrayList<>();
+        List<NoteBlock> tunes = new ArrayList<>();
+        for (Block block : blocks) {
+            if (block.getType() != Material.NOTE_BLOCK) continue;
+            noteblocks.add(block);
+            tunes.add((NoteBlock) block.getBlockData());
+        }
+        if (noteblocks.isEmpty()) return;
+        // Sources are removed first, since a noteblock
+        // may take the place of another moved one
+        noteblocks.forEach(this.index::remove);
+        for (int i = 0; i < noteblocks.size(); i++) {
+            Block destination = noteblocks.get(i).getRelative(direction);
+            this.index.add(destination);
+            this.moveRestorer.restore(destination, tunes.get(i));
         }
     }
 }
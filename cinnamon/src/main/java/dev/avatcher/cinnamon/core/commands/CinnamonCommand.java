@@ -0,0 +1,171 @@
+package dev.avatcher.cinnamon.core.commands;
+
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.index.CustomBlockIndex;
+import dev.avatcher.cinnamon.core.resources.ResourceReloader;
+import dev.avatcher.cinnamon.core.resources.resourcepack.ResourcepackServerImpl;
+import dev.avatcher.cinnamon.core.resources.resourcepack.TransmissionMetrics;
+import dev.jorel.commandapi.CommandAPICommand;
+import dev.jorel.commandapi.CommandPermission;
+import dev.jorel.commandapi.arguments.ArgumentSuggestions;
+import dev.jorel.commandapi.arguments.IntegerArgument;
+import dev.jorel.commandapi.arguments.StringArgument;
+import dev.jorel.commandapi.executors.CommandArguments;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A command managing Cinnamon itself
+ */
+public class CinnamonCommand implements CommandBase {
+    /**
+     * The name of the command
+     */
+    public static final String NAME = "cinnamon";
+
+    /**
+     * The name of the subcommand, responsible
+     * for reloading Cinnamon resources
+     */
+    public static final String SUBCOMMAND_RELOAD = "reload";
+
+    /**
+     * The name of the subcommand, responsible for showing
+     * the load of the resourcepack transmitting server
+     */
+    public static final String SUBCOMMAND_SERVER = "server";
+
+    /**
+     * The name of the subcommand, responsible for rescanning
+     * chunks for noteblocks placed bypassing events
+     */
+    public static final String SUBCOMMAND_RESCAN = "rescan";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CommandAPICommand getCommandApiCommand() {
+        return new CommandAPICommand(NAME)
+                .withPermission(CommandPermission.OP)
+                .withSubcommand(new CommandAPICommand(SUBCOMMAND_RELOAD)
+                        .withShortDescription("Reloads Cinnamon resources")
+                        .withOptionalArguments(new StringArgument("plugin")
+                                .replaceSuggestions(ArgumentSuggestions.strings(info ->
+                                        CinnamonPlugin.getInstance().getResourcesManager().getLoadedPlugins()
+                                                .toArray(new String[0])
+                                )))
+                        .executes(this::reload)
+                )
+                .withSubcommand(new CommandAPICommand(SUBCOMMAND_SERVER)
+                        .withShortDescription("Shows the load of the resourcepack transmitting server")
+                        .executes(this::server)
+                )
+                .withSubcommand(new CommandAPICommand(SUBCOMMAND_RESCAN)
+                        .withShortDescription("Rescans loaded chunks for noteblocks placed bypassing events")
+                        .withOptionalArguments(new IntegerArgument("radius", 0, 32))
+                        .executes(this::rescan)
+                );
+    }
+
+    /**
+     * Subcommand to rescan chunks around the player
+     * or all the loaded chunks for custom blocks
+     *
+     * @param sender Sender running the command
+     * @param args   Command arguments
+     *
+     * @see CustomBlockIndex#rescan(Chunk)
+     */
+    private void rescan(@NotNull CommandSender sender, CommandArguments args) {
+        CustomBlockIndex index = CinnamonPlugin.getInstance().getCustomBlockIndex();
+        Integer radius = (Integer) args.get("radius");
+        List<Chunk> chunks = new ArrayList<>();
+        if (radius != null) {
+            if (!(sender instanceof Player player)) {
+                sender.sendMessage(Component.text("Only players can rescan chunks around them")
+                        .color(NamedTextColor.RED));
+                return;
+            }
+            Chunk center = player.getChunk();
+            for (int x = center.getX() - radius; x <= center.getX() + radius; x++) {
+                for (int z = center.getZ() - radius; z <= center.getZ() + radius; z++) {
+                    if (player.getWorld().isChunkLoaded(x, z)) chunks.add(player.getWorld().getChunkAt(x, z));
+                }
+            }
+        } else {
+            Bukkit.getWorlds().forEach(world -> chunks.addAll(Arrays.asList(world.getLoadedChunks())));
+        }
+        chunks.forEach(index::rescan);
+        sender.sendMessage(Component.text("Rescanning %d chunk(s)...".formatted(chunks.size()))
+                .color(NamedTextColor.GRAY));
+    }
+
+    /**
+     * Subcommand to show metrics of
+     * the resourcepack transmitting server
+     *
+     * @param sender Sender running the command
+     * @param args   Command arguments
+     */
+    private void server(@NotNull CommandSender sender, CommandArguments args) {
+        ResourcepackServerImpl server = CinnamonPlugin.getInstance().getResourcepackServer();
+        if (server == null || !server.isActive()) {
+            sender.sendMessage(Component.text("Resourcepack transmitting server is not running")
+                    .color(NamedTextColor.RED));
+            return;
+        }
+        TransmissionMetrics metrics = server.getMetrics();
+        sender.sendMessage(Component.text(("Resourcepack server: %d queued (peak %d), %d active, "
+                + "%d served, %d rejected, %d MB sent").formatted(
+                        metrics.queued(), metrics.peakQueued(), metrics.active(),
+                        metrics.served(), metrics.rejected(), metrics.bytesSent() / (1024 * 1024)))
+                .color(NamedTextColor.GRAY));
+    }
+
+    /**
+     * Subcommand to reload resources of
+     * a certain plugin or all the plugins
+     *
+     * @param sender Sender running the command
+     * @param args   Command arguments
+     */
+    private void reload(@NotNull CommandSender sender, CommandArguments args) {
+        ResourceReloader reloader = CinnamonPlugin.getInstance().getResourceReloader();
+        String pluginName = (String) args.get("plugin");
+        List<CompletableFuture<ResourceReloader.ReloadResult>> reloads;
+        if (pluginName != null) {
+            if (!CinnamonPlugin.getInstance().getResourcesManager().getLoadedPlugins().contains(pluginName)) {
+                sender.sendMessage(Component.text("No resources of plugin '" + pluginName + "' are loaded")
+                        .color(NamedTextColor.RED));
+                return;
+            }
+            reloads = List.of(reloader.reload(pluginName));
+        } else {
+            reloads = reloader.reloadAll();
+        }
+        sender.sendMessage(Component.text("Reloading resources of %d plugin(s)...".formatted(reloads.size()))
+                .color(NamedTextColor.GRAY));
+        reloads.forEach(reload -> reload.whenComplete((result, e) -> {
+            if (e == null) {
+                sender.sendMessage(Component.text(result.toString()).color(NamedTextColor.GREEN));
+            } else {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                sender.sendMessage(Component.text("Failed to reload resources: " + cause.getMessage())
+                        .color(NamedTextColor.RED));
+            }
+        }));
+    }
+}
@@ -2,6 +2,7 @@ package dev.avatcher.cinnamon.core.commands;
 
 import dev.avatcher.cinnamon.api.items.CustomItem;
 import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.CarriedCustomBlock;
 import dev.avatcher.cinnamon.core.block.NoteblockCustomBlock;
 import dev.avatcher.cinnamon.core.item.CustomItemImpl;
 import dev.avatcher.cinnamon.core.resources.CustomModelData;
@@ -93,7 +94,10 @@ public class InspectCommand implements CommandBase {
                     .append(miniMessage.deserialize("<gray>├ Id: <gray><white>" + optionalCustomItem.get().getKey() + "</white>\n"))
                     .append(this.inspectItemModel(itemStack, optionalCustomItem.get()));
         } else {
-            String itemId = itemStack.getItemMeta().getPersistentDataContainer().get(CustomItemImpl.IDENTIFIER_KEY, PersistentDataType.STRING);
+            var dataContainer = itemStack.getItemMeta().getPersistentDataContainer();
+            String itemId = dataContainer.has(CustomItemImpl.NUMERIC_ID_KEY)
+                    ? "#" + dataContainer.get(CustomItemImpl.NUMERIC_ID_KEY, PersistentDataType.INTEGER)
+                    : dataContainer.get(CustomItemImpl.IDENTIFIER_KEY, PersistentDataType.STRING);
             message = message.append(miniMessage.deserialize("<gray>└ Id: </gray><red>" + itemId + "\n   ⚠ Invalid identifier</red>\n"));
         }
         player.sendMessage(message);
@@ -167,11 +171,23 @@ public class InspectCommand implements CommandBase {
                 .append(miniMessage.deserialize("<white>[%.0f %.0f %.0f]</white>"
                         .formatted(blockLocation.x(), blockLocation.y(), blockLocation.z())))
                 .append(Component.newline());
-        if (block.getType() != Material.NOTE_BLOCK) {
+        if (!CarriedCustomBlock.isCustom(block)) {
             message = message.append(miniMessage.deserialize(" └ <white>Regular block</white>"));
             player.sendMessage(message);
             return;
         }
+        if (block.getType() != Material.NOTE_BLOCK) {
+            CarriedCustomBlock customBlock = CinnamonPlugin.getInstance().getResourcesManager().getCustomBlocks().get(block);
+            message = message.append(miniMessage.deserialize("""
+                ├ Id: %s
+                └ Carrier: <white>%s</white>
+                """.formatted(customBlock != null
+                            ? "<white>%s</white>".formatted(customBlock.getIdentifier())
+                            : "<red>Unknown block</red>",
+                    CinnamonPlugin.getInstance().getBlockCarriers().get(block.getType()).getName())));
+            player.sendMessage(message);
+            return;
+        }
         Optional<NoteblockCustomBlock> cBlockOptional = NoteblockCustomBlock.of(block);
         NoteBlock noteBlock = (NoteBlock) block.getBlockData();
         String messageString;
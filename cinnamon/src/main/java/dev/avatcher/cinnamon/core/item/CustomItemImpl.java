@@ -45,14 +45,13 @@ public class CustomItemImpl implements CustomItem {
     public static final NamespacedKey IDENTIFIER_KEY = new NamespacedKey(CinnamonPlugin.getInstance(), "identifier");
 
     /**
-     * {@link NamespacedKey} for {@link PersistentDataContainer} marking an {@link ItemStack} as a result
-     * of some custom recipe. It is needed only for identification of Cinnamon recipes and is removed
-     * when the item is crafted.
-     * 
-     * @see #markCustomRecipeResult(ItemStack)
+     * {@link NamespacedKey} for accessing custom item numeric id
+     * inside of {@link ItemStack}'s {@link PersistentDataContainer}.
+     * Used instead of {@link #IDENTIFIER_KEY}, when numeric ids are enabled.
+     *
+     * @see CustomItemsConfig#isNumericIds()
      */
-    @SuppressWarnings("SpellCheckingInspection")
-    public static final NamespacedKey RECIPE_MARK_KEY = new NamespacedKey(CinnamonPlugin.getInstance(), "reciperesult");
+    public static final NamespacedKey NUMERIC_ID_KEY = new NamespacedKey(CinnamonPlugin.getInstance(), "id");
 
     /**
      * Identifier of the custom item, that follow default minecraft
@@ -109,14 +108,23 @@ public class CustomItemImpl implements CustomItem {
      */
     public ItemStack createItemStack() {
         var item = new ItemStack(this.material);
+        var registry = CinnamonPlugin.getInstance().getResourcesManager().getCustomItems();
         item.editMeta(meta -> {
             meta.displayName(this.name);
             meta.setCustomModelData(model.numeric());
-            meta.getPersistentDataContainer().set(
-                    IDENTIFIER_KEY,
-                    PersistentDataType.STRING,
-                    this.getIdentifier().asString()
-            );
+            if (registry.isNumericIds()) {
+                meta.getPersistentDataContainer().set(
+                        NUMERIC_ID_KEY,
+                        PersistentDataType.INTEGER,
+                        registry.getNumericId(this.getIdentifier())
+                );
+            } else {
+                meta.getPersistentDataContainer().set(
+                        IDENTIFIER_KEY,
+                        PersistentDataType.STRING,
+                        this.getIdentifier().asString()
+                );
+            }
         });
         ItemCreateEventImpl event = ItemCreateEventImpl.builder()
                 .itemStack(item)
@@ -187,26 +195,6 @@ public class CustomItemImpl implements CustomItem {
         }
     }
 
-    /**
-     * Marks item as a result of Cinnamon recipe.
-     *
-     * @param itemStack Item stack to be marked
-     * @return Marked item stack
-     *
-     * @see #RECIPE_MARK_KEY
-     */
-    public static ItemStack markCustomRecipeResult(ItemStack itemStack) {
-        itemStack.editMeta(meta -> {
-            PersistentDataContainer persistentDataContainer = meta.getPersistentDataContainer();
-            if (!persistentDataContainer.has(CustomItemImpl.IDENTIFIER_KEY)) {
-                persistentDataContainer.set(CustomItemImpl.IDENTIFIER_KEY,
-                        PersistentDataType.STRING, itemStack.getType().getKey().toString());
-            }
-            persistentDataContainer.set(RECIPE_MARK_KEY, PersistentDataType.BOOLEAN, true);
-        });
-        return itemStack;
-    }
-
     /**
      * Checks, if provided {@link ItemStack} is of custom items.
      *
@@ -214,9 +202,7 @@ public class CustomItemImpl implements CustomItem {
      * @return {@code true}, if {@code itemStack} is custom.
      */
     public static boolean isCustom(ItemStack itemStack) {
-        return itemStack != null
-                && itemStack.hasItemMeta()
-                && itemStack.getItemMeta().getPersistentDataContainer().has(IDENTIFIER_KEY);
+        return CinnamonPlugin.getInstance().getCustomItems().isCustom(itemStack);
     }
 
     /**
@@ -238,11 +224,7 @@ public class CustomItemImpl implements CustomItem {
      * @return Optional {@link CustomItem} (Empty, if was not find)
      */
     public static Optional<CustomItem> of(ItemStack itemStack) {
-        if (!CustomItem.isCustom(itemStack)) return Optional.empty();
-        String identifier = itemStack.getItemMeta().getPersistentDataContainer()
-                .get(IDENTIFIER_KEY, PersistentDataType.STRING);
-        assert identifier != null;
-        return CustomItem.get(NamespacedKey.fromString(identifier));
+        return Optional.ofNullable(CinnamonPlugin.getInstance().getCustomItems().get(itemStack));
     }
 
     @Override
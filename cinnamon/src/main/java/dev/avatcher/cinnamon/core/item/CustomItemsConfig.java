@@ -0,0 +1,52 @@
+package dev.avatcher.cinnamon.core.item;
+
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Configuration of custom items' handling
+ */
+@Getter
+public final class CustomItemsConfig implements ConfigurationSerializable {
+    /**
+     * The main config's subsection name
+     * containing this config.
+     */
+    public static final String CONFIG_PATH = "custom-items";
+
+    /**
+     * Whether custom item stacks are tagged with a compact
+     * numeric id instead of their string identifier
+     */
+    private final boolean numericIds;
+
+    /**
+     * Builds config from given map
+     * of configuration values.
+     *
+     * @param state Values of the config
+     */
+    public CustomItemsConfig(Map<String, Object> state) {
+        this.numericIds = (boolean) state.get("numeric-ids");
+    }
+
+    /**
+     * Builds config from a configuration section.
+     *
+     * @param config Configuration section
+     */
+    public CustomItemsConfig(ConfigurationSection config) {
+        this.numericIds = config.getBoolean("numeric-ids", false);
+    }
+
+    @Override
+    public @NotNull Map<String, Object> serialize() {
+        return Map.of(
+                "numeric-ids", this.numericIds
+        );
+    }
+}
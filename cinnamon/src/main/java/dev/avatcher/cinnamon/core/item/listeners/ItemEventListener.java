@@ -1,23 +1,25 @@
 package dev.avatcher.cinnamon.core.item.listeners;
 
-import com.google.common.base.Preconditions;
 import dev.avatcher.cinnamon.api.items.CustomItem;
 import dev.avatcher.cinnamon.api.items.events.ItemUseEvent;
-import dev.avatcher.cinnamon.core.item.CustomItemImpl;
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
 import dev.avatcher.cinnamon.core.item.events.ItemClickBlockEventImpl;
 import dev.avatcher.cinnamon.core.item.events.ItemUseEventImpl;
-import org.bukkit.NamespacedKey;
+import org.bukkit.Bukkit;
+import org.bukkit.Keyed;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.persistence.PersistentDataContainer;
-import org.bukkit.persistence.PersistentDataType;
-
-import java.util.Objects;
+import org.bukkit.inventory.Recipe;
 
 /**
  * Listener of item-related events
@@ -31,26 +33,13 @@ public class ItemEventListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onBeforeCraft(PrepareItemCraftEvent event) {
-        if (event.getRecipe() == null) return;
-        ItemStack resultStack = event.getRecipe().getResult();
-        PersistentDataContainer persistentDataContainer = resultStack.getItemMeta().getPersistentDataContainer();
-        if (persistentDataContainer.has(CustomItemImpl.RECIPE_MARK_KEY)) {
-            NamespacedKey identifier = NamespacedKey.fromString(
-                    Objects.requireNonNull(persistentDataContainer.get(CustomItemImpl.IDENTIFIER_KEY, PersistentDataType.STRING)));
-            Preconditions.checkNotNull(identifier);
-
-            resultStack.editMeta(meta -> {
-               PersistentDataContainer dataContainer = meta.getPersistentDataContainer();
-               if (identifier.equals(resultStack.getType().getKey())) {
-                   dataContainer.remove(CustomItemImpl.IDENTIFIER_KEY);
-               }
-               dataContainer.remove(CustomItemImpl.RECIPE_MARK_KEY);
-            });
-            event.getInventory().setResult(resultStack);
-            return;
-        }
-        for (ItemStack itemStack : event.getInventory().getStorageContents()) {
-            if (CustomItem.isCustom(itemStack)) {
+        Recipe recipe = event.getRecipe();
+        if (recipe == null) return;
+        var resourcesManager = CinnamonPlugin.getInstance().getResourcesManager();
+        if (recipe instanceof Keyed keyed && resourcesManager.getCustomRecipes().isCustomRecipe(keyed.getKey())) return;
+        var customItems = resourcesManager.getCustomItems();
+        for (ItemStack itemStack : event.getInventory().getMatrix()) {
+            if (customItems.isCustom(itemStack)) {
                 event.getInventory().setResult(null);
                 return;
             }
@@ -64,8 +53,13 @@ public class ItemEventListener implements Listener {
      */
     @EventHandler
     public void onRightClick(PlayerInteractEvent event) {
-        if (!event.hasItem() || !CustomItem.isCustom(event.getItem())) return;
-        CustomItem customItem = CustomItem.get(event.getItem()).orElseThrow();
+        if (!event.hasItem()) return;
+        CustomItem customItem = CustomItem.get(event.getItem()).orElse(null);
+        if (customItem == null) return;
+        var customItems = CinnamonPlugin.getInstance().getResourcesManager().getCustomItems();
+        if (customItems.needsMigration(event.getItem())) {
+            this.migrateLater(event.getPlayer(), event.getPlayer().getInventory());
+        }
 
         ItemUseEvent itemEvent = null;
         if (event.getAction().equals(Action.RIGHT_CLICK_BLOCK)) {
@@ -85,4 +79,52 @@ public class ItemEventListener implements Listener {
         }
         if (itemEvent != null) customItem.getBehaviour().onUse(itemEvent);
     }
+
+    /**
+     * Migrates custom items of a joined player
+     * to numeric ids, if numeric ids are enabled.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        if (!CinnamonPlugin.getInstance().getResourcesManager().getCustomItems().isNumericIds()) return;
+        Player player = event.getPlayer();
+        this.migrateLater(player, player.getInventory(), player.getEnderChest());
+    }
+
+    /**
+     * Migrates custom items of an opened inventory
+     * to numeric ids, if numeric ids are enabled.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        if (!CinnamonPlugin.getInstance().getResourcesManager().getCustomItems().isNumericIds()) return;
+        if (!(event.getPlayer() instanceof Player player)) return;
+        // The player's own inventory has been migrated on join
+        InventoryType type = event.getInventory().getType();
+        if (type == InventoryType.PLAYER || type == InventoryType.CRAFTING) return;
+        this.migrateLater(player, event.getInventory());
+    }
+
+    /**
+     * Migrates whole inventories one tick later, since
+     * item stacks must not be changed by event handlers
+     * observing the event, and updates them for the player.
+     *
+     * @param player      Player viewing the inventories
+     * @param inventories Inventories to migrate
+     */
+    private void migrateLater(Player player, Inventory... inventories) {
+        var customItems = CinnamonPlugin.getInstance().getResourcesManager().getCustomItems();
+        Bukkit.getScheduler().runTask(CinnamonPlugin.getInstance(), () -> {
+            int migrated = 0;
+            for (Inventory inventory : inventories) {
+                migrated += customItems.migrate(inventory);
+            }
+            if (migrated > 0 && player.isOnline()) player.updateInventory();
+        });
+    }
 }
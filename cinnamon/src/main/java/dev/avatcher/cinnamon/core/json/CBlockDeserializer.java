@@ -1,43 +1,74 @@
 package dev.avatcher.cinnamon.core.json;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import dev.avatcher.cinnamon.core.CinnamonPlugin;
-import dev.avatcher.cinnamon.core.block.NoteblockCustomBlock;
+import dev.avatcher.cinnamon.core.block.CarriedCustomBlock;
+import dev.avatcher.cinnamon.core.block.carrier.NoteblockCarrier;
 import dev.avatcher.cinnamon.core.resources.CinnamonResourcesManager;
 import dev.avatcher.cinnamon.core.resources.registries.CustomBlocksRegistryImpl;
 import lombok.AllArgsConstructor;
 import org.bukkit.NamespacedKey;
 import org.bukkit.plugin.Plugin;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
- * JSON deserializer of {@link NoteblockCustomBlock} request for registration
- * in {@link CinnamonResourcesManager}
+ * Streaming JSON deserializer of {@link CarriedCustomBlock} request
+ * for registration in {@link CinnamonResourcesManager}
  */
 @AllArgsConstructor
-public class CBlockDeserializer implements JsonDeserializer<CustomBlocksRegistryImpl.BlockRegistrationRequest> {
+public class CBlockDeserializer {
     private final Plugin plugin;
 
-    @Override
-    public CustomBlocksRegistryImpl.BlockRegistrationRequest deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
+    /**
+     * Reads a custom block registration request.
+     *
+     * @param in JSON reader positioned at the block object
+     * @return Read custom block registration request
+     */
+    public CustomBlocksRegistryImpl.BlockRegistrationRequest read(JsonReader in) throws IOException {
         final var log = CinnamonPlugin.getInstance().getSLF4JLogger();
-        JsonObject jObject = jsonElement.getAsJsonObject();
-        NamespacedKey identifier = new NamespacedKey(this.plugin, jObject.get("identifier").getAsString());
-        NamespacedKey model = NamespacedKey.fromString(jObject.get("model").getAsString());
+        String identifierName = null;
+        String modelName = null;
+        String className = null;
+        String carrier = NoteblockCarrier.NAME;
+        boolean itemRequested = true;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "identifier" -> identifierName = in.nextString();
+                case "model" -> modelName = in.nextString();
+                case "class" -> className = in.nextString();
+                case "carrier" -> carrier = in.nextString();
+                case "create-item" -> itemRequested = in.nextBoolean();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (identifierName == null) throw new JsonParseException("Missing JSON field 'identifier' in custom block");
+        NamespacedKey identifier = new NamespacedKey(this.plugin, identifierName);
+        if (modelName == null) throw new JsonParseException("Missing JSON field 'model' in custom block " + identifier);
+
         Class<?> behaviourClazz = null;
-        if (jObject.has("class")) {
+        boolean behaviourMissing = false;
+        if (className != null) {
             try {
-                behaviourClazz = Class.forName(jObject.get("class").getAsString());
+                behaviourClazz = Class.forName(className, false,
+                        CBlockDeserializer.class.getClassLoader());
             } catch (ClassNotFoundException e) {
-                log.error("Could not find behaviour class '{}' for custom block '{}'", jObject.get("class").getAsString(), identifier);
+                log.error("Could not find behaviour class '{}' for custom block '{}'", className, identifier);
+                behaviourMissing = true;
             }
         }
 
         return CustomBlocksRegistryImpl.BlockRegistrationRequest.builder()
                 .identifier(identifier)
-                .model(model)
+                .model(NamespacedKey.fromString(modelName))
+                .carrier(carrier)
                 .behaviourClazz(behaviourClazz)
+                .itemRequested(itemRequested)
+                .behaviourMissing(behaviourMissing)
                 .build();
     }
 }
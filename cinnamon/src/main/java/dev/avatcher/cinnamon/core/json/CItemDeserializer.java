@@ -1,27 +1,30 @@
 package dev.avatcher.cinnamon.core.json;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import dev.avatcher.cinnamon.api.items.CustomItem;
-import dev.avatcher.cinnamon.api.items.ItemBehaviour;
 import dev.avatcher.cinnamon.core.CinnamonPlugin;
 import dev.avatcher.cinnamon.core.item.CustomItemImpl;
-import dev.avatcher.cinnamon.core.item.behaviour.DefaultItemBehaviour;
 import dev.avatcher.cinnamon.core.resources.CinnamonResources;
-import dev.avatcher.cinnamon.core.resources.CustomModelData;
+import dev.avatcher.cinnamon.core.resources.registries.CustomItemsRegistryImpl;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.plugin.Plugin;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.logging.Logger;
 
 /**
- * Deserializer of JSON {@link CustomItem} instance
- * inside {@link CinnamonResources}
+ * Streaming JSON deserializer of {@link CustomItem}
+ * registration request inside {@link CinnamonResources}.
+ * <p>
+ * Deserialization does not access any registry, so
+ * it can be safely done outside the main thread.
  */
-public class CItemDeserializer implements JsonDeserializer<CustomItem> {
+public class CItemDeserializer {
     /**
      * Owner plugin of the item
      */
@@ -40,55 +43,84 @@ public class CItemDeserializer implements JsonDeserializer<CustomItem> {
         this.log = CinnamonPlugin.getInstance().getLogger();
     }
 
-    @SuppressWarnings("unchecked")
-    @Override
-    public CustomItem deserialize(JsonElement jsonElement, Type type,
-                                      JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-        JsonObject jObject = jsonElement.getAsJsonObject();
+    /**
+     * Reads a custom item registration request.
+     *
+     * @param in JSON reader positioned at the item object
+     * @return Read custom item registration request
+     */
+    public CustomItemsRegistryImpl.ItemRegistrationRequest read(JsonReader in) throws IOException {
+        String identifierName = null;
+        String modelName = null;
+        String materialName = null;
+        Component name = null;
+        String className = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "identifier" -> identifierName = in.nextString();
+                case "model" -> modelName = in.nextString();
+                case "material" -> materialName = in.nextString();
+                case "name" -> name = this.readName(in);
+                case "class" -> className = in.nextString();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (identifierName == null) throw new JsonParseException("Missing JSON field 'identifier' in custom item");
+        NamespacedKey identifier = new NamespacedKey(plugin, identifierName);
+        if (modelName == null) throw new JsonParseException("Missing JSON field 'model' in custom item " + identifier);
+        if (name == null) throw new JsonParseException("Missing JSON field 'name' in custom item " + identifier);
 
-        NamespacedKey identifier = new NamespacedKey(plugin, jObject.get("identifier").getAsString());
-        NamespacedKey modelKey = NamespacedKey.fromString(jObject.get("model").getAsString());
-        CustomModelData model = CustomModelData.of(modelKey)
-                .orElseGet(() -> {
-                    log.warning("Couldn't find model '" + modelKey + "' for item " + identifier);
-                    return new CustomModelData(CustomItemImpl.DEFAULT_MATERIAL.getKey(), 0);
-                });
         Material material = CustomItemImpl.DEFAULT_MATERIAL;
-        if (jObject.has("material")) {
-            String materialName = jObject.get("material").getAsString();
+        if (materialName != null) {
             material = Material.matchMaterial(materialName);
             if (material == null) {
                 log.warning("Couldn't find item material: " + materialName);
                 material = CustomItemImpl.DEFAULT_MATERIAL;
             }
         }
-        Component name = (jObject.get("name").isJsonObject()
-                ? Component.translatable(jObject.get("name").getAsJsonObject().get("translation").getAsString())
-                : Component.text(jObject.get("name").getAsString()))
-                .decoration(TextDecoration.ITALIC, false);
 
-        CustomItemImpl cItem = CustomItemImpl.builder()
+        Class<?> behaviourClazz = null;
+        if (className != null) {
+            try {
+                // The class is initialized on the main thread along with its first instance
+                behaviourClazz = Class.forName(className, false, CItemDeserializer.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new JsonParseException(e);
+            }
+        }
+        return CustomItemsRegistryImpl.ItemRegistrationRequest.builder()
                 .identifier(identifier)
-                .model(model)
+                .model(NamespacedKey.fromString(modelName))
                 .material(material)
                 .name(name)
+                .behaviourClazz(behaviourClazz)
                 .build();
-        Class<? extends ItemBehaviour> behaviourClazz;
-        if (jObject.has("class")) {
-            try {
-                Class<?> clazz = Class.forName(jObject.get("class").getAsString());
-                if (!ItemBehaviour.class.isAssignableFrom(clazz)) {
-                    throw new JsonParseException("Custom item behaviour class '" + clazz.getName()
-                            + "' does not implement '" + ItemBehaviour.class.getName() + "'");
-                }
-                behaviourClazz = (Class<? extends ItemBehaviour>) clazz;
-            } catch (ClassNotFoundException e) {
-                throw new JsonParseException(e);
+    }
+
+    /**
+     * Reads the name of an item, either a plain
+     * string or an object with a translation key.
+     *
+     * @param in JSON reader positioned at the name
+     * @return Name of the item
+     */
+    private Component readName(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            return Component.text(in.nextString()).decoration(TextDecoration.ITALIC, false);
+        }
+        String translation = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("translation")) {
+                translation = in.nextString();
+            } else {
+                in.skipValue();
             }
-        } else {
-            behaviourClazz = DefaultItemBehaviour.class;
         }
-        cItem.setBehaviour(behaviourClazz);
-        return cItem;
+        in.endObject();
+        if (translation == null) throw new JsonParseException("Missing JSON field 'translation' in item name");
+        return Component.translatable(translation).decoration(TextDecoration.ITALIC, false);
     }
 }
@@ -0,0 +1,35 @@
+package dev.avatcher.cinnamon.core.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.bukkit.NamespacedKey;
+
+/**
+ * Shared {@link Gson} instances used by Cinnamon.
+ * Gson instances are immutable and thread-safe, so
+ * building one per file or per load is never needed.
+ */
+public final class CinnamonGson {
+    /**
+     * Compact Gson able to (de)serialize {@link NamespacedKey}s
+     */
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(NamespacedKey.class, new NamespacedKeyAdapter())
+            .create();
+    /**
+     * Pretty-printing Gson able to (de)serialize {@link NamespacedKey}s
+     */
+    public static final Gson PRETTY_GSON = GSON.newBuilder()
+            .setPrettyPrinting()
+            .create();
+    /**
+     * Compact Gson writing strings without escaping
+     * HTML characters, used to minify JSON files
+     */
+    public static final Gson MINIFYING_GSON = GSON.newBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    private CinnamonGson() {
+    }
+}
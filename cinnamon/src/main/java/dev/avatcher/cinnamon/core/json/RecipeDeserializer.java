@@ -1,37 +1,44 @@
 package dev.avatcher.cinnamon.core.json;
 
 import com.google.common.base.Preconditions;
-import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
 import dev.avatcher.cinnamon.core.CinnamonPlugin;
-import dev.avatcher.cinnamon.core.json.recipes.ShapedRecipeDeserializer;
-import dev.avatcher.cinnamon.core.json.recipes.ShapelessRecipeDeserializer;
-import dev.avatcher.cinnamon.core.json.value.Value;
+import dev.avatcher.cinnamon.core.json.recipes.*;
 import org.bukkit.NamespacedKey;
 import org.bukkit.inventory.Recipe;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
 /**
- * JSON deserializer for Minecraft recipes
+ * Streaming JSON deserializer for Minecraft recipes.
+ * <p>
+ * Recipes are read into {@link RecipeDefinition}s in a single
+ * pass without building JSON trees, and turned into {@link Recipe}s
+ * by {@link #createRecipe(NamespacedKey, RecipeDefinition)} later,
+ * once the custom items they reference are registered.
  *
  * @see Recipe
  */
-public class RecipeDeserializer implements JsonDeserializer<Recipe> {
+public class RecipeDeserializer {
     /**
-     * Default JSON deserializers for different recipe types
+     * Default factories for different recipe types
      */
-    public static final Map<String, JsonDeserializer<? extends Recipe>> DEFAULT_RECIPE_DESERIALIZERS = Map.of(
-            "crafting_shaped", new ShapedRecipeDeserializer(),
-            "crafting_shapeless", new ShapelessRecipeDeserializer()
+    public static final Map<String, RecipeFactory<? extends Recipe>> DEFAULT_RECIPE_FACTORIES = Map.of(
+            "crafting_shaped", new ShapedRecipeFactory(),
+            "crafting_shapeless", new ShapelessRecipeFactory()
     );
 
     /**
      * JSON field name responsible for storing
-     * the recipe's type, as defined in {@link #DEFAULT_RECIPE_DESERIALIZERS}
+     * the recipe's type, as defined in {@link #DEFAULT_RECIPE_FACTORIES}
      * keys
      */
     public static final String TYPE_FIELD = "type";
@@ -42,34 +49,40 @@ public class RecipeDeserializer implements JsonDeserializer<Recipe> {
      */
     public static final String RESULT_FIELD = "result";
 
+    /**
+     * JSON field name responsible for storing
+     * the recipe's crafting book category
+     */
+    public static final String CATEGORY_FIELD = "category";
+
     private final Logger log;
 
     /**
-     * Deserializers of each individual recipe type
+     * Factories of each individual recipe type
      */
-    private final Map<String, JsonDeserializer<? extends Recipe>> deserializers;
+    private final Map<String, RecipeFactory<? extends Recipe>> factories;
 
     /**
      * Creates a new JSON deserializer for
      * minecraft recipes.
      *
-     * @param deserializers Deserializers of different
-     *                      recipes types
+     * @param factories Factories of different
+     *                  recipes types
      */
-    public RecipeDeserializer(Map<String, JsonDeserializer<? extends Recipe>> deserializers) {
+    public RecipeDeserializer(Map<String, RecipeFactory<? extends Recipe>> factories) {
         this.log = CinnamonPlugin.getInstance().getLogger();
-        this.deserializers = deserializers;
+        this.factories = factories;
     }
 
     /**
      * Creates a new JSON deserializer for
      * minecraft recipes using the default
-     * recipe deserializers
+     * recipe factories
      *
-     * @see #DEFAULT_RECIPE_DESERIALIZERS
+     * @see #DEFAULT_RECIPE_FACTORIES
      */
     public RecipeDeserializer() {
-        this(DEFAULT_RECIPE_DESERIALIZERS);
+        this(DEFAULT_RECIPE_FACTORIES);
     }
 
     /**
@@ -85,23 +98,68 @@ public class RecipeDeserializer implements JsonDeserializer<Recipe> {
         return "Missing JSON field '" + jsonField + "' in recipe " + recipeIdentifier;
     }
 
-    @Override
-    public Recipe deserialize(
-            JsonElement jsonElement,
-            Type type,
-            JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-        JsonObject jObject = jsonElement.getAsJsonObject();
-        NamespacedKey recipeIdentifier = jsonDeserializationContext
-                .<Value<NamespacedKey>>deserialize(jsonElement, Value.class).value();
+    /**
+     * Reads a recipe definition.
+     *
+     * @param in JSON reader positioned at the recipe object
+     * @return Read recipe definition
+     */
+    public RecipeDefinition read(JsonReader in) throws IOException {
+        String type = null;
+        String category = null;
+        List<String> shape = null;
+        Map<Character, ItemReference> key = null;
+        List<ItemReference> ingredients = null;
+        ItemReference result = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case TYPE_FIELD -> type = in.nextString();
+                case CATEGORY_FIELD -> category = in.nextString();
+                case RESULT_FIELD -> result = ItemReference.read(in);
+                case ShapedRecipeFactory.SHAPE_FIELD -> {
+                    shape = new ArrayList<>(3);
+                    in.beginArray();
+                    while (in.hasNext()) shape.add(in.nextString());
+                    in.endArray();
+                }
+                case ShapedRecipeFactory.KEY_FIELD -> {
+                    key = new HashMap<>();
+                    in.beginObject();
+                    while (in.hasNext()) key.put(in.nextName().charAt(0), ItemReference.read(in));
+                    in.endObject();
+                }
+                case ShapelessRecipeFactory.INGREDIENTS_FIELD -> {
+                    ingredients = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) ingredients.add(ItemReference.read(in));
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new RecipeDefinition(type, category, shape, key, ingredients, result);
+    }
 
-        Preconditions.checkNotNull(jObject.get(TYPE_FIELD), missingField(recipeIdentifier, TYPE_FIELD));
-        Preconditions.checkNotNull(jObject.get(RESULT_FIELD), missingField(recipeIdentifier, RESULT_FIELD));
+    /**
+     * Creates a recipe from its definition.
+     * Must be called after the custom items
+     * used by the recipe are registered.
+     *
+     * @param recipeIdentifier Identifier of the recipe
+     * @param definition       Read recipe definition
+     * @return {@code null}, if the recipe type is unknown
+     */
+    public @Nullable Recipe createRecipe(@NotNull NamespacedKey recipeIdentifier, @NotNull RecipeDefinition definition) {
+        Preconditions.checkNotNull(definition.type(), missingField(recipeIdentifier, TYPE_FIELD));
+        Preconditions.checkNotNull(definition.result(), missingField(recipeIdentifier, RESULT_FIELD));
 
-        String recipeType = jObject.get("type").getAsString();
-        if (recipeType == null || !this.deserializers.containsKey(recipeType)) {
-            log.warning("Unknown recipe type '" + recipeType + "' in recipe " + recipeIdentifier);
+        RecipeFactory<? extends Recipe> factory = this.factories.get(definition.type());
+        if (factory == null) {
+            log.warning("Unknown recipe type '" + definition.type() + "' in recipe " + recipeIdentifier);
             return null;
         }
-        return this.deserializers.get(recipeType).deserialize(jsonElement, type, jsonDeserializationContext);
+        return factory.create(recipeIdentifier, definition);
     }
 }
@@ -0,0 +1,76 @@
+package dev.avatcher.cinnamon.core.json.recipes;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import dev.avatcher.cinnamon.api.items.CustomItem;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * A reference to a vanilla or custom item inside a recipe,
+ * resolved to an {@link ItemStack} only once the referenced
+ * custom items are registered.
+ *
+ * @param item   Identifier of the item
+ * @param amount Amount of the item
+ */
+public record ItemReference(NamespacedKey item, int amount) {
+    /**
+     * JSON field containing item's identifier
+     */
+    public static final String IDENTIFIER_FIELD = "item";
+
+    /**
+     * JSON field containing item's amount
+     */
+    public static final String AMOUNT_FIELD = "amount";
+
+    /**
+     * Reads an item reference.
+     *
+     * @param in JSON reader positioned at the reference object
+     * @return Read item reference
+     */
+    public static @NotNull ItemReference read(@NotNull JsonReader in) throws IOException {
+        String identifier = null;
+        int amount = 1;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case IDENTIFIER_FIELD -> identifier = in.nextString();
+                case AMOUNT_FIELD -> amount = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (identifier == null) throw new JsonParseException("Missing JSON field '" + IDENTIFIER_FIELD + "'");
+        NamespacedKey key = NamespacedKey.fromString(identifier);
+        if (key == null) throw new JsonParseException("Invalid item identifier: " + identifier);
+        return new ItemReference(key, amount);
+    }
+
+    /**
+     * Creates an item stack of the referenced item.
+     * Custom items must be registered by then.
+     *
+     * @return Created item stack
+     */
+    public @NotNull ItemStack toItemStack() {
+        ItemStack itemStack;
+        if (this.item.getNamespace().equals(NamespacedKey.MINECRAFT_NAMESPACE)) {
+            Material material = Material.getMaterial(this.item.getKey().toUpperCase());
+            Preconditions.checkNotNull(material, "Couldn't find material: " + this.item);
+            itemStack = new ItemStack(material, this.amount);
+        } else {
+            CustomItem customItem = CustomItem.get(this.item).orElseThrow();
+            itemStack = customItem.createItemStack();
+            itemStack.setAmount(this.amount);
+        }
+        return itemStack;
+    }
+}
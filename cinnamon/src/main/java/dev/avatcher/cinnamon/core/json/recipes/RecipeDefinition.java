@@ -0,0 +1,27 @@
+package dev.avatcher.cinnamon.core.json.recipes;
+
+import org.bukkit.inventory.Recipe;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A recipe read from JSON, not yet turned into a {@link Recipe}.
+ * Holds the fields of all the supported recipe types, any of
+ * them is {@code null}, if it is absent in JSON.
+ *
+ * @param type        Type of the recipe
+ * @param category    Crafting book category
+ * @param shape       Shape of a shaped recipe
+ * @param key         Ingredients of a shaped recipe by their keys in the shape
+ * @param ingredients Ingredients of a shapeless recipe
+ * @param result      Result of the recipe
+ */
+public record RecipeDefinition(
+        String type,
+        String category,
+        List<String> shape,
+        Map<Character, ItemReference> key,
+        List<ItemReference> ingredients,
+        ItemReference result) {
+}
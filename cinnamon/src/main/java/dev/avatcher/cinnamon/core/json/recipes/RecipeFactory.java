@@ -0,0 +1,22 @@
+package dev.avatcher.cinnamon.core.json.recipes;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.Recipe;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Factory creating recipes of a certain type from their definitions
+ *
+ * @param <T> Type of the created recipes
+ */
+@FunctionalInterface
+public interface RecipeFactory<T extends Recipe> {
+    /**
+     * Creates a recipe.
+     *
+     * @param recipeIdentifier Identifier of the recipe
+     * @param definition       Read recipe definition
+     * @return Created recipe
+     */
+    T create(@NotNull NamespacedKey recipeIdentifier, @NotNull RecipeDefinition definition);
+}
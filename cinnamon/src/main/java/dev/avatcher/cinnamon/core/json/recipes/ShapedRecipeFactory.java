@@ -0,0 +1,41 @@
+package dev.avatcher.cinnamon.core.json.recipes;
+
+import com.google.common.base.Preconditions;
+import dev.avatcher.cinnamon.core.json.RecipeDeserializer;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ShapedRecipe;
+import org.bukkit.inventory.recipe.CraftingBookCategory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Factory of {@link ShapedRecipe}
+ */
+public class ShapedRecipeFactory implements RecipeFactory<ShapedRecipe> {
+    /**
+     * Json field name responsible for recipe's shape
+     */
+    public static final String SHAPE_FIELD = "shape";
+
+    /**
+     * Json field name responsible for recipe's ingredients
+     * keys inside shape matrix
+     */
+    public static final String KEY_FIELD = "key";
+
+    @Override
+    public ShapedRecipe create(@NotNull NamespacedKey recipeIdentifier, @NotNull RecipeDefinition definition) {
+        Preconditions.checkNotNull(definition.shape(), RecipeDeserializer.missingField(recipeIdentifier, SHAPE_FIELD));
+        Preconditions.checkNotNull(definition.key(), RecipeDeserializer.missingField(recipeIdentifier, KEY_FIELD));
+
+        CraftingBookCategory category = definition.category() != null
+                ? CraftingBookCategory.valueOf(definition.category())
+                : CraftingBookCategory.MISC;
+
+        ShapedRecipe recipe = new ShapedRecipe(recipeIdentifier, definition.result().toItemStack());
+        recipe.shape(definition.shape().toArray(new String[0]));
+        definition.key().forEach((key, ingredient) -> recipe.setIngredient(key, ingredient.toItemStack()));
+        recipe.setCategory(category);
+        recipe.setGroup(recipeIdentifier.getNamespace());
+        return recipe;
+    }
+}
@@ -0,0 +1,26 @@
+package dev.avatcher.cinnamon.core.json.recipes;
+
+import com.google.common.base.Preconditions;
+import dev.avatcher.cinnamon.core.json.RecipeDeserializer;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ShapelessRecipe;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Factory of {@link ShapelessRecipe}
+ */
+public class ShapelessRecipeFactory implements RecipeFactory<ShapelessRecipe> {
+    /**
+     * JSON field containing recipe's ingredients
+     */
+    public static final String INGREDIENTS_FIELD = "ingredients";
+
+    @Override
+    public ShapelessRecipe create(@NotNull NamespacedKey recipeIdentifier, @NotNull RecipeDefinition definition) {
+        Preconditions.checkNotNull(definition.ingredients(), RecipeDeserializer.missingField(recipeIdentifier, INGREDIENTS_FIELD));
+
+        ShapelessRecipe recipe = new ShapelessRecipe(recipeIdentifier, definition.result().toItemStack());
+        definition.ingredients().forEach(ingredient -> recipe.addIngredient(ingredient.toItemStack()));
+        return recipe;
+    }
+}
@@ -1,11 +0,0 @@
-package dev.avatcher.cinnamon.core.json.value;
-
-/**
- * Special value that can be passed during JSON deserialization
- *
- * @param <T> The type of special data
- *
- * @see ValueProvider
- */
-public record Value<T>(T value) {
-}
@@ -1,8 +1,10 @@
 package dev.avatcher.cinnamon.core.resources;
 
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.nio.file.Path;
 
 /**
@@ -57,6 +59,27 @@ public interface CinnamonResources extends Closeable {
      */
     Plugin getPlugin();
 
+    /**
+     * Gets a hash of the whole content of the resources,
+     * that changes whenever any resource does.
+     *
+     * @return Content hash, or {@code null}, if the
+     *         resources cannot be hashed cheaply
+     *
+     * @see ResourceCache
+     */
+    default @Nullable String getContentHash() throws IOException {
+        return null;
+    }
+
+    /**
+     * Opens the same resources once again, e.g. to
+     * read their current content after they were closed.
+     *
+     * @return New instance of the resources
+     */
+    CinnamonResources reopen() throws IOException;
+
     /**
      * Gets path to configuration file.
      *
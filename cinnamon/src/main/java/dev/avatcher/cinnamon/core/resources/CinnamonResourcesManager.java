@@ -7,13 +7,19 @@ import dev.avatcher.cinnamon.core.resources.resourcepack.ResourcePackBuilder;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +38,10 @@ public class CinnamonResourcesManager implements Closeable {
      * Path to Cinnamon's data folder with resource pack
      */
     public static final String RESOURCE_PACK_FOLDER = "resourcepack/";
+    /**
+     * Path to Cinnamon's data file with resource pack's .zip archive
+     */
+    public static final String RESOURCE_PACK_ZIP = "resourcepack.zip";
 
     /**
      * Module of registered CustomModelData
@@ -53,6 +63,12 @@ public class CinnamonResourcesManager implements Closeable {
      */
     @Getter
     private final NoteblockTuneRegistry noteblockTunes;
+    /**
+     * Module of occupied states of the
+     * block carriers other than noteblocks
+     */
+    @Getter
+    private final CarrierStateRegistry carrierStates;
     /**
      * Map of registered custom recipes
      */
@@ -60,6 +76,40 @@ public class CinnamonResourcesManager implements Closeable {
     private final RecipeRegistry customRecipes;
 
     private final List<CinnamonRegistry<?>> modules;
+    /**
+     * Modules each module depends on. Loaded resources
+     * of a module are applied only after all of its
+     * dependencies have been applied.
+     */
+    private final Map<CinnamonRegistry<?>, List<CinnamonRegistry<?>>> dependencies;
+    /**
+     * Modules ordered, so that each module
+     * follows all of its dependencies
+     */
+    private final List<CinnamonRegistry<?>> loadOrder;
+    /**
+     * Pool reading resource files of
+     * {@link ParallelLoadable} modules
+     */
+    private final ForkJoinPool readingPool = ForkJoinPool.commonPool();
+    /**
+     * Codecs of the cached modules by module names
+     */
+    private final Map<String, ResourceCodec<?>> codecs;
+    /**
+     * Cache of the read resources
+     */
+    private final ResourceCache resourceCache;
+    /**
+     * Loaded resources by names of their plugins,
+     * kept closed to be reopened on reload
+     */
+    private final Map<String, CinnamonResources> loadedResources = new ConcurrentHashMap<>();
+    /**
+     * Requests applied from each plugin's resources
+     * by plugin names and module names
+     */
+    private final Map<String, Map<String, List<?>>> appliedRequests = new ConcurrentHashMap<>();
 
     @Getter
     private final ResourcePackBuilder resourcePackBuilder;
@@ -75,18 +125,37 @@ public class CinnamonResourcesManager implements Closeable {
         this.customModelData = new CustomModelDataRegistry();
         this.customItems = new CustomItemsRegistryImpl(this.customModelData);
         this.noteblockTunes = new NoteblockTuneRegistry();
-        this.customBlocks = new CustomBlocksRegistryImpl(this.noteblockTunes, this.customItems);
+        this.carrierStates = new CarrierStateRegistry();
+        this.customBlocks = new CustomBlocksRegistryImpl(this.noteblockTunes, this.carrierStates,
+                this.customItems, CinnamonPlugin.getInstance().getBlockCarriers());
         this.customRecipes = new RecipeRegistry();
         this.modules = List.of(
                 this.customModelData,
                 this.customItems,
                 this.noteblockTunes,
+                this.carrierStates,
                 this.customBlocks,
                 this.customRecipes
         );
+        this.dependencies = Map.of(
+                this.customItems, List.of(this.customModelData),
+                this.customBlocks, List.of(this.noteblockTunes, this.carrierStates, this.customItems, this.customModelData),
+                this.customRecipes, List.of(this.customItems, this.customBlocks)
+        );
+        this.loadOrder = this.orderByDependencies();
+        Map<String, ResourceCodec<?>> codecs = new HashMap<>();
+        this.modules.forEach(module -> {
+            ResourceCodec<?> codec = module instanceof ParallelLoadable<?> loadable ? loadable.getCodec() : null;
+            if (codec != null) codecs.put(module.getClass().getSimpleName(), codec);
+        });
+        this.codecs = Map.copyOf(codecs);
+        this.resourceCache = new ResourceCache(
+                CinnamonPlugin.getInstance().getDataFolder().toPath().resolve(ResourceCache.CACHE_FOLDER),
+                CinnamonPlugin.getInstance().getPluginMeta().getVersion());
         Path resourcePackFolder = CinnamonPlugin.getInstance().getDataFolder().toPath().resolve(RESOURCE_PACK_FOLDER);
         try {
-            this.resourcePackBuilder = new ResourcePackBuilder(resourcePackFolder);
+            this.resourcePackBuilder = new ResourcePackBuilder(resourcePackFolder,
+                    CinnamonPlugin.getInstance().getResourcesConfig());
         } catch (IOException e) {
             log.log(Level.SEVERE, "An exception occurred while initializing Resourcepack builder.");
             throw new RuntimeException(e);
@@ -125,28 +194,234 @@ public class CinnamonResourcesManager implements Closeable {
 
     /**
      * Loads certain Cinnamon resources.
+     * <p>
+     * Resource files of all the {@link ParallelLoadable} modules
+     * are read in parallel right away, while the read resources are
+     * applied on the calling thread module by module, each one after
+     * its dependencies. Modules cached in the {@link ResourceCache}
+     * for the same content of the resources skip reading entirely.
      *
      * @param resources Resources to be loaded
      */
     public void load(CinnamonResources resources) {
-        this.modules.forEach(module -> {
+        long start = System.nanoTime();
+        String contentHash = this.getContentHash(resources);
+        Map<String, List<?>> cached = contentHash == null
+                ? Map.of()
+                : this.resourceCache.load(resources, contentHash, this.codecs);
+        Map<CinnamonRegistry<?>, CompletableFuture<? extends ReadResources<?>>> reads = new HashMap<>();
+        for (CinnamonRegistry<?> module : this.loadOrder) {
+            if (module instanceof ParallelLoadable<?> loadable) {
+                List<?> cachedRequests = cached.get(module.getClass().getSimpleName());
+                reads.put(module, cachedRequests != null
+                        ? CompletableFuture.completedFuture(this.fromCache(loadable, cachedRequests))
+                        : this.read(loadable, resources));
+            }
+        }
+        Map<String, List<?>> toCache = new HashMap<>();
+        Map<String, List<?>> applied = new HashMap<>();
+        for (CinnamonRegistry<?> module : this.loadOrder) {
+            long applyStart = System.nanoTime();
             try {
-                module.load(resources);
-            } catch (IOException e) {
+                var read = reads.get(module);
+                if (read == null) {
+                    module.load(resources);
+                } else {
+                    ReadResources<?> readResources = read.join();
+                    this.apply(readResources, resources);
+                    String name = module.getClass().getSimpleName();
+                    applied.put(name, readResources.requests());
+                    // Failed files and classes would be missing silently on a cache hit
+                    if (this.codecs.containsKey(name) && readResources.failures() == 0) {
+                        toCache.put(name, readResources.requests());
+                    }
+                    log.info("[%s] %s %d file(s) in %d ms, applied in %d ms".formatted(
+                            name, readResources.cached() ? "Loaded cached" : "Read", readResources.files(),
+                            TimeUnit.NANOSECONDS.toMillis(readResources.readTime()),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - applyStart)));
+                }
+            } catch (IOException | CompletionException e) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
                 log.severe("[%s] An error occurred while loading %s from plugin '%s'"
                         .formatted(module.getClass().getSimpleName(), resources,
                                 resources.getPlugin().getName()));
-                log.log(Level.SEVERE, e.getMessage(), e);
+                log.log(Level.SEVERE, cause.getMessage(), cause);
             }
-        });
+        }
+        if (contentHash != null && !cached.keySet().containsAll(toCache.keySet())) {
+            CompletableFuture.runAsync(
+                    () -> this.resourceCache.save(resources, contentHash, this.codecs, toCache),
+                    this.readingPool);
+        }
+        this.loadedResources.put(resources.getPlugin().getName(), resources);
+        this.appliedRequests.put(resources.getPlugin().getName(), applied);
+        this.resourcePackBuilder.registerAssets(resources);
+        this.savePreload();
+        log.info("Loaded resources of plugin '%s' in %d ms".formatted(
+                resources.getPlugin().getName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    /**
+     * Gets the resources loaded from a plugin.
+     *
+     * @param pluginName Name of the plugin
+     * @return {@code null}, if no resources
+     *         of the plugin have been loaded
+     */
+    @Nullable CinnamonResources getLoadedResources(String pluginName) {
+        return this.loadedResources.get(pluginName);
+    }
+
+    /**
+     * Gets names of the plugins, whose
+     * resources have been loaded.
+     *
+     * @return Names of the plugins
+     */
+    public Set<String> getLoadedPlugins() {
+        return Collections.unmodifiableSet(this.loadedResources.keySet());
+    }
+
+    /**
+     * Gets the requests applied from a plugin's resources.
+     *
+     * @param pluginName Name of the plugin
+     * @return Applied requests by module names
+     */
+    Map<String, List<?>> getAppliedRequests(String pluginName) {
+        return this.appliedRequests.getOrDefault(pluginName, Map.of());
+    }
+
+    /**
+     * Replaces the requests applied from a plugin's resources
+     * after they have been reloaded.
+     *
+     * @param resources Reloaded resources
+     * @param applied   Applied requests by module names
+     */
+    void setAppliedRequests(CinnamonResources resources, Map<String, List<?>> applied) {
+        this.loadedResources.put(resources.getPlugin().getName(), resources);
+        this.appliedRequests.put(resources.getPlugin().getName(), applied);
+    }
+
+    /**
+     * Gets modules ordered, so that each
+     * module follows its dependencies.
+     *
+     * @return Ordered modules
+     */
+    List<CinnamonRegistry<?>> getLoadOrder() {
+        return this.loadOrder;
+    }
+
+    /**
+     * Reads resource files of a module in parallel. Files
+     * failed to be read are reported, skipped and counted
+     * as failures along with incomplete requests.
+     *
+     * @param loadable  Module to read resources of
+     * @param resources Resources to be read
+     * @return Future of the read resources
+     * @param <R> Type of the read registration requests
+     */
+    <R> CompletableFuture<ReadResources<R>> read(ParallelLoadable<R> loadable, CinnamonResources resources) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            List<Path> files;
+            try {
+                files = loadable.listFiles(resources);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ParallelLoadable.ResourceReader<R> reader = loadable.createReader(resources);
+            List<R> requests = files.parallelStream()
+                    .map(file -> {
+                        try {
+                            return reader.read(file);
+                        } catch (IOException | RuntimeException e) {
+                            log.severe("[%s] Failed to read %s from plugin '%s'"
+                                    .formatted(loadable.getClass().getSimpleName(), file,
+                                            resources.getPlugin().getName()));
+                            log.log(Level.SEVERE, e.getMessage(), e);
+                            return null;
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .toList();
+            int failures = files.size() - requests.size();
+            for (R request : requests) {
+                if (!loadable.isComplete(request)) failures++;
+            }
+            return new ReadResources<>(loadable, requests, files.size(), failures,
+                    System.nanoTime() - start, false);
+        }, this.readingPool);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> ReadResources<R> fromCache(ParallelLoadable<R> loadable, List<?> requests) {
+        return new ReadResources<>(loadable, (List<R>) requests, requests.size(), 0, 0, true);
+    }
+
+    /**
+     * Gets the content hash of resources,
+     * reporting failures of hashing.
+     *
+     * @param resources Resources to be hashed
+     * @return {@code null}, if the resources cannot be cached
+     */
+    private String getContentHash(CinnamonResources resources) {
         try {
-            this.resourcePackBuilder.registerAssets(resources);
+            return resources.getContentHash();
         } catch (IOException e) {
-            log.severe("An error occurred while loading assets %s from plugin '%s'"
-                    .formatted(resources, resources.getPlugin().getName()));
-            log.log(Level.SEVERE, e.getMessage(), e);
+            log.log(Level.WARNING, "Failed to hash resources of plugin '%s'"
+                    .formatted(resources.getPlugin().getName()), e);
+            return null;
         }
-        this.savePreload();
+    }
+
+    private <R> void apply(ReadResources<R> readResources, CinnamonResources resources) {
+        readResources.loadable().apply(resources, readResources.requests());
+    }
+
+    /**
+     * Orders modules, so that each
+     * module follows its dependencies.
+     *
+     * @return Ordered modules
+     */
+    private List<CinnamonRegistry<?>> orderByDependencies() {
+        List<CinnamonRegistry<?>> ordered = new ArrayList<>(this.modules.size());
+        Set<CinnamonRegistry<?>> visiting = new HashSet<>();
+        this.modules.forEach(module -> this.visitDependencies(module, ordered, visiting));
+        return List.copyOf(ordered);
+    }
+
+    private void visitDependencies(CinnamonRegistry<?> module, List<CinnamonRegistry<?>> ordered,
+                                   Set<CinnamonRegistry<?>> visiting) {
+        if (ordered.contains(module)) return;
+        if (!visiting.add(module)) {
+            throw new IllegalStateException("Circular dependency of module " + module.getClass().getSimpleName());
+        }
+        this.dependencies.getOrDefault(module, List.of())
+                .forEach(dependency -> this.visitDependencies(dependency, ordered, visiting));
+        ordered.add(module);
+    }
+
+    /**
+     * Resources read by a module, ready to be applied
+     *
+     * @param loadable Module the resources are read by
+     * @param requests Read registration requests
+     * @param files    Amount of the read files
+     * @param failures Amount of the files failed to be read
+     *                 and of the incomplete requests
+     * @param readTime Time spent on reading in nanoseconds
+     * @param cached   Whether the resources are loaded from the cache
+     * @param <R> Type of the read registration requests
+     */
+    record ReadResources<R>(ParallelLoadable<R> loadable, List<R> requests, int files, int failures,
+                            long readTime, boolean cached) {
     }
 
     /**
@@ -174,7 +449,7 @@ public class CinnamonResourcesManager implements Closeable {
      * Saves some important registered resources into
      * Cinnamon's {@value #PRELOAD_FOLDER} data folder.
      */
-    private void savePreload() {
+    void savePreload() {
         log.info("Saving preload...");
         Path folder = CinnamonPlugin.getInstance().getDataFolder().toPath().resolve(PRELOAD_FOLDER);
         try {
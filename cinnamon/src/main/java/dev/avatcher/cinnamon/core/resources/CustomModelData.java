@@ -20,9 +20,16 @@ import java.util.stream.Stream;
  */
 public record CustomModelData(NamespacedKey identifier, int numeric) implements Keyed {
     /**
-     * Starting value of CustomModelData Cinnamon registers
+     * Smallest value of CustomModelData Cinnamon allocates
      */
-    public static final int START_NUMERIC = 39000;
+    public static final int START_NUMERIC = 1 << 20;
+
+    /**
+     * Upper bound (exclusive) of CustomModelData values. Item model
+     * overrides compare CustomModelData as a float, so bigger
+     * values cannot be told apart from their neighbours.
+     */
+    public static final int MAX_NUMERIC = 1 << 24;
 
     /**
      * Items that use `minecraft:item/handheld` as the
@@ -80,7 +87,7 @@ public record CustomModelData(NamespacedKey identifier, int numeric) implements
      * @return {@code true}, if {@code numeric} is applicable in game
      */
     public static boolean isCorrectNumber(int numeric) {
-        return String.valueOf(numeric).length() < 6;
+        return numeric > 0 && numeric < MAX_NUMERIC;
     }
 
     /**
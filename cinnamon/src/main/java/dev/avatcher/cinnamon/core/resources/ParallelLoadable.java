@@ -0,0 +1,143 @@
+package dev.avatcher.cinnamon.core.resources;
+
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A registry, that loads its resources in two phases: reading
+ * resource files, which is thread-safe and may run on any thread
+ * in parallel, and applying the read requests, which runs on the
+ * main thread and is the only phase allowed to register anything.
+ *
+ * @param <R> Type of the read registration requests
+ *
+ * @see CinnamonResourcesManager#load(CinnamonResources)
+ */
+public interface ParallelLoadable<R> {
+    /**
+     * Lists the resource files to be read.
+     *
+     * @param resources Cinnamon resources
+     * @return Files to be read
+     */
+    @NotNull List<Path> listFiles(@NotNull CinnamonResources resources) throws IOException;
+
+    /**
+     * Creates a reader of resource files. The reader is shared
+     * by all the threads reading files of the same resources,
+     * so it must be thread-safe and must not access registries
+     * or the server.
+     *
+     * @param resources Cinnamon resources
+     * @return Reader of resource files
+     */
+    @NotNull ResourceReader<R> createReader(@NotNull CinnamonResources resources);
+
+    /**
+     * Registers read requests. Called on the main thread
+     * once the dependencies of the registry have been applied.
+     *
+     * @param resources Cinnamon resources
+     * @param requests  Read requests in the order of the listed files
+     */
+    void apply(@NotNull CinnamonResources resources, @NotNull List<R> requests);
+
+    /**
+     * Gets the key of the resources registered by a request.
+     * Requests with the same key are compared on reload to
+     * find out, which resources have changed.
+     *
+     * @param request Registration request
+     * @return Key of the resources
+     *
+     * @see ResourceReloader
+     */
+    @NotNull NamespacedKey getKey(@NotNull R request);
+
+    /**
+     * Unregisters resources, that are no longer present in their
+     * resources on reload. Called on the main thread. Does
+     * nothing by default, leaving the resources registered.
+     *
+     * @param key Key of the removed resources
+     */
+    default void unregister(@NotNull NamespacedKey key) {
+    }
+
+    /**
+     * Checks, if an unchanged request has to be applied once
+     * again on reload, since resources of other registries
+     * it refers to have changed.
+     *
+     * @param request     Unchanged registration request
+     * @param changedKeys Keys of the changed resources
+     *                    of the registry's dependencies
+     * @return {@code true}, if the request has to be re-applied
+     */
+    default boolean dependsOn(@NotNull R request, @NotNull Set<NamespacedKey> changedKeys) {
+        return false;
+    }
+
+    /**
+     * Checks, if a request has been read completely. Requests
+     * read with a part of them missing, such as a behaviour
+     * class, that has not been found, are applied, but not
+     * cached, so the failure is reported on every load.
+     *
+     * @param request Read registration request
+     * @return {@code true} by default
+     */
+    default boolean isComplete(@NotNull R request) {
+        return true;
+    }
+
+    /**
+     * Gets the codec storing read requests in the
+     * {@link ResourceCache}.
+     *
+     * @return {@code null}, if the requests
+     *         of the registry are not cached
+     */
+    default @Nullable ResourceCodec<R> getCodec() {
+        return null;
+    }
+
+    /**
+     * Loads resources sequentially on the calling thread.
+     *
+     * @param resources Cinnamon resources
+     */
+    default void loadSequentially(@NotNull CinnamonResources resources) throws IOException {
+        ResourceReader<R> reader = this.createReader(resources);
+        List<R> requests = new ArrayList<>();
+        for (Path file : this.listFiles(resources)) {
+            R request = reader.read(file);
+            if (request != null) requests.add(request);
+        }
+        this.apply(resources, requests);
+    }
+
+    /**
+     * Reader of a single resource file
+     *
+     * @param <R> Type of the read registration requests
+     */
+    @FunctionalInterface
+    interface ResourceReader<R> {
+        /**
+         * Reads a resource file.
+         *
+         * @param file Resource file
+         * @return Registration request, or {@code null},
+         *         if the file should be skipped
+         */
+        R read(@NotNull Path file) throws IOException;
+    }
+}
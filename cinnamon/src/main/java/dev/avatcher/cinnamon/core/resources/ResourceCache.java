@@ -0,0 +1,148 @@
+package dev.avatcher.cinnamon.core.resources;
+
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binary cache of registration requests read from Cinnamon resources.
+ * <p>
+ * Each plugin has its own cache file holding the requests read
+ * by every {@link ParallelLoadable} registry with a {@link ResourceCodec}.
+ * The file is valid only for the same content hash of the resources
+ * and the same Cinnamon version, so any change of the plugin's jar or
+ * of Cinnamon itself makes the resources be read again.
+ * <p>
+ * Every registry's section is length-prefixed, so sections of
+ * registries without a codec are skipped.
+ *
+ * @see CinnamonResources#getContentHash()
+ */
+public class ResourceCache {
+    /**
+     * Path to Cinnamon's data folder with cached resources
+     */
+    public static final String CACHE_FOLDER = "cache/";
+
+    private static final int MAGIC = 0x434E4D43;
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path folder;
+    private final String cinnamonVersion;
+    private final Logger log;
+
+    /**
+     * Creates a new resource cache.
+     *
+     * @param folder          Folder with cache files
+     * @param cinnamonVersion Version of Cinnamon the cache is written by
+     */
+    public ResourceCache(@NotNull Path folder, @NotNull String cinnamonVersion) {
+        this.folder = folder;
+        this.cinnamonVersion = cinnamonVersion;
+        this.log = CinnamonPlugin.getInstance().getLogger();
+    }
+
+    /**
+     * Loads cached registration requests of resources.
+     *
+     * @param resources   Resources to load cached requests of
+     * @param contentHash Current content hash of the resources
+     * @param codecs      Codecs by the names of their registries
+     * @return Cached requests by the names of their registries,
+     *         empty, if the cache is missing or outdated
+     */
+    public @NotNull Map<String, List<?>> load(@NotNull CinnamonResources resources, @NotNull String contentHash,
+                                              @NotNull Map<String, ResourceCodec<?>> codecs) {
+        Path file = this.getFile(resources);
+        if (!Files.exists(file)) return Map.of();
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC
+                    || in.readInt() != FORMAT_VERSION
+                    || !in.readUTF().equals(this.cinnamonVersion)
+                    || !in.readUTF().equals(contentHash)) return Map.of();
+            Map<String, List<?>> requests = new HashMap<>();
+            int modules = in.readInt();
+            for (int i = 0; i < modules; i++) {
+                String module = in.readUTF();
+                int length = in.readInt();
+                ResourceCodec<?> codec = codecs.get(module);
+                if (codec == null) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                int count = in.readInt();
+                List<Object> moduleRequests = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    moduleRequests.add(codec.read(in));
+                }
+                requests.put(module, moduleRequests);
+            }
+            return requests;
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Dropping resource cache of plugin '%s': %s"
+                    .formatted(resources.getPlugin().getName(), e.getMessage()));
+            return Map.of();
+        }
+    }
+
+    /**
+     * Saves registration requests of resources, replacing
+     * the previous cache of the resources' plugin.
+     *
+     * @param resources   Resources the requests are read from
+     * @param contentHash Content hash of the resources
+     * @param codecs      Codecs by the names of their registries
+     * @param requests    Requests by the names of their registries
+     */
+    public void save(@NotNull CinnamonResources resources, @NotNull String contentHash,
+                     @NotNull Map<String, ResourceCodec<?>> codecs, @NotNull Map<String, List<?>> requests) {
+        Path file = this.getFile(resources);
+        try {
+            Files.createDirectories(this.folder);
+            Path temp = Files.createTempFile(this.folder, file.getFileName().toString(), ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(this.cinnamonVersion);
+                out.writeUTF(contentHash);
+                out.writeInt(requests.size());
+                var section = new ByteArrayOutputStream();
+                for (var entry : requests.entrySet()) {
+                    section.reset();
+                    writeSection(new DataOutputStream(section), codecs.get(entry.getKey()), entry.getValue());
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(section.size());
+                    section.writeTo(out);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to save resource cache of plugin '%s'"
+                    .formatted(resources.getPlugin().getName()), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> void writeSection(DataOutputStream out, ResourceCodec<R> codec, List<?> requests) throws IOException {
+        out.writeInt(requests.size());
+        for (Object request : requests) {
+            codec.write(out, (R) request);
+        }
+        out.flush();
+    }
+
+    private Path getFile(CinnamonResources resources) {
+        return this.folder.resolve(resources.getPlugin().getName() + ".bin");
+    }
+}
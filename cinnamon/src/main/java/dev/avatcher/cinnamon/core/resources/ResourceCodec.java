@@ -0,0 +1,110 @@
+package dev.avatcher.cinnamon.core.resources;
+
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary codec of registration requests read by a
+ * {@link ParallelLoadable} registry, used to store them
+ * in the {@link ResourceCache}.
+ * <p>
+ * Decoding a cached request must give the same request as
+ * reading it from resources. If it cannot, e.g. because a
+ * referenced class is gone, it must throw an {@link IOException},
+ * so the cache is dropped and resources are read again.
+ *
+ * @param <R> Type of the registration requests
+ */
+public interface ResourceCodec<R> {
+    /**
+     * Writes a registration request.
+     *
+     * @param out     Output to write to
+     * @param request Registration request
+     */
+    void write(@NotNull DataOutput out, @NotNull R request) throws IOException;
+
+    /**
+     * Reads a registration request.
+     *
+     * @param in Input to read from
+     * @return Read registration request
+     */
+    @NotNull R read(@NotNull DataInput in) throws IOException;
+
+    /**
+     * Writes a namespaced key.
+     *
+     * @param out Output to write to
+     * @param key Key to write
+     */
+    static void writeKey(@NotNull DataOutput out, @NotNull NamespacedKey key) throws IOException {
+        out.writeUTF(key.asString());
+    }
+
+    /**
+     * Reads a namespaced key.
+     *
+     * @param in Input to read from
+     * @return Read key
+     */
+    static @NotNull NamespacedKey readKey(@NotNull DataInput in) throws IOException {
+        String value = in.readUTF();
+        NamespacedKey key = NamespacedKey.fromString(value);
+        if (key == null) throw new IOException("Invalid namespaced key: " + value);
+        return key;
+    }
+
+    /**
+     * Writes a string, that may be {@code null}.
+     *
+     * @param out   Output to write to
+     * @param value String to write
+     */
+    static void writeNullableString(@NotNull DataOutput out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    /**
+     * Reads a string, that may be {@code null}.
+     *
+     * @param in Input to read from
+     * @return Read string
+     */
+    static @Nullable String readNullableString(@NotNull DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Writes the name of a class, that may be {@code null}.
+     *
+     * @param out   Output to write to
+     * @param clazz Class to write
+     */
+    static void writeClass(@NotNull DataOutput out, @Nullable Class<?> clazz) throws IOException {
+        writeNullableString(out, clazz == null ? null : clazz.getName());
+    }
+
+    /**
+     * Reads a class by its name without initializing it.
+     *
+     * @param in Input to read from
+     * @return Read class, or {@code null}, if none was written
+     * @throws IOException If the class no longer exists
+     */
+    static @Nullable Class<?> readClass(@NotNull DataInput in) throws IOException {
+        String name = readNullableString(in);
+        if (name == null) return null;
+        try {
+            return Class.forName(name, false, ResourceCodec.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cached class is not found: " + name, e);
+        }
+    }
+}
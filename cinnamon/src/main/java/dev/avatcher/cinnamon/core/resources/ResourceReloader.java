@@ -0,0 +1,351 @@
+package dev.avatcher.cinnamon.core.resources;
+
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.resources.registries.RecipeRegistry;
+import dev.avatcher.cinnamon.core.resources.resourcepack.ResourcePackBuilder;
+import dev.avatcher.cinnamon.core.resources.resourcepack.ResourcepackArchive;
+import dev.avatcher.cinnamon.core.resources.resourcepack.ResourcepackServerImpl;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reloads Cinnamon resources of a plugin without restarting the server.
+ * <p>
+ * Resource files are read off the main thread once again and compared
+ * with the requests applied from them the last time, so only resources,
+ * that have been added, changed or removed, are registered again or
+ * unregistered. The changes are applied on the main thread in small
+ * steps limited by a time budget per tick. Finally, the resource pack
+ * is streamed into its archive once again, and the rebuilt pack is
+ * pushed to online players, if its hash differs from the current one.
+ * <p>
+ * Reloads run one at a time, in the order they have been requested.
+ */
+public class ResourceReloader implements Runnable {
+    /**
+     * Maximal amount of requests applied by a single step
+     */
+    private static final int APPLY_CHUNK = 16;
+
+    private final Plugin plugin;
+    private final CinnamonResourcesManager manager;
+    /**
+     * Time in nanoseconds applying may take every tick
+     */
+    private final long tickBudget;
+    private final Executor mainThread;
+    private final Logger log;
+    /**
+     * Pending steps of applying the current reload
+     */
+    private final Deque<Runnable> steps = new ArrayDeque<>();
+    private CompletableFuture<Void> stepsDone;
+    private BukkitTask task;
+    /**
+     * Completes once the last requested reload has finished
+     */
+    private CompletableFuture<?> lastReload = CompletableFuture.completedFuture(null);
+
+    /**
+     * Creates a new reloader.
+     *
+     * @param plugin     Plugin owning the reloading tasks
+     * @param manager    Manager the resources have been loaded by
+     * @param tickBudget Time in milliseconds applying may take every tick
+     */
+    public ResourceReloader(@NotNull Plugin plugin, @NotNull CinnamonResourcesManager manager, int tickBudget) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.tickBudget = TimeUnit.MILLISECONDS.toNanos(tickBudget);
+        this.mainThread = command -> Bukkit.getScheduler().runTask(plugin, command);
+        this.log = plugin.getLogger();
+    }
+
+    /**
+     * Reloads resources of a plugin, once all
+     * the previously requested reloads have finished.
+     * Must be called on the main thread.
+     *
+     * @param pluginName Name of the plugin
+     * @return Future of the reload's result, completed on the main thread
+     */
+    public CompletableFuture<ReloadResult> reload(@NotNull String pluginName) {
+        CompletableFuture<ReloadResult> reload = this.lastReload
+                .handle((result, e) -> null)
+                .thenComposeAsync(ignored -> this.reloadNow(pluginName), this.mainThread)
+                .whenComplete((result, e) -> {
+                    if (e == null) {
+                        log.info(result.toString());
+                        return;
+                    }
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.log(Level.SEVERE, "An error occurred while reloading resources of plugin '%s'"
+                            .formatted(pluginName), cause);
+                });
+        this.lastReload = reload;
+        return reload;
+    }
+
+    /**
+     * Reloads resources of all the plugins.
+     *
+     * @return Futures of the reloads' results
+     *
+     * @see #reload(String)
+     */
+    public List<CompletableFuture<ReloadResult>> reloadAll() {
+        return this.manager.getLoadedPlugins().stream()
+                .sorted()
+                .map(this::reload)
+                .toList();
+    }
+
+    private CompletableFuture<ReloadResult> reloadNow(String pluginName) {
+        CinnamonResources loaded = this.manager.getLoadedResources(pluginName);
+        if (loaded == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("No resources of plugin '" + pluginName + "' are loaded"));
+        }
+        long start = System.nanoTime();
+        CinnamonResources resources;
+        try {
+            resources = loaded.reopen();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Map<String, List<?>> previous = this.manager.getAppliedRequests(pluginName);
+        List<CompletableFuture<? extends CinnamonResourcesManager.ReadResources<?>>> reads = new ArrayList<>();
+        for (CinnamonRegistry<?> module : this.manager.getLoadOrder()) {
+            if (module instanceof ParallelLoadable<?> loadable) {
+                reads.add(this.manager.read(loadable, resources));
+            }
+        }
+        return CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new))
+                .thenApplyAsync(ignored -> {
+                    Set<NamespacedKey> changedKeys = new HashSet<>();
+                    List<ModuleChanges<?>> changes = new ArrayList<>(reads.size());
+                    for (var read : reads) {
+                        CinnamonResourcesManager.ReadResources<?> readResources = read.join();
+                        changes.add(this.diff(readResources, previous, changedKeys));
+                    }
+                    return changes;
+                })
+                .thenComposeAsync(changes -> this.apply(resources, changes).thenApply(ignored -> {
+                    Map<String, List<?>> applied = new HashMap<>();
+                    changes.forEach(moduleChanges -> applied.put(moduleChanges.name(), moduleChanges.requests()));
+                    this.manager.setAppliedRequests(resources, applied);
+                    this.manager.savePreload();
+                    return changes;
+                }), this.mainThread)
+                .thenApplyAsync(changes -> new PackUpdate(changes, this.rebuildResourcepack(changes)))
+                .whenComplete((update, e) -> {
+                    try {
+                        resources.close();
+                    } catch (IOException closeException) {
+                        log.log(Level.WARNING, "Failed to close " + resources, closeException);
+                    }
+                })
+                .thenApplyAsync(update -> {
+                    boolean packUpdated = this.pushResourcepack(update.zip());
+                    int added = 0, changed = 0, removed = 0;
+                    for (ModuleChanges<?> moduleChanges : update.changes()) {
+                        added += moduleChanges.added();
+                        changed += moduleChanges.changed().size() - moduleChanges.added();
+                        removed += moduleChanges.removed().size();
+                    }
+                    return new ReloadResult(pluginName, added, changed, removed, packUpdated,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }, this.mainThread);
+    }
+
+    /**
+     * Compares requests read by a module with
+     * the requests it applied the last time.
+     *
+     * @param read        Resources read by the module
+     * @param previous    Previously applied requests by module names
+     * @param changedKeys Keys of the resources changed by the preceding
+     *                    modules, extended with this module's changes
+     * @return Changes of the module's resources
+     * @param <R> Type of the read registration requests
+     */
+    @SuppressWarnings("unchecked")
+    private <R> ModuleChanges<R> diff(CinnamonResourcesManager.ReadResources<R> read,
+                                      Map<String, List<?>> previous, Set<NamespacedKey> changedKeys) {
+        ParallelLoadable<R> loadable = read.loadable();
+        String name = loadable.getClass().getSimpleName();
+        Map<NamespacedKey, R> before = new HashMap<>();
+        for (Object request : previous.getOrDefault(name, List.of())) {
+            before.put(loadable.getKey((R) request), (R) request);
+        }
+        Set<NamespacedKey> removed = new LinkedHashSet<>(before.keySet());
+        List<R> changed = new ArrayList<>();
+        Set<NamespacedKey> moduleChangedKeys = new HashSet<>();
+        int added = 0;
+        for (R request : read.requests()) {
+            NamespacedKey key = loadable.getKey(request);
+            removed.remove(key);
+            R old = before.get(key);
+            if (old == null) {
+                added++;
+            } else if (old.equals(request) && !loadable.dependsOn(request, changedKeys)) {
+                continue;
+            }
+            changed.add(request);
+            moduleChangedKeys.add(key);
+        }
+        changedKeys.addAll(moduleChangedKeys);
+        changedKeys.addAll(removed);
+        return new ModuleChanges<>(loadable, name, read.requests(), changed, removed, added);
+    }
+
+    /**
+     * Schedules applying of the changes in steps
+     * limited by the time budget per tick.
+     *
+     * @param resources Reloaded resources
+     * @param changes   Changes of the modules in the load order
+     * @return Future completed once all the changes have been applied
+     */
+    private CompletableFuture<Void> apply(CinnamonResources resources, List<ModuleChanges<?>> changes) {
+        changes.forEach(moduleChanges -> this.enqueue(resources, moduleChanges));
+        if (this.steps.isEmpty()) return CompletableFuture.completedFuture(null);
+        this.stepsDone = new CompletableFuture<>();
+        this.task = Bukkit.getScheduler().runTaskTimer(this.plugin, this, 0, 1);
+        return this.stepsDone;
+    }
+
+    private <R> void enqueue(CinnamonResources resources, ModuleChanges<R> changes) {
+        ParallelLoadable<R> loadable = changes.loadable();
+        changes.removed().forEach(key -> this.steps.add(() -> loadable.unregister(key)));
+        List<R> changed = changes.changed();
+        for (int i = 0; i < changed.size(); i += APPLY_CHUNK) {
+            List<R> chunk = changed.subList(i, Math.min(changed.size(), i + APPLY_CHUNK));
+            this.steps.add(() -> loadable.apply(resources, chunk));
+        }
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + this.tickBudget;
+        do {
+            Runnable step = this.steps.poll();
+            if (step == null) break;
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                log.log(Level.SEVERE, "An error occurred while applying reloaded resources", e);
+            }
+        } while (System.nanoTime() < deadline);
+        if (this.steps.isEmpty()) {
+            this.task.cancel();
+            this.task = null;
+            this.stepsDone.complete(null);
+        }
+    }
+
+    /**
+     * Rebuilds the resource pack. Assets are not compared
+     * file by file, since the whole pack is streamed from
+     * the resources anyway, and an unchanged pack is
+     * recognized by its hash once it is pushed.
+     *
+     * @param changes Changes of the modules
+     * @return The rebuilt .zip archive
+     */
+    private ResourcepackArchive rebuildResourcepack(List<ModuleChanges<?>> changes) {
+        ResourcePackBuilder builder = this.manager.getResourcePackBuilder();
+        try {
+            boolean modelsChanged = changes.stream()
+                    .anyMatch(moduleChanges -> !(moduleChanges.loadable() instanceof RecipeRegistry)
+                            && moduleChanges.hasChanges());
+            if (modelsChanged) builder.build();
+            Path zipPath = CinnamonPlugin.getInstance().getDataFolder().toPath()
+                    .resolve(CinnamonResourcesManager.RESOURCE_PACK_ZIP);
+            return builder.buildZip(zipPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Provides a rebuilt resource pack to the transmitting
+     * server and sends it to all the online players.
+     *
+     * @param zip The .zip archive
+     * @return {@code true}, if the transmitted pack has changed
+     */
+    private boolean pushResourcepack(ResourcepackArchive zip) {
+        ResourcepackServerImpl server = CinnamonPlugin.getInstance().getResourcepackServer();
+        try {
+            if (server == null || !server.setResourcepack(zip)) return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (server.isActive()) {
+            Bukkit.getOnlinePlayers().forEach(server::applyTo);
+        }
+        return true;
+    }
+
+    /**
+     * Changes of a module's resources since the last load
+     *
+     * @param loadable Module
+     * @param name     Name of the module
+     * @param requests All the read requests
+     * @param changed  Added and changed requests to be applied
+     * @param removed  Keys of the removed resources
+     * @param added    Amount of the added requests
+     * @param <R> Type of the read registration requests
+     */
+    private record ModuleChanges<R>(ParallelLoadable<R> loadable, String name, List<R> requests, List<R> changed,
+                                    Set<NamespacedKey> removed, int added) {
+        boolean hasChanges() {
+            return !this.changed.isEmpty() || !this.removed.isEmpty();
+        }
+    }
+
+    /**
+     * Changes applied by a reload along with
+     * the resource pack rebuilt for them
+     *
+     * @param changes Changes of the modules
+     * @param zip     Rebuilt resource pack
+     */
+    private record PackUpdate(List<ModuleChanges<?>> changes, ResourcepackArchive zip) {
+    }
+
+    /**
+     * Result of a finished reload
+     *
+     * @param pluginName    Name of the reloaded plugin
+     * @param added         Amount of the added resources
+     * @param changed       Amount of the changed resources
+     * @param removed       Amount of the removed resources
+     * @param packUpdated   Whether a new resource pack has been sent to players
+     * @param time          Time the reload took in milliseconds
+     */
+    public record ReloadResult(String pluginName, int added, int changed, int removed, boolean packUpdated,
+                               long time) {
+        @Override
+        public String toString() {
+            return "Reloaded resources of plugin '%s' in %d ms (added: %d, changed: %d, removed: %d%s)".formatted(
+                    this.pluginName, this.time, this.added, this.changed, this.removed,
+                    this.packUpdated ? ", resource pack updated" : "");
+        }
+    }
+}
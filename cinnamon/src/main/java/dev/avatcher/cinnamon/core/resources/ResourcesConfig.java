@@ -0,0 +1,81 @@
+package dev.avatcher.cinnamon.core.resources;
+
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Configuration of Cinnamon resources' reloading
+ * and building of the resource pack
+ */
+@Getter
+public final class ResourcesConfig implements ConfigurationSerializable {
+    /**
+     * The main config's subsection name
+     * containing this config.
+     */
+    public static final String CONFIG_PATH = "resources";
+
+    /**
+     * Time in milliseconds applying reloaded
+     * resources may take every tick
+     */
+    private final int reloadTickBudget;
+    /**
+     * Whether resources loaded from regular folders
+     * are reloaded automatically once their files change
+     */
+    private final boolean watchFolders;
+    /**
+     * Level of the resource pack archive's compression,
+     * from {@code 0} to {@code 9}, or {@code -1} for the default
+     */
+    private final int packCompressionLevel;
+    /**
+     * Whether files of the resource pack are minified,
+     * deduped and stripped of unused models before packing
+     *
+     * @see dev.avatcher.cinnamon.core.resources.resourcepack.PackOptimizer
+     */
+    private final boolean optimizePack;
+
+    /**
+     * Builds config from given map
+     * of configuration values.
+     *
+     * @param state Values of the config
+     */
+    public ResourcesConfig(Map<String, Object> state) {
+        this.reloadTickBudget = (int) state.get("reload-tick-budget");
+        this.watchFolders = (boolean) state.get("watch-folders");
+        this.packCompressionLevel = (int) state.get("pack-compression-level");
+        this.optimizePack = (boolean) state.get("optimize-pack");
+    }
+
+    /**
+     * Builds config from a configuration section.
+     *
+     * @param config Configuration section
+     */
+    public ResourcesConfig(ConfigurationSection config) {
+        this.reloadTickBudget = Math.max(1, config.getInt("reload-tick-budget", 5));
+        this.watchFolders = config.getBoolean("watch-folders", true);
+        this.packCompressionLevel = Math.max(Deflater.DEFAULT_COMPRESSION,
+                Math.min(Deflater.BEST_COMPRESSION, config.getInt("pack-compression-level", Deflater.BEST_COMPRESSION)));
+        this.optimizePack = config.getBoolean("optimize-pack", false);
+    }
+
+    @Override
+    public @NotNull Map<String, Object> serialize() {
+        return Map.of(
+                "reload-tick-budget", this.reloadTickBudget,
+                "watch-folders", this.watchFolders,
+                "pack-compression-level", this.packCompressionLevel,
+                "optimize-pack", this.optimizePack
+        );
+    }
+}
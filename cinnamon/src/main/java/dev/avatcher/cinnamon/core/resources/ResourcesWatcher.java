@@ -0,0 +1,145 @@
+package dev.avatcher.cinnamon.core.resources;
+
+import dev.avatcher.cinnamon.core.resources.source.FolderCinnamonResources;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches folders of {@link FolderCinnamonResources} and reloads
+ * them once their files have stopped changing for a while, so a
+ * burst of saved files results in a single reload.
+ *
+ * @see ResourceReloader
+ */
+public class ResourcesWatcher implements Runnable, Closeable {
+    /**
+     * Amount of ticks without changes
+     * after which resources are reloaded
+     */
+    private static final long DEBOUNCE_TICKS = 20;
+
+    private final Plugin plugin;
+    private final ResourceReloader reloader;
+    private final WatchService watchService;
+    private final Map<WatchKey, WatchedFolder> watchedFolders = new ConcurrentHashMap<>();
+    /**
+     * Scheduled reloads by names of the plugins.
+     * Accessed only on the main thread.
+     */
+    private final Map<String, BukkitTask> pendingReloads = new HashMap<>();
+    private final Logger log;
+
+    /**
+     * Creates a new watcher and starts its thread.
+     *
+     * @param plugin   Plugin owning the reloading tasks
+     * @param reloader Reloader of the changed resources
+     */
+    public ResourcesWatcher(@NotNull Plugin plugin, @NotNull ResourceReloader reloader) throws IOException {
+        this.plugin = plugin;
+        this.reloader = reloader;
+        this.log = plugin.getLogger();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Thread thread = new Thread(this, "Cinnamon Resources Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Starts watching folder resources.
+     *
+     * @param resources Loaded folder resources
+     */
+    public void watch(@NotNull FolderCinnamonResources resources) throws IOException {
+        this.register(resources.getPlugin().getName(), resources.getFolder());
+    }
+
+    /**
+     * Registers a folder along with all its subfolders.
+     *
+     * @param pluginName Name of the plugin owning the folder
+     * @param folder     Folder to watch
+     */
+    private void register(String pluginName, Path folder) throws IOException {
+        List<Path> folders;
+        try (var walker = Files.walk(folder)) {
+            folders = walker.filter(Files::isDirectory).toList();
+        }
+        for (Path path : folders) {
+            WatchKey key = path.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            this.watchedFolders.put(key, new WatchedFolder(pluginName, path));
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = this.watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            WatchedFolder folder = this.watchedFolders.get(key);
+            if (folder != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() != ENTRY_CREATE || !(event.context() instanceof Path name)) continue;
+                    Path created = folder.path().resolve(name);
+                    if (!Files.isDirectory(created)) continue;
+                    try {
+                        this.register(folder.pluginName(), created);
+                    } catch (IOException e) {
+                        log.log(Level.WARNING, "Failed to watch folder " + created, e);
+                    }
+                }
+                if (this.plugin.isEnabled()) {
+                    Bukkit.getScheduler().runTask(this.plugin, () -> this.scheduleReload(folder.pluginName()));
+                }
+            }
+            if (!key.reset()) this.watchedFolders.remove(key);
+        }
+    }
+
+    /**
+     * Schedules reload of a plugin's resources,
+     * postponing the already scheduled one.
+     *
+     * @param pluginName Name of the plugin
+     */
+    private void scheduleReload(String pluginName) {
+        BukkitTask pending = this.pendingReloads.remove(pluginName);
+        if (pending != null) pending.cancel();
+        this.pendingReloads.put(pluginName, Bukkit.getScheduler().runTaskLater(this.plugin, () -> {
+            this.pendingReloads.remove(pluginName);
+            this.reloader.reload(pluginName);
+        }, DEBOUNCE_TICKS));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+    }
+
+    /**
+     * A watched folder of resources
+     *
+     * @param pluginName Name of the plugin owning the folder
+     * @param path       Path to the folder
+     */
+    private record WatchedFolder(String pluginName, Path path) {
+    }
+}
@@ -7,18 +7,31 @@ import org.bukkit.NamespacedKey;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 /**
  * Abstract implementation of {@link CinnamonRegistry}
+ * <p>
+ * The registry can be read from any thread without locking.
+ * Lookups by key go straight to a concurrent map, while bulk
+ * reads ({@link #getKeys()}, {@link #getValues()}, {@link #stream()},
+ * {@link #iterator()} and index-based access) share an immutable
+ * snapshot, that is rebuilt lazily after the registry has changed.
+ * Since registries are only written while loading, the snapshot
+ * is built once after startup and reused afterwards.
  *
  * @param <T> Type of the resources in the storage
  */
 public abstract class AbstractCinnamonRegistry<T extends Keyed> implements CinnamonRegistry<T> {
     /**
-     * Map where the resources are stored
+     * Map where the resources are stored.
+     * Should be modified only through {@link #put(NamespacedKey, Keyed)}
+     * and {@link #remove(NamespacedKey)}.
      */
     protected final Map<NamespacedKey, T> map;
     /**
@@ -28,13 +41,20 @@ public abstract class AbstractCinnamonRegistry<T extends Keyed> implements Cinna
 
     protected final Logger log;
 
+    /**
+     * Amount of modifications of the map, used to
+     * detect snapshots built before the last change
+     */
+    private final AtomicInteger modifications = new AtomicInteger();
+    private volatile Snapshot<T> snapshot;
+
     /**
      * Initializes CinnamonModule for a certain resources type.
      *
      * @param clazz The type of the resources
      */
     public AbstractCinnamonRegistry(Class<T> clazz) {
-        this.map = new HashMap<>();
+        this.map = new ConcurrentHashMap<>();
         this.clazz = clazz;
         this.log = CinnamonPlugin.getInstance().getLogger();
     }
@@ -50,19 +70,79 @@ public abstract class AbstractCinnamonRegistry<T extends Keyed> implements Cinna
         } else {
             log.info("[%s] Registered: %s".formatted(this.clazz.getSimpleName(), key));
         }
+        this.put(key, value);
+    }
+
+    /**
+     * Puts resources into the storage without
+     * any checks and logging.
+     *
+     * @param key   Key of the resources
+     * @param value Resources to be stored
+     */
+    protected void put(NamespacedKey key, T value) {
         this.map.put(key, value);
+        this.modifications.incrementAndGet();
+    }
+
+    /**
+     * Removes resources from the storage
+     * without any checks and logging.
+     *
+     * @param key Key of the resources
+     * @return Removed resources, or {@code null},
+     *         if nothing was registered by the key
+     */
+    protected @Nullable T remove(NamespacedKey key) {
+        T removed = this.map.remove(key);
+        if (removed != null) this.modifications.incrementAndGet();
+        return removed;
     }
 
     @Override
     public Set<NamespacedKey> getKeys() {
-        return this.map.keySet();
+        return this.snapshot().keys();
     }
 
     @Override
     public Collection<T> getValues() {
-        return this.map.values();
+        return this.snapshot().values();
+    }
+
+    /**
+     * Gets the amount of registered resources.
+     *
+     * @return Amount of registered resources
+     */
+    public int size() {
+        return this.map.size();
+    }
+
+    /**
+     * Gets registered resources by their index in the
+     * current snapshot of the registry. Indices are only
+     * stable while the registry is not modified.
+     *
+     * @param index Index of the resources
+     * @return Resources
+     * @throws IndexOutOfBoundsException If the index is out of range
+     *
+     * @see #toArray()
+     */
+    public T getValue(int index) {
+        return this.snapshot().array()[index];
     }
 
+    /**
+     * Gets all the registered resources as an array,
+     * suitable for index-based iteration. The returned
+     * array is shared and must not be modified.
+     *
+     * @return Registered resources
+     */
+    public T[] toArray() {
+        return this.snapshot().array();
+    }
 
     @Override
     public @NotNull Stream<T> stream() {
@@ -74,4 +154,44 @@ public abstract class AbstractCinnamonRegistry<T extends Keyed> implements Cinna
     public Iterator<T> iterator() {
         return this.getValues().iterator();
     }
+
+    /**
+     * Gets the up-to-date snapshot of the registry,
+     * rebuilding it, if the registry has changed.
+     *
+     * @return Snapshot of the registry
+     */
+    @SuppressWarnings("unchecked")
+    private Snapshot<T> snapshot() {
+        int version = this.modifications.get();
+        Snapshot<T> current = this.snapshot;
+        if (current != null && current.version() == version) return current;
+        // A modification made while copying changes the counter,
+        // so such a snapshot is rebuilt on the next read
+        List<T> values = new ArrayList<>(this.map.size());
+        Set<NamespacedKey> keys = new LinkedHashSet<>(this.map.size() * 2);
+        this.map.forEach((key, value) -> {
+            keys.add(key);
+            values.add(value);
+        });
+        T[] array = values.toArray((T[]) Array.newInstance(this.clazz, values.size()));
+        current = new Snapshot<>(version,
+                Collections.unmodifiableSet(keys),
+                Collections.unmodifiableList(Arrays.asList(array)),
+                array);
+        this.snapshot = current;
+        return current;
+    }
+
+    /**
+     * Immutable state of the registry
+     *
+     * @param version Modification count the snapshot was built at
+     * @param keys    Keys of the resources
+     * @param values  Resources
+     * @param array   Resources in the dense array form
+     * @param <T> Type of the resources
+     */
+    private record Snapshot<T>(int version, Set<NamespacedKey> keys, List<T> values, T[] array) {
+    }
 }
@@ -0,0 +1,159 @@
+package dev.avatcher.cinnamon.core.resources.registries;
+
+import com.google.gson.reflect.TypeToken;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarrier;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarriers;
+import dev.avatcher.cinnamon.core.block.carrier.CarrierState;
+import dev.avatcher.cinnamon.core.json.CinnamonGson;
+import dev.avatcher.cinnamon.core.resources.CinnamonRegistry;
+import dev.avatcher.cinnamon.core.resources.CinnamonResources;
+import dev.avatcher.cinnamon.core.resources.Preloadable;
+import org.bukkit.NamespacedKey;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Cinnamon Module storing states of block carriers occupied
+ * by custom blocks. Noteblock tunes are stored separately
+ * by {@link NoteblockTuneRegistry}.
+ *
+ * @see CinnamonRegistry
+ * @see BlockCarrier
+ */
+public class CarrierStateRegistry extends AbstractCinnamonRegistry<CarrierState> implements Preloadable {
+    /**
+     * The name of the file where
+     * the preload data is stored
+     */
+    public static final String PRELOAD_FILE = "CarrierStates.json";
+
+    /**
+     * Occupied states by names of the carriers,
+     * including the states reserved by the carriers
+     */
+    private final Map<String, BitSet> occupied = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new carrier states module.
+     */
+    public CarrierStateRegistry() {
+        super(CarrierState.class);
+    }
+
+    /**
+     * Finds and returns the next free
+     * state of a carrier, that can be registered.
+     *
+     * @param key     The key willing to be associated
+     *                with a carrier state
+     * @param carrier Carrier of the state
+     * @return The next free state
+     * @throws IllegalStateException If all the states of the carrier are occupied
+     */
+    public CarrierState getFreeState(NamespacedKey key, BlockCarrier carrier) {
+        CarrierState registered = this.get(key);
+        if (registered != null && registered.carrier().equals(carrier.getName())) return registered;
+        int stateIndex = this.getOccupied(carrier).nextClearBit(0);
+        if (stateIndex >= carrier.getStates()) {
+            throw new IllegalStateException("All %d states of carrier '%s' are occupied, no state is left for %s"
+                    .formatted(carrier.getStates(), carrier.getName(), key));
+        }
+        return new CarrierState(key, carrier.getName(), stateIndex);
+    }
+
+    /**
+     * Gets the amount of carrier states, that
+     * can still be occupied by new custom blocks.
+     *
+     * @param carrier Carrier of the states
+     * @return Amount of free states
+     */
+    public int getRemainingCapacity(BlockCarrier carrier) {
+        return carrier.getStates() - this.getOccupied(carrier).cardinality();
+    }
+
+    /**
+     * Gets occupied states of a carrier.
+     *
+     * @param carrier Carrier of the states
+     * @return Occupied states
+     */
+    private BitSet getOccupied(BlockCarrier carrier) {
+        return this.occupied.computeIfAbsent(carrier.getName(), name -> {
+            BitSet states = new BitSet(carrier.getStates());
+            for (int i = 0; i < carrier.getStates(); i++) {
+                if (carrier.isReserved(i)) states.set(i);
+            }
+            return states;
+        });
+    }
+
+    @Override
+    public void register(NamespacedKey key, CarrierState state) {
+        CarrierState registered = this.map.get(key);
+        if (registered != null && registered.carrier().equals(state.carrier())) {
+            log.severe("[%s] Overriding CarrierState is not allowed: %s".formatted(
+                    this.clazz.getSimpleName(), key));
+            return;
+        }
+        super.register(key, state);
+    }
+
+    @Override
+    protected void put(NamespacedKey key, CarrierState state) {
+        super.put(key, state);
+        BlockCarrier carrier = BlockCarriers.getKnown(state.carrier());
+        if (carrier != null) this.getOccupied(carrier).set(state.stateIndex());
+    }
+
+    @Override
+    public void load(@NotNull CinnamonResources resources) {
+        // The method is empty, as carrier states
+        // cannot be defined in cinnamon resources,
+        // and are registered automatically.
+    }
+
+    /**
+     * Preloads a carrier state.
+     *
+     * @param key   The key of the custom block
+     * @param state The state to be registered
+     */
+    private void preloadState(NamespacedKey key, CarrierState state) {
+        if (this.map.containsKey(key)) return;
+        BlockCarrier carrier = BlockCarriers.getKnown(state.carrier());
+        if (carrier != null && carrier.isReserved(state.stateIndex())) {
+            log.warning("[%s] Occupying reserved state %d of carrier '%s' is not allowed: %s"
+                    .formatted(this.clazz.getSimpleName(), state.stateIndex(), state.carrier(), key));
+            return;
+        }
+        this.put(key, state);
+        log.info("[%s] Preloaded state: %s".formatted(this.clazz.getSimpleName(), key));
+    }
+
+    @Override
+    public void preload(Path folder) throws IOException {
+        Path statesPath = folder.resolve(PRELOAD_FILE);
+        if (!Files.exists(statesPath)) return;
+        try (var reader = Files.newBufferedReader(statesPath)) {
+            Map<NamespacedKey, CarrierState> states = CinnamonGson.GSON.fromJson(reader, new TypeToken<>(){});
+            int wasLoaded = this.map.size();
+            states.forEach(this::preloadState);
+            int loaded = this.map.size() - wasLoaded;
+            log.info("[%s] Preloaded a total of %d CarrierState(s)"
+                    .formatted(this.clazz.getSimpleName(), loaded));
+        }
+    }
+
+    @Override
+    public void savePreload(Path folder) throws IOException {
+        Path statesPath = folder.resolve(PRELOAD_FILE);
+        Files.writeString(statesPath, CinnamonGson.PRETTY_GSON.toJson(this.map));
+    }
+}
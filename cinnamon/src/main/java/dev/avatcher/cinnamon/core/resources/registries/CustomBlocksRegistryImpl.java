@@ -1,35 +1,53 @@
 package dev.avatcher.cinnamon.core.resources.registries;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 import dev.avatcher.cinnamon.api.blocks.CustomBlock;
 import dev.avatcher.cinnamon.api.blocks.CustomBlockBehaviour;
 import dev.avatcher.cinnamon.api.blocks.CustomBlocksRegistry;
 import dev.avatcher.cinnamon.api.blocks.behaviour.LootableBlock;
 import dev.avatcher.cinnamon.api.items.behaviour.CustomBlockPlacingItem;
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.CarriedCustomBlock;
 import dev.avatcher.cinnamon.core.block.NoteblockCustomBlock;
 import dev.avatcher.cinnamon.core.block.NoteblockTune;
 import dev.avatcher.cinnamon.core.block.behaviour.DefaultCustomBlockBehaviour;
+import dev.avatcher.cinnamon.core.block.MushroomNormalizer;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarrier;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarriers;
+import dev.avatcher.cinnamon.core.block.carrier.CarrierState;
+import dev.avatcher.cinnamon.core.block.carrier.NoteblockCarrier;
 import dev.avatcher.cinnamon.core.item.CustomItemImpl;
 import dev.avatcher.cinnamon.core.json.CBlockDeserializer;
 import dev.avatcher.cinnamon.core.resources.CinnamonRegistry;
 import dev.avatcher.cinnamon.core.resources.CinnamonResources;
 import dev.avatcher.cinnamon.core.resources.CustomModelData;
+import dev.avatcher.cinnamon.core.resources.ParallelLoadable;
+import dev.avatcher.cinnamon.core.resources.ResourceCodec;
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
 import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * A Cinnamon Module storing custom blocks
@@ -37,101 +55,299 @@ import java.util.List;
  * @see CinnamonRegistry
  */
 @Getter
-public class CustomBlocksRegistryImpl extends AbstractCinnamonRegistry<CustomBlock> implements CustomBlocksRegistry {
+public class CustomBlocksRegistryImpl extends AbstractCinnamonRegistry<CustomBlock> implements CustomBlocksRegistry,
+        ParallelLoadable<CustomBlocksRegistryImpl.BlockRegistrationRequest> {
     private final NoteblockTuneRegistry noteblockTuneModule;
+    private final CarrierStateRegistry carrierStateModule;
     private final CustomItemsRegistryImpl itemsModule;
     private final CustomModelDataRegistry customModelDataModule;
+    private final BlockCarriers carriers;
+    /**
+     * Custom blocks of every carrier indexed by the
+     * indices of the carrier states they occupy
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<BlockCarrier, CarriedCustomBlock[]> carrierStates = new ConcurrentHashMap<>();
+    /**
+     * Custom blocks indexed by all of their placed block data,
+     * e.g. both unpowered and powered noteblocks. Block data
+     * compares by the underlying interned blockstate, so a placed
+     * block can be resolved without reading its properties.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<BlockData, CarriedCustomBlock> blockStates = new ConcurrentHashMap<>();
 
     /**
      * Creates a new Custom Blocks Module with a
      * dependency on a certain NoteblockTune Module.
      *
      * @param noteblockTuneModule A NoteblockTune Module dependency
-     * @param itemsModule Custom items module
+     * @param carrierStateModule  A CarrierState Module dependency
+     * @param itemsModule         Custom items module
+     * @param carriers            Enabled block carriers
      *
      * @see NoteblockTune
      */
-    public CustomBlocksRegistryImpl(NoteblockTuneRegistry noteblockTuneModule, @NotNull CustomItemsRegistryImpl itemsModule) {
+    public CustomBlocksRegistryImpl(NoteblockTuneRegistry noteblockTuneModule,
+                                    CarrierStateRegistry carrierStateModule,
+                                    @NotNull CustomItemsRegistryImpl itemsModule,
+                                    @NotNull BlockCarriers carriers) {
         super(CustomBlock.class);
         this.noteblockTuneModule = noteblockTuneModule;
+        this.carrierStateModule = carrierStateModule;
         this.itemsModule = itemsModule;
         this.customModelDataModule = itemsModule.getCustomModelDataModule();
-        this.map.put(NoteblockCustomBlock.NOTEBLOCK.getIdentifier(), NoteblockCustomBlock.NOTEBLOCK);
+        this.carriers = carriers;
+        BlockCarriers.getKnown().forEach(carrier ->
+                this.carrierStates.put(carrier, new CarriedCustomBlock[carrier.getStates()]));
+        this.put(NoteblockCustomBlock.NOTEBLOCK.getIdentifier(), NoteblockCustomBlock.NOTEBLOCK);
+        this.indexStates(NoteblockCustomBlock.NOTEBLOCK);
     }
 
     @Override
-    public CustomBlock get(Block block) {
-        return NoteblockCustomBlock.of(block).orElse(null);
+    public @Nullable CarriedCustomBlock get(Block block) {
+        if (!this.isCustom(block)) return null;
+        BlockCarrier carrier = this.carriers.get(block.getType());
+        if (carrier != null && carrier.hasNaturalStates()) {
+            // Natural blocks of chunks, that have not been normalized yet, occupy custom states
+            MushroomNormalizer normalizer = CinnamonPlugin.getInstance().getMushroomNormalizer();
+            if (normalizer == null || !normalizer.isNormalized(block.getChunk())) return null;
+        }
+        return this.blockStates.get(block.getBlockData());
+    }
+
+    /**
+     * Gets a custom block by its placed block data.
+     *
+     * @param blockData Block data of a placed block
+     * @return {@code null}, if no custom block uses the block data
+     */
+    public @Nullable CarriedCustomBlock get(BlockData blockData) {
+        return this.blockStates.get(blockData);
+    }
+
+    /**
+     * Gets a custom block by the index
+     * of the carrier state it occupies.
+     *
+     * @param carrier    Carrier of the block
+     * @param stateIndex Index of the carrier's state
+     * @return {@code null}, if no custom block uses the state
+     *
+     * @see BlockCarrier
+     */
+    public @Nullable CarriedCustomBlock get(@NotNull BlockCarrier carrier, int stateIndex) {
+        CarriedCustomBlock[] states = this.carrierStates.get(carrier);
+        if (states == null || stateIndex < 0 || stateIndex >= states.length) return null;
+        return states[stateIndex];
+    }
+
+    /**
+     * Gets the amount of states of a carrier, that
+     * can still be occupied by new custom blocks.
+     *
+     * @param carrier Carrier of the states
+     * @return Amount of free states
+     */
+    public int getRemainingCapacity(@NotNull BlockCarrier carrier) {
+        return carrier == BlockCarriers.NOTE_BLOCK
+                ? this.noteblockTuneModule.getRemainingCapacity()
+                : this.carrierStateModule.getRemainingCapacity(carrier);
     }
 
     @Override
     public void register(NamespacedKey key, CustomBlock block) {
-        if (block instanceof NoteblockCustomBlock noteblockCustomBlock
-                && !this.noteblockTuneModule.getKeys().contains(key)) {
-            this.noteblockTuneModule.register(key, noteblockCustomBlock.getTune());
+        if (block instanceof CarriedCustomBlock carriedCustomBlock) {
+            if (carriedCustomBlock instanceof NoteblockCustomBlock noteblockCustomBlock) {
+                if (!this.noteblockTuneModule.getKeys().contains(key)) {
+                    this.noteblockTuneModule.register(key, noteblockCustomBlock.getTune());
+                }
+            } else if (!(this.carrierStateModule.get(key) instanceof CarrierState state)
+                    || !state.carrier().equals(carriedCustomBlock.getCarrier().getName())) {
+                this.carrierStateModule.register(key, new CarrierState(key,
+                        carriedCustomBlock.getCarrier().getName(), carriedCustomBlock.getStateIndex()));
+            }
+            if (this.get(key) instanceof CarriedCustomBlock overridden) {
+                this.unindexStates(overridden);
+            }
+            CarriedCustomBlock occupant = this.get(carriedCustomBlock.getCarrier(), carriedCustomBlock.getStateIndex());
+            if (occupant != null && !occupant.getKey().equals(key)) {
+                log.warning("[%s] Custom block %s shares its %s state with %s"
+                        .formatted(this.clazz.getSimpleName(), key,
+                                carriedCustomBlock.getCarrier().getName(), occupant.getKey()));
+            }
+            this.indexStates(carriedCustomBlock);
         }
         super.register(key, block);
     }
 
+    /**
+     * Puts custom block into the lookup tables
+     * of its carrier state and block data.
+     *
+     * @param customBlock Custom block to index
+     */
+    private void indexStates(@NotNull CarriedCustomBlock customBlock) {
+        this.carrierStates.get(customBlock.getCarrier())[customBlock.getStateIndex()] = customBlock;
+        customBlock.getCarrier().getPlacedStates(customBlock.getStateIndex())
+                .forEach(blockData -> this.blockStates.put(blockData, customBlock));
+    }
+
+    /**
+     * Removes custom block from the lookup tables,
+     * unless its state is occupied by another block.
+     *
+     * @param customBlock Custom block to remove
+     */
+    private void unindexStates(@NotNull CarriedCustomBlock customBlock) {
+        CarriedCustomBlock[] states = this.carrierStates.get(customBlock.getCarrier());
+        if (states[customBlock.getStateIndex()] != customBlock) return;
+        states[customBlock.getStateIndex()] = null;
+        this.blockStates.values().remove(customBlock);
+    }
+
     @Override
     public void load(@NotNull CinnamonResources resources) throws IOException {
+        this.loadSequentially(resources);
+    }
+
+    @Override
+    public @NotNull List<Path> listFiles(@NotNull CinnamonResources resources) throws IOException {
         Path blocksFolder = resources.getBlocksFolder();
-        if (!Files.exists(blocksFolder)) return;
+        if (!Files.exists(blocksFolder)) return List.of();
         try (var walker = Files.walk(blocksFolder)) {
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(BlockRegistrationRequest.class,
-                            new CBlockDeserializer(resources.getPlugin()))
-                    .create();
-            int wasLoaded = this.map.size();
-            walker.filter(Files::isRegularFile)
-                    .map(file -> {
-                        try (var in = new InputStreamReader(Files.newInputStream(file))) {
-                            return gson.fromJson(in, BlockRegistrationRequest.class);
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    })
-                    .forEach(request -> {
-                        NoteblockTune noteblockTune = this.noteblockTuneModule.getFreeTone(request.getIdentifier());
-                        NoteblockCustomBlock customBlock = new NoteblockCustomBlock(request.getIdentifier(), request.getModel(), noteblockTune);
-
-                        if (request.getBehaviourClazz() != null
-                                && !CustomBlockBehaviour.class.isAssignableFrom(request.getBehaviourClazz())) {
-                            log.severe("Custom block behaviour '%s' does not implement %s"
-                                    .formatted(request.getBehaviourClazz().getName(), CustomBlockBehaviour.class.getName()));
-                            log.severe("Custom block '%s' will use default block behaviour"
-                                    .formatted(customBlock.getKey()));
-                        } else {
-                            customBlock.setBehaviour(request.getBehaviourClazz());
-                        }
-
-                        this.register(customBlock.getIdentifier(), customBlock);
-                        if (request.isItemRequested()) {
-                            NamespacedKey modelKey = new NamespacedKey(customBlock.getIdentifier().getNamespace(), "block/" + customBlock.getIdentifier().getKey());
-                            CustomBlockPlacingItem behaviour = new CustomBlockPlacingItem(resources.getPlugin(), customBlock);
-                            CustomModelData model = CustomModelData.of(modelKey)
-                                    .orElseGet(() -> customModelDataModule.createAndRegister(modelKey));
-                            CustomItemImpl item = CustomItemImpl.builder()
-                                    .identifier(customBlock.getIdentifier())
-                                    .name(Component.translatable("block." + customBlock.getIdentifier().getNamespace() + "." + customBlock.getIdentifier().getKey())
-                                            .decoration(TextDecoration.ITALIC, false))
-                                    .model(model)
-                                    .behaviour(behaviour)
-                                    .build();
-                            this.itemsModule.register(item.getKey(), item);
-                            if (customBlock.getBehaviour() instanceof DefaultCustomBlockBehaviour) {
-                                customBlock.setBehaviour(new LootableBlock(List.of(item.createItemStack())));
-                            }
-                        }
-                    });
-            int loaded = this.map.size() - wasLoaded;
-            log.info("[%s] Loaded a total of %d block(s)".formatted(this.clazz.getSimpleName(), loaded));
+            return walker.filter(Files::isRegularFile).toList();
         }
     }
 
+    @Override
+    public @NotNull ResourceReader<BlockRegistrationRequest> createReader(@NotNull CinnamonResources resources) {
+        CBlockDeserializer deserializer = new CBlockDeserializer(resources.getPlugin());
+        return file -> {
+            try (var in = new JsonReader(Files.newBufferedReader(file))) {
+                return deserializer.read(in);
+            }
+        };
+    }
+
+    @Override
+    public boolean isComplete(@NotNull BlockRegistrationRequest request) {
+        return !request.isBehaviourMissing();
+    }
+
+    @Override
+    public @NotNull ResourceCodec<BlockRegistrationRequest> getCodec() {
+        return new ResourceCodec<>() {
+            @Override
+            public void write(@NotNull DataOutput out, @NotNull BlockRegistrationRequest request) throws IOException {
+                ResourceCodec.writeKey(out, request.getIdentifier());
+                ResourceCodec.writeKey(out, request.getModel());
+                out.writeUTF(request.getCarrier());
+                ResourceCodec.writeClass(out, request.getBehaviourClazz());
+                out.writeBoolean(request.isItemRequested());
+            }
+
+            @Override
+            public @NotNull BlockRegistrationRequest read(@NotNull DataInput in) throws IOException {
+                return BlockRegistrationRequest.builder()
+                        .identifier(ResourceCodec.readKey(in))
+                        .model(ResourceCodec.readKey(in))
+                        .carrier(in.readUTF())
+                        .behaviourClazz(ResourceCodec.readClass(in))
+                        .itemRequested(in.readBoolean())
+                        .build();
+            }
+        };
+    }
+
+    @Override
+    public void apply(@NotNull CinnamonResources resources, @NotNull List<BlockRegistrationRequest> requests) {
+        int wasLoaded = this.map.size();
+        for (BlockRegistrationRequest request : requests) {
+            BlockCarrier carrier = this.carriers.get(request.getCarrier());
+            if (carrier == null) {
+                log.severe("[%s] Custom block %s uses unknown or disabled carrier '%s'"
+                        .formatted(this.clazz.getSimpleName(), request.getIdentifier(), request.getCarrier()));
+                continue;
+            }
+            CarriedCustomBlock customBlock;
+            try {
+                customBlock = carrier == BlockCarriers.NOTE_BLOCK
+                        ? new NoteblockCustomBlock(request.getIdentifier(), request.getModel(),
+                                this.noteblockTuneModule.getFreeTone(request.getIdentifier()))
+                        : new CarriedCustomBlock(request.getIdentifier(), request.getModel(), carrier,
+                                this.carrierStateModule.getFreeState(request.getIdentifier(), carrier).stateIndex());
+            } catch (IllegalStateException e) {
+                log.severe("[%s] %s".formatted(this.clazz.getSimpleName(), e.getMessage()));
+                continue;
+            }
+
+            if (request.getBehaviourClazz() != null
+                    && !CustomBlockBehaviour.class.isAssignableFrom(request.getBehaviourClazz())) {
+                log.severe("Custom block behaviour '%s' does not implement %s"
+                        .formatted(request.getBehaviourClazz().getName(), CustomBlockBehaviour.class.getName()));
+                log.severe("Custom block '%s' will use default block behaviour"
+                        .formatted(customBlock.getKey()));
+            } else {
+                customBlock.setBehaviour(request.getBehaviourClazz());
+            }
+
+            this.register(customBlock.getIdentifier(), customBlock);
+            if (request.isItemRequested()) {
+                NamespacedKey modelKey = new NamespacedKey(customBlock.getIdentifier().getNamespace(), "block/" + customBlock.getIdentifier().getKey());
+                CustomBlockPlacingItem behaviour = new CustomBlockPlacingItem(resources.getPlugin(), customBlock);
+                CustomModelData model = CustomModelData.of(modelKey)
+                        .orElseGet(() -> customModelDataModule.createAndRegister(modelKey));
+                CustomItemImpl item = CustomItemImpl.builder()
+                        .identifier(customBlock.getIdentifier())
+                        .name(Component.translatable("block." + customBlock.getIdentifier().getNamespace() + "." + customBlock.getIdentifier().getKey())
+                                .decoration(TextDecoration.ITALIC, false))
+                        .model(model)
+                        .behaviour(behaviour)
+                        .build();
+                this.itemsModule.register(item.getKey(), item);
+                if (customBlock.getBehaviour() instanceof DefaultCustomBlockBehaviour) {
+                    customBlock.setBehaviour(new LootableBlock(List.of(item.createItemStack())));
+                }
+            }
+        }
+        int loaded = this.map.size() - wasLoaded;
+        String remaining = this.carriers.getCarriers().stream()
+                .map(carrier -> carrier.getName() + "=" + this.getRemainingCapacity(carrier))
+                .collect(Collectors.joining(", "));
+        log.info("[%s] Loaded a total of %d block(s), free carrier states: %s".formatted(
+                this.clazz.getSimpleName(), loaded, remaining));
+    }
+
+    @Override
+    public @NotNull NamespacedKey getKey(@NotNull BlockRegistrationRequest request) {
+        return request.getIdentifier();
+    }
+
+    /**
+     * Unregisters a custom block along with the item placing it.
+     * The block's carrier state stays reserved, so placed
+     * blocks turn back into it once the block is back.
+     *
+     * @param key Key of the custom block
+     */
+    @Override
+    public void unregister(@NotNull NamespacedKey key) {
+        CustomBlock removed = this.remove(key);
+        if (removed == null) return;
+        if (removed instanceof CarriedCustomBlock carriedCustomBlock) {
+            this.unindexStates(carriedCustomBlock);
+        }
+        if (this.itemsModule.get(key) instanceof CustomItemImpl item
+                && item.getBehaviour() instanceof CustomBlockPlacingItem) {
+            this.itemsModule.unregister(key);
+        }
+        log.info("[%s] Unregistered: %s".formatted(this.clazz.getSimpleName(), key));
+    }
+
     @Override
     public boolean isCustom(Block block) {
-        return NoteblockCustomBlock.isCustom(block);
+        return block != null && this.carriers.isCarrier(block.getType());
     }
 
     @Override
@@ -139,17 +355,39 @@ public class CustomBlocksRegistryImpl extends AbstractCinnamonRegistry<CustomBlo
         return NoteblockCustomBlock.isInteractable(block);
     }
 
+    @Override
+    public CompletableFuture<Integer> placeAll(@NotNull CustomBlock block, @NotNull Collection<Location> locations) {
+        return CinnamonPlugin.getInstance().getBlockPlacer().placeAll(block, locations);
+    }
+
+    @Override
+    public CompletableFuture<Integer> fill(@NotNull CustomBlock block, @NotNull Location from, @NotNull Location to) {
+        return CinnamonPlugin.getInstance().getBlockPlacer().fill(block, from, to);
+    }
+
+    @Override
+    public List<Block> getCustomBlocks(@NotNull Chunk chunk) {
+        return CinnamonPlugin.getInstance().getCustomBlockIndex().getCustomBlocks(chunk);
+    }
+
     /**
      * A request to register a custom block.
      */
     @Builder
     @Getter
+    @EqualsAndHashCode
     public static class BlockRegistrationRequest {
         private NamespacedKey identifier;
         private NamespacedKey model;
+        @Builder.Default
+        private String carrier = NoteblockCarrier.NAME;
         private Class<?> behaviourClazz;
         @Builder.Default
-        @SerializedName("create-item")
         private boolean itemRequested = true;
+        /**
+         * Whether the behaviour class of the block has not been found
+         */
+        @EqualsAndHashCode.Exclude
+        private boolean behaviourMissing;
     }
 }
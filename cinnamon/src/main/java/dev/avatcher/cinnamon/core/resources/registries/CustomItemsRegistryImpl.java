@@ -1,25 +1,50 @@
 package dev.avatcher.cinnamon.core.resources.registries;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 import dev.avatcher.cinnamon.api.items.CustomItem;
 import dev.avatcher.cinnamon.api.items.CustomItemsRegistry;
+import dev.avatcher.cinnamon.api.items.ItemBehaviour;
+import dev.avatcher.cinnamon.core.CinnamonPlugin;
 import dev.avatcher.cinnamon.core.item.CustomItemImpl;
+import dev.avatcher.cinnamon.core.item.exceptions.CustomItemException;
 import dev.avatcher.cinnamon.core.json.CItemDeserializer;
+import dev.avatcher.cinnamon.core.json.CinnamonGson;
 import dev.avatcher.cinnamon.core.resources.CinnamonRegistry;
 import dev.avatcher.cinnamon.core.resources.CinnamonResources;
 import dev.avatcher.cinnamon.core.resources.CustomModelData;
+import dev.avatcher.cinnamon.core.resources.ParallelLoadable;
+import dev.avatcher.cinnamon.core.resources.Preloadable;
+import dev.avatcher.cinnamon.core.resources.ResourceCodec;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
 
 /**
  * A Cinnamon Module storing custom items
@@ -27,8 +52,47 @@ import java.util.List;
  * @see CinnamonRegistry
  */
 @Getter
-public class CustomItemsRegistryImpl extends AbstractCinnamonRegistry<CustomItem> implements CustomItemsRegistry {
+public class CustomItemsRegistryImpl extends AbstractCinnamonRegistry<CustomItem> implements CustomItemsRegistry, Preloadable,
+        ParallelLoadable<CustomItemsRegistryImpl.ItemRegistrationRequest> {
+    /**
+     * The name of the file where
+     * the preload data is stored
+     */
+    public static final String PRELOAD_FILE = "ItemIds.json";
+
     private final CustomModelDataRegistry customModelDataModule;
+    /**
+     * Whether new custom item stacks are tagged
+     * with numeric ids instead of string identifiers
+     */
+    private final boolean numericIds;
+    /**
+     * Materials used by registered custom items,
+     * indexed by {@link Material#ordinal()}
+     */
+    @Getter(AccessLevel.NONE)
+    private final boolean[] customMaterials = new boolean[Material.values().length];
+    /**
+     * Registered custom items by the string form of their
+     * identifiers, as they are stored in item stacks
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, CustomItem> identifiers = new ConcurrentHashMap<>();
+    /**
+     * Numeric ids of custom items, kept across
+     * restarts, so tagged item stacks stay valid
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<NamespacedKey, Integer> numericIdTable = new ConcurrentHashMap<>();
+    /**
+     * Registered custom items indexed by their numeric ids.
+     * Replaced as a whole on growth, so readers on other
+     * threads always see a consistent array.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile CustomItem[] itemsById = new CustomItem[64];
+    @Getter(AccessLevel.NONE)
+    private int lastNumericId;
 
     /**
      * Creates a new Custom Items Module with a
@@ -41,6 +105,7 @@ public class CustomItemsRegistryImpl extends AbstractCinnamonRegistry<CustomItem
     public CustomItemsRegistryImpl(CustomModelDataRegistry customModelDataModule) {
         super(CustomItem.class);
         this.customModelDataModule = customModelDataModule;
+        this.numericIds = CinnamonPlugin.getInstance().getCustomItemsConfig().isNumericIds();
     }
 
     @Override
@@ -49,40 +114,331 @@ public class CustomItemsRegistryImpl extends AbstractCinnamonRegistry<CustomItem
                 && !this.customModelDataModule.getKeys().contains(modeledItem.getModel().identifier())) {
             this.customModelDataModule.register(modeledItem.getModel().identifier(), modeledItem.getModel());
         }
+        this.customMaterials[customItem.getMaterial().ordinal()] = true;
+        this.identifiers.put(key.asString(), customItem);
+        int numericId = this.getNumericId(key);
+        CustomItem[] items = this.itemsById;
+        if (numericId >= items.length) {
+            items = Arrays.copyOf(items, Math.max(numericId + 1, items.length * 2));
+        }
+        items[numericId] = customItem;
+        this.itemsById = items;
         super.register(key, customItem);
     }
 
+    /**
+     * Gets the numeric id of a custom item,
+     * reserving a new one, if it has none.
+     *
+     * @param key Key of the custom item
+     * @return Numeric id of the custom item
+     */
+    public int getNumericId(NamespacedKey key) {
+        Integer numericId = this.numericIdTable.get(key);
+        if (numericId != null) return numericId;
+        synchronized (this.numericIdTable) {
+            return this.numericIdTable.computeIfAbsent(key, k -> ++this.lastNumericId);
+        }
+    }
+
+    /**
+     * Gets a custom item by its numeric id.
+     *
+     * @param numericId Numeric id of the custom item
+     * @return {@code null}, if no registered item has the id
+     */
+    public @Nullable CustomItem get(int numericId) {
+        CustomItem[] items = this.itemsById;
+        if (numericId <= 0 || numericId >= items.length) return null;
+        return items[numericId];
+    }
+
     @Override
     public void load(@NotNull CinnamonResources resources) throws IOException {
+        this.loadSequentially(resources);
+    }
+
+    @Override
+    public @NotNull List<Path> listFiles(@NotNull CinnamonResources resources) throws IOException {
         Path itemsFolder = resources.getItemsFolder();
-        if (!Files.exists(itemsFolder)) return;
+        if (!Files.exists(itemsFolder)) return List.of();
         try (var walker = Files.walk(itemsFolder)) {
-            List<Path> files = walker.filter(Files::isRegularFile).toList();
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(CustomItem.class, new CItemDeserializer(resources.getPlugin()))
-                    .create();
-            int wasLoaded = this.map.size();
-            files.stream()
-                    .map(file -> {
-                        try (var in = new InputStreamReader(Files.newInputStream(file))) {
-                            return gson.fromJson(in, CustomItem.class);
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    })
-                    .forEach(item -> this.register(item.getKey(), item));
-            int loaded = this.map.size() - wasLoaded;
-            log.info("[%s] Loaded a total of %d item(s)".formatted(this.clazz.getSimpleName(), loaded));
+            return walker.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @Override
+    public @NotNull ResourceReader<ItemRegistrationRequest> createReader(@NotNull CinnamonResources resources) {
+        CItemDeserializer deserializer = new CItemDeserializer(resources.getPlugin());
+        return file -> {
+            try (var in = new JsonReader(Files.newBufferedReader(file))) {
+                return deserializer.read(in);
+            }
+        };
+    }
+
+    @Override
+    public @NotNull ResourceCodec<ItemRegistrationRequest> getCodec() {
+        return new ResourceCodec<>() {
+            @Override
+            public void write(@NotNull DataOutput out, @NotNull ItemRegistrationRequest request) throws IOException {
+                ResourceCodec.writeKey(out, request.getIdentifier());
+                ResourceCodec.writeKey(out, request.getModel());
+                out.writeUTF(request.getMaterial().name());
+                out.writeUTF(GsonComponentSerializer.gson().serialize(request.getName()));
+                ResourceCodec.writeClass(out, request.getBehaviourClazz());
+            }
+
+            @Override
+            public @NotNull ItemRegistrationRequest read(@NotNull DataInput in) throws IOException {
+                NamespacedKey identifier = ResourceCodec.readKey(in);
+                NamespacedKey model = ResourceCodec.readKey(in);
+                String materialName = in.readUTF();
+                Material material = Material.getMaterial(materialName);
+                if (material == null) throw new IOException("Cached material is not found: " + materialName);
+                return ItemRegistrationRequest.builder()
+                        .identifier(identifier)
+                        .model(model)
+                        .material(material)
+                        .name(GsonComponentSerializer.gson().deserialize(in.readUTF()))
+                        .behaviourClazz(ResourceCodec.readClass(in))
+                        .build();
+            }
+        };
+    }
+
+    @Override
+    public void apply(@NotNull CinnamonResources resources, @NotNull List<ItemRegistrationRequest> requests) {
+        int wasLoaded = this.map.size();
+        for (ItemRegistrationRequest request : requests) {
+            NamespacedKey modelKey = request.getModel();
+            CustomModelData model = CustomModelData.of(modelKey)
+                    .orElseGet(() -> {
+                        log.warning("Couldn't find model '" + modelKey + "' for item " + request.getIdentifier());
+                        return new CustomModelData(CustomItemImpl.DEFAULT_MATERIAL.getKey(), 0);
+                    });
+            CustomItemImpl item = CustomItemImpl.builder()
+                    .identifier(request.getIdentifier())
+                    .model(model)
+                    .material(request.getMaterial())
+                    .name(request.getName())
+                    .build();
+            Class<?> behaviourClazz = request.getBehaviourClazz();
+            try {
+                if (behaviourClazz != null && !ItemBehaviour.class.isAssignableFrom(behaviourClazz)) {
+                    throw new CustomItemException("Custom item behaviour class '" + behaviourClazz.getName()
+                            + "' does not implement '" + ItemBehaviour.class.getName() + "'");
+                }
+                item.setBehaviour(behaviourClazz == null ? null : behaviourClazz.asSubclass(ItemBehaviour.class));
+            } catch (CustomItemException e) {
+                log.log(Level.SEVERE, e.getMessage(), e);
+                log.severe("Custom item '%s' will use default item behaviour".formatted(item.getKey()));
+                item.setBehaviour((ItemBehaviour) null);
+            }
+            this.register(item.getKey(), item);
+        }
+        int loaded = this.map.size() - wasLoaded;
+        log.info("[%s] Loaded a total of %d item(s)".formatted(this.clazz.getSimpleName(), loaded));
+    }
+
+    @Override
+    public @NotNull NamespacedKey getKey(@NotNull ItemRegistrationRequest request) {
+        return request.getIdentifier();
+    }
+
+    /**
+     * Checks, if the model of an item has changed,
+     * since items hold the model's numeric id.
+     */
+    @Override
+    public boolean dependsOn(@NotNull ItemRegistrationRequest request, @NotNull Set<NamespacedKey> changedKeys) {
+        return changedKeys.contains(request.getModel());
+    }
+
+    /**
+     * Unregisters a custom item. Its numeric id stays
+     * reserved, so item stacks tagged with it are
+     * recognized again once the item is back.
+     *
+     * @param key Key of the custom item
+     */
+    @Override
+    public void unregister(@NotNull NamespacedKey key) {
+        CustomItem removed = this.remove(key);
+        if (removed == null) return;
+        this.identifiers.remove(key.asString());
+        Integer numericId = this.numericIdTable.get(key);
+        CustomItem[] items = this.itemsById;
+        if (numericId != null && numericId < items.length && items[numericId] == removed) {
+            items = items.clone();
+            items[numericId] = null;
+            this.itemsById = items;
         }
+        log.info("[%s] Unregistered: %s".formatted(this.clazz.getSimpleName(), key));
     }
 
     @Override
     public boolean isCustom(ItemStack itemStack) {
-        return CustomItemImpl.isCustom(itemStack);
+        PersistentDataContainer data = this.readCustomData(itemStack);
+        return data != null && (data.has(CustomItemImpl.NUMERIC_ID_KEY) || data.has(CustomItemImpl.IDENTIFIER_KEY));
+    }
+
+    @Override
+    public @Nullable CustomItem get(ItemStack itemStack) {
+        PersistentDataContainer data = this.readCustomData(itemStack);
+        return data == null ? null : this.get(data);
+    }
+
+    /**
+     * Gets a custom item by the persistent data
+     * of its item stack, either by the numeric id
+     * or by the string identifier.
+     *
+     * @param data Persistent data of an item stack
+     * @return {@code null}, if the data has no
+     *         registered custom item's id
+     */
+    private @Nullable CustomItem get(@NotNull PersistentDataContainer data) {
+        Integer numericId = data.get(CustomItemImpl.NUMERIC_ID_KEY, PersistentDataType.INTEGER);
+        if (numericId != null) return this.get(numericId);
+        String identifier = data.get(CustomItemImpl.IDENTIFIER_KEY, PersistentDataType.STRING);
+        return identifier == null ? null : this.identifiers.get(identifier);
+    }
+
+    /**
+     * Reads the persistent data of an item stack assumed to
+     * be custom. Item stacks of materials no custom item uses,
+     * and item stacks without any meta are rejected without
+     * touching the meta, since reading it copies the whole
+     * meta of the stack.
+     *
+     * @param itemStack Item stack assumed to be custom
+     * @return {@code null}, if the item stack is not custom
+     */
+    private @Nullable PersistentDataContainer readCustomData(@Nullable ItemStack itemStack) {
+        if (itemStack == null
+                || !this.customMaterials[itemStack.getType().ordinal()]
+                || !itemStack.hasItemMeta()) return null;
+        ItemMeta meta = itemStack.getItemMeta();
+        if (!meta.hasCustomModelData()) return null;
+        return meta.getPersistentDataContainer();
+    }
+
+    /**
+     * Replaces the string identifier of a custom item
+     * stack with its numeric id, if numeric ids are enabled.
+     *
+     * @param itemStack Item stack to migrate
+     * @return {@code true}, if the item stack has been migrated
+     */
+    public boolean migrate(@Nullable ItemStack itemStack) {
+        if (!this.numericIds) return false;
+        PersistentDataContainer data = this.readCustomData(itemStack);
+        if (data == null || data.has(CustomItemImpl.NUMERIC_ID_KEY)) return false;
+        CustomItem customItem = this.get(data);
+        if (customItem == null) return false;
+        int numericId = this.getNumericId(customItem.getKey());
+        itemStack.editMeta(meta -> {
+            PersistentDataContainer container = meta.getPersistentDataContainer();
+            container.remove(CustomItemImpl.IDENTIFIER_KEY);
+            container.set(CustomItemImpl.NUMERIC_ID_KEY, PersistentDataType.INTEGER, numericId);
+        });
+        return true;
+    }
+
+    /**
+     * Checks, if a custom item stack still has a string
+     * identifier, that has to be replaced with numeric id.
+     *
+     * @param itemStack Item stack to check
+     * @return {@code true}, if the item stack has to be migrated
+     */
+    public boolean needsMigration(@Nullable ItemStack itemStack) {
+        if (!this.numericIds) return false;
+        PersistentDataContainer data = this.readCustomData(itemStack);
+        return data != null && data.has(CustomItemImpl.IDENTIFIER_KEY);
+    }
+
+    /**
+     * Migrates all the custom item stacks of an inventory
+     * at once, so migrated stacks keep stacking together.
+     * Meta of each distinct item is read once, since item
+     * stacks are compared without copying their meta.
+     *
+     * @param inventory Inventory to migrate
+     * @return Amount of migrated item stacks
+     *
+     * @see #migrate(ItemStack)
+     */
+    public int migrate(@NotNull Inventory inventory) {
+        if (!this.numericIds) return 0;
+        ItemStack[] contents = inventory.getContents();
+        // Checked item stacks and their migrated versions, or null, if they are left as they are
+        List<ItemStack> checked = new ArrayList<>();
+        List<ItemStack> results = new ArrayList<>();
+        int migrated = 0;
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack itemStack = contents[slot];
+            if (itemStack == null
+                    || !this.customMaterials[itemStack.getType().ordinal()]
+                    || !itemStack.hasItemMeta()) continue;
+            int known = -1;
+            for (int i = 0; i < checked.size() && known < 0; i++) {
+                if (checked.get(i).isSimilar(itemStack)) known = i;
+            }
+            if (known >= 0) {
+                ItemStack result = results.get(known);
+                if (result == null) continue;
+                itemStack = result.asQuantity(itemStack.getAmount());
+            } else if (!this.needsMigration(itemStack)) {
+                checked.add(itemStack);
+                results.add(null);
+                continue;
+            } else {
+                checked.add(itemStack.clone());
+                boolean changed = this.migrate(itemStack);
+                results.add(changed ? itemStack : null);
+                if (!changed) continue;
+            }
+            inventory.setItem(slot, itemStack);
+            migrated++;
+        }
+        return migrated;
     }
 
     @Override
-    public CustomItem get(ItemStack itemStack) {
-        return CustomItemImpl.of(itemStack).orElse(null);
+    public void preload(Path folder) throws IOException {
+        Path idsPath = folder.resolve(PRELOAD_FILE);
+        if (!Files.exists(idsPath)) return;
+        try (var reader = Files.newBufferedReader(idsPath)) {
+            Map<Integer, NamespacedKey> ids = CinnamonGson.GSON.fromJson(reader, new TypeToken<>() {});
+            ids.forEach((id, key) -> {
+                this.numericIdTable.put(key, id);
+                this.lastNumericId = Math.max(this.lastNumericId, id);
+            });
+            log.info("[%s] Preloaded a total of %d item id(s)".formatted(this.clazz.getSimpleName(), ids.size()));
+        }
+    }
+
+    @Override
+    public void savePreload(Path folder) throws IOException {
+        Path idsPath = folder.resolve(PRELOAD_FILE);
+        Map<Integer, NamespacedKey> ids = this.numericIdTable.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+        Files.writeString(idsPath, CinnamonGson.PRETTY_GSON.toJson(ids));
+    }
+
+    /**
+     * A request to register a custom item.
+     */
+    @Builder
+    @Getter
+    @EqualsAndHashCode
+    public static class ItemRegistrationRequest {
+        private NamespacedKey identifier;
+        private NamespacedKey model;
+        private Material material;
+        private Component name;
+        private Class<?> behaviourClazz;
     }
 }
@@ -1,36 +1,68 @@
 package dev.avatcher.cinnamon.core.resources.registries;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
-import dev.avatcher.cinnamon.core.json.NamespacedKeyAdapter;
+import dev.avatcher.cinnamon.core.json.CinnamonGson;
 import dev.avatcher.cinnamon.core.resources.CinnamonRegistry;
 import dev.avatcher.cinnamon.core.resources.CinnamonResources;
 import dev.avatcher.cinnamon.core.resources.CustomModelData;
+import dev.avatcher.cinnamon.core.resources.ParallelLoadable;
 import dev.avatcher.cinnamon.core.resources.Preloadable;
+import dev.avatcher.cinnamon.core.resources.ResourceCodec;
 import org.bukkit.NamespacedKey;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Map;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * A Cinnamon Module storing CustomModelData
+ * <p>
+ * Numeric ids are derived from identifiers rather than from
+ * the order models are loaded in: the namespace of a model picks
+ * one of {@value #RANGES} ranges of {@value #RANGE_SIZE} ids and
+ * the identifier picks a slot inside of it. Collisions are resolved
+ * by linear probing within the range, so the same set of models
+ * gets the same ids on every server, and allocated ids are persisted
+ * to stay stable, when new colliding models appear later.
  *
  * @see CinnamonRegistry
  */
-public class CustomModelDataRegistry extends AbstractCinnamonRegistry<CustomModelData> implements Preloadable {
+public class CustomModelDataRegistry extends AbstractCinnamonRegistry<CustomModelData> implements Preloadable, ParallelLoadable<NamespacedKey> {
     /**
      * The name of the file where
      * the preload data is stored
      */
-    public static final String PRELOAD_FILE = "CustomModelData.json";
+    public static final String PRELOAD_FILE = "CustomModelData.bin";
 
-    private int lastModelId;
+    /**
+     * The name of the file where the preload
+     * data was stored by older versions
+     */
+    public static final String LEGACY_PRELOAD_FILE = "CustomModelData.json";
+
+    /**
+     * Amount of ids in the range of a namespace
+     */
+    public static final int RANGE_SIZE = 1 << 16;
+
+    /**
+     * Amount of namespace ranges
+     */
+    public static final int RANGES = (CustomModelData.MAX_NUMERIC - CustomModelData.START_NUMERIC) / RANGE_SIZE;
+
+    private static final int MAGIC = 0x434D4454;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Identifiers of the models by their numeric ids
+     */
+    private final Map<Integer, NamespacedKey> numerics = new ConcurrentHashMap<>();
 
     /**
      * Creates a new CustomModelData Module.
@@ -40,7 +72,6 @@ public class CustomModelDataRegistry extends AbstractCinnamonRegistry<CustomMode
      */
     public CustomModelDataRegistry() {
         super(CustomModelData.class);
-        this.lastModelId = CustomModelData.START_NUMERIC;
     }
 
     @Override
@@ -50,56 +81,142 @@ public class CustomModelDataRegistry extends AbstractCinnamonRegistry<CustomMode
                     this.clazz.getSimpleName(), key));
             return;
         }
+        NamespacedKey occupant = this.numerics.get(customModelData.numeric());
+        if (occupant != null) {
+            log.severe("[%s] CustomModelData %d of %s is already used by %s".formatted(
+                    this.clazz.getSimpleName(), customModelData.numeric(), key, occupant));
+            return;
+        }
         super.register(key, customModelData);
     }
 
+    @Override
+    protected void put(NamespacedKey key, CustomModelData customModelData) {
+        super.put(key, customModelData);
+        this.numerics.put(customModelData.numeric(), key);
+    }
+
     /**
      * Creates and registers a Custom Model Data with
-     * a given name, automatically reserving the next
-     * free numeric id.
+     * a given name, automatically reserving a free
+     * numeric id derived from the name.
      *
      * @param key The name of the model
      * @return Created and registered Custom Model Data
+     * @throws IllegalStateException If the range of the key's namespace is full
      */
     public CustomModelData createAndRegister(NamespacedKey key) {
-        CustomModelData customModelData = new CustomModelData(key, ++this.lastModelId);
+        CustomModelData customModelData = new CustomModelData(key, this.allocate(key));
         this.register(key, customModelData);
         return customModelData;
     }
 
     /**
-     * Registers a CustomModelData, but does not show an error,
-     * when tried to override an existing CustomModelData.
+     * Finds a free numeric id for a model, starting at
+     * the slot its identifier hashes to and probing the
+     * following slots of its namespace range.
+     *
+     * @param key The name of the model
+     * @return Free numeric id
+     * @throws IllegalStateException If the range of the key's namespace is full
+     */
+    private int allocate(NamespacedKey key) {
+        int rangeStart = CustomModelData.START_NUMERIC + Math.floorMod(hash(key.getNamespace()), RANGES) * RANGE_SIZE;
+        int slot = Math.floorMod(hash(key.asString()), RANGE_SIZE);
+        for (int probe = 0; probe < RANGE_SIZE; probe++) {
+            int numeric = rangeStart + (slot + probe) % RANGE_SIZE;
+            if (!this.numerics.containsKey(numeric)) return numeric;
+        }
+        throw new IllegalStateException("All %d CustomModelData of namespace '%s' are occupied, no id is left for %s"
+                .formatted(RANGE_SIZE, key.getNamespace(), key));
+    }
+
+    /**
+     * Hashes a string with 32-bit FNV-1a, which unlike
+     * {@link String#hashCode()} spreads similar names apart.
+     *
+     * @param value String to hash
+     * @return Hash of the string
+     */
+    private static int hash(String value) {
+        int hash = 0x811C9DC5;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * Registers a CustomModelData with a free numeric id,
+     * but does not show an error, when tried to override
+     * an existing CustomModelData.
      *
      * @param key Key of the CustomModelData
-     * @param customModelData CustomModelData to be registered
      */
-    private void softRegister(NamespacedKey key, CustomModelData customModelData) {
+    private void softRegister(NamespacedKey key) {
         if (this.map.containsKey(key)) return;
-        super.register(key, customModelData);
+        try {
+            super.register(key, new CustomModelData(key, this.allocate(key)));
+        } catch (IllegalStateException e) {
+            log.severe("[%s] %s".formatted(this.clazz.getSimpleName(), e.getMessage()));
+        }
     }
 
     @Override
     public void load(@NotNull CinnamonResources resources) throws IOException {
+        this.loadSequentially(resources);
+    }
+
+    @Override
+    public @NotNull List<Path> listFiles(@NotNull CinnamonResources resources) throws IOException {
+        Path itemModelsFolder = resources.getCustomModelsFolder().resolve("item/");
+        if (!Files.exists(itemModelsFolder)) return List.of();
+        try (var walker = Files.walk(itemModelsFolder)) {
+            return walker.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @Override
+    public @NotNull ResourceReader<NamespacedKey> createReader(@NotNull CinnamonResources resources) {
         Path modelsFolder = resources.getCustomModelsFolder();
-        if (Files.exists(modelsFolder)) {
-            try (var walker = Files.walk(modelsFolder.resolve("item/"))) {
-                int wasLoaded = this.map.size();
-                walker.filter(Files::isRegularFile)
-                        .map(f -> {
-                            String fName = modelsFolder.relativize(f).toString();
-                            return fName.substring(0, fName.indexOf(".json"));
-                        })
-                        .map(name -> new NamespacedKey(resources.getPlugin(), name))
-                        .map(modelName -> new CustomModelData(modelName, ++this.lastModelId))
-                        .forEach(model -> this.softRegister(model.identifier(), model));
-                int loaded = this.map.size() - wasLoaded;
-                if (wasLoaded > 0) {
-                    log.info("[%s] Loaded a total of %d custom model data"
-                            .formatted(this.clazz.getSimpleName(), loaded));
-                }
+        return file -> {
+            String fName = modelsFolder.relativize(file).toString();
+            return new NamespacedKey(resources.getPlugin(), fName.substring(0, fName.indexOf(".json")));
+        };
+    }
+
+    @Override
+    public @NotNull ResourceCodec<NamespacedKey> getCodec() {
+        return new ResourceCodec<>() {
+            @Override
+            public void write(@NotNull DataOutput out, @NotNull NamespacedKey modelName) throws IOException {
+                ResourceCodec.writeKey(out, modelName);
             }
-        }
+
+            @Override
+            public @NotNull NamespacedKey read(@NotNull DataInput in) throws IOException {
+                return ResourceCodec.readKey(in);
+            }
+        };
+    }
+
+    @Override
+    public @NotNull NamespacedKey getKey(@NotNull NamespacedKey modelName) {
+        return modelName;
+    }
+
+    @Override
+    public void apply(@NotNull CinnamonResources resources, @NotNull List<NamespacedKey> modelNames) {
+        int wasLoaded = this.map.size();
+        // Probing depends on the order of colliding models,
+        // so they are allocated in the order of their names
+        modelNames.stream()
+                .sorted(Comparator.comparing(NamespacedKey::asString))
+                .forEach(this::softRegister);
+        int loaded = this.map.size() - wasLoaded;
+        log.info("[%s] Loaded a total of %d custom model data"
+                .formatted(this.clazz.getSimpleName(), loaded));
     }
 
     /**
@@ -108,42 +225,103 @@ public class CustomModelDataRegistry extends AbstractCinnamonRegistry<CustomMode
      * @param model CustomModelData to preload
      */
     public void preloadModel(CustomModelData model) {
-        this.map.put(model.identifier(), model);
+        NamespacedKey occupant = this.numerics.get(model.numeric());
+        if (occupant != null && !occupant.equals(model.identifier())) {
+            log.warning("[%s] Skipped preloaded model %s, its CustomModelData %d is used by %s".formatted(
+                    this.clazz.getSimpleName(), model.identifier(), model.numeric(), occupant));
+            return;
+        }
+        this.put(model.identifier(), model);
         log.info("[%s] Preloaded model: %s".formatted(this.clazz.getSimpleName(), model.identifier()));
     }
 
     @Override
     public void preload(Path folder) throws IOException {
         Path modelsPath = folder.resolve(PRELOAD_FILE);
-        if (!Files.exists(modelsPath)) return;
-        try (var modelsReader = new InputStreamReader(Files.newInputStream(modelsPath))) {
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(NamespacedKey.class, new NamespacedKeyAdapter())
-                    .create();
-            Map<Integer, NamespacedKey> itemModels = gson.fromJson(modelsReader, new TypeToken<>() {});
-            for (var entry : itemModels.entrySet()) {
-                var model = new CustomModelData(entry.getValue(), entry.getKey());
-                this.preloadModel(model);
+        List<CustomModelData> models;
+        if (Files.exists(modelsPath)) {
+            models = readTable(modelsPath);
+        } else if (Files.exists(folder.resolve(LEGACY_PRELOAD_FILE))) {
+            models = readLegacyTable(folder.resolve(LEGACY_PRELOAD_FILE));
+        } else {
+            return;
+        }
+        models.forEach(this::preloadModel);
+        log.info("[%s] Preloaded a total of %d models".formatted(this.clazz.getSimpleName(), models.size()));
+    }
+
+    /**
+     * Reads a binary table of models.
+     *
+     * @param file File with the table
+     * @return Models of the table
+     * @see #savePreload(Path)
+     */
+    private List<CustomModelData> readTable(Path file) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown format of CustomModelData table " + file);
             }
-            log.info("[%s] Preloaded a total of %d models".formatted(this.clazz.getSimpleName(), itemModels.size()));
-            int biggestId = itemModels.keySet().stream()
-                    .max(Integer::compareTo)
-                    .orElse(0);
-            if (biggestId > this.lastModelId) {
-                this.lastModelId = biggestId;
+            List<CustomModelData> models = new ArrayList<>();
+            int namespaces = in.readInt();
+            for (int i = 0; i < namespaces; i++) {
+                String namespace = in.readUTF();
+                int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    int numeric = in.readInt();
+                    models.add(new CustomModelData(new NamespacedKey(namespace, in.readUTF()), numeric));
+                }
             }
+            return models;
+        }
+    }
+
+    /**
+     * Reads a JSON table of models
+     * saved by older versions.
+     *
+     * @param file File with the table
+     * @return Models of the table
+     */
+    private List<CustomModelData> readLegacyTable(Path file) throws IOException {
+        try (var modelsReader = Files.newBufferedReader(file)) {
+            Map<Integer, NamespacedKey> itemModels = CinnamonGson.GSON.fromJson(modelsReader, new TypeToken<>() {});
+            return itemModels.entrySet().stream()
+                    .map(entry -> new CustomModelData(entry.getValue(), entry.getKey()))
+                    .toList();
         }
     }
 
+    /**
+     * Saves models as a binary table grouped by
+     * namespaces and sorted by numeric ids, so the
+     * same models always produce the same file.
+     *
+     * @param folder Path to the folder where
+     *               the data is stored
+     */
     @Override
     public void savePreload(Path folder) throws IOException {
         Path modelsPath = folder.resolve(PRELOAD_FILE);
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(NamespacedKey.class, new NamespacedKeyAdapter())
-                .setPrettyPrinting()
-                .create();
-        Map<Integer, NamespacedKey> models = this.map.values().stream()
-                .collect(Collectors.toMap(CustomModelData::numeric, CustomModelData::identifier));
-        Files.writeString(modelsPath, gson.toJson(models));
+        Map<String, List<CustomModelData>> namespaces = this.map.values().stream()
+                .sorted(Comparator.comparingInt(CustomModelData::numeric))
+                .collect(Collectors.groupingBy(model -> model.identifier().getNamespace(),
+                        TreeMap::new, Collectors.toList()));
+        Path temp = Files.createTempFile(folder, PRELOAD_FILE, ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(namespaces.size());
+            for (var entry : namespaces.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (CustomModelData model : entry.getValue()) {
+                    out.writeInt(model.numeric());
+                    out.writeUTF(model.identifier().getKey());
+                }
+            }
+        }
+        Files.move(temp, modelsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(folder.resolve(LEGACY_PRELOAD_FILE));
     }
 }
@@ -1,11 +1,9 @@
 package dev.avatcher.cinnamon.core.resources.registries;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import dev.avatcher.cinnamon.core.block.NoteblockCustomBlock;
 import dev.avatcher.cinnamon.core.block.NoteblockTune;
-import dev.avatcher.cinnamon.core.json.NamespacedKeyAdapter;
+import dev.avatcher.cinnamon.core.json.CinnamonGson;
 import dev.avatcher.cinnamon.core.resources.CinnamonRegistry;
 import dev.avatcher.cinnamon.core.resources.CinnamonResources;
 import dev.avatcher.cinnamon.core.resources.Preloadable;
@@ -13,9 +11,9 @@ import org.bukkit.NamespacedKey;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.BitSet;
 import java.util.Map;
 
 /**
@@ -30,11 +28,23 @@ public class NoteblockTuneRegistry extends AbstractCinnamonRegistry<NoteblockTun
      */
     public static final String PRELOAD_FILE = "NoteblockTunes.json";
 
+    /**
+     * Occupied noteblock tunes indexed by {@link NoteblockTune#stateIndex()},
+     * including the default noteblock's tune and preloaded tunes
+     */
+    private final BitSet occupied = new BitSet(NoteblockTune.STATES);
+    /**
+     * Index, before which all the tunes are occupied.
+     * Tunes are never freed, so the cursor only grows.
+     */
+    private int nextFree;
+
     /**
      * Creates a new noteblock tunes module.
      */
     public NoteblockTuneRegistry() {
         super(NoteblockTune.class);
+        this.occupied.set(NoteblockCustomBlock.NOTEBLOCK.getTune().stateIndex());
     }
 
     /**
@@ -44,24 +54,28 @@ public class NoteblockTuneRegistry extends AbstractCinnamonRegistry<NoteblockTun
      * @param key The key willing to be associated
      *            with a noteblock tone
      * @return The next free noteblock tone
+     * @throws IllegalStateException If all the noteblock tunes are occupied
      */
     public NoteblockTune getFreeTone(NamespacedKey key) {
-        if (this.get(key) != null) return this.get(key);
-        byte note = this.getValues().stream()
-                .map(NoteblockTune::note)
-                .max(Byte::compareTo)
-                .orElse((byte) 0);
-        byte instrument = this.getValues().stream()
-                .map(NoteblockTune::instrument)
-                .max(Byte::compareTo)
-                .orElse((byte) 0);
-        if (note + 1 > 24) {
-            note = (byte) 0;
-            instrument = (byte) (instrument + 1);
-        } else {
-            note = (byte) (note + 1);
+        NoteblockTune registered = this.get(key);
+        if (registered != null) return registered;
+        int stateIndex = this.occupied.nextClearBit(this.nextFree);
+        if (stateIndex >= NoteblockTune.STATES) {
+            throw new IllegalStateException("All %d noteblock tunes are occupied, no tune is left for %s"
+                    .formatted(NoteblockTune.STATES, key));
         }
-        return new NoteblockTune(key, note, instrument);
+        this.nextFree = stateIndex;
+        return NoteblockTune.of(key, stateIndex);
+    }
+
+    /**
+     * Gets the amount of noteblock tunes, that
+     * can still be occupied by new custom blocks.
+     *
+     * @return Amount of free noteblock tunes
+     */
+    public int getRemainingCapacity() {
+        return NoteblockTune.STATES - this.occupied.cardinality();
     }
 
     @Override
@@ -74,6 +88,12 @@ public class NoteblockTuneRegistry extends AbstractCinnamonRegistry<NoteblockTun
         super.register(key, tune);
     }
 
+    @Override
+    protected void put(NamespacedKey key, NoteblockTune tune) {
+        super.put(key, tune);
+        this.occupied.set(tune.stateIndex());
+    }
+
     @Override
     public void load(@NotNull CinnamonResources resources) {
         // The method is empty, as noteblock tunes
@@ -94,7 +114,7 @@ public class NoteblockTuneRegistry extends AbstractCinnamonRegistry<NoteblockTun
                     .formatted(this.clazz.getSimpleName(), key));
             return;
         }
-        this.map.put(key, tune);
+        this.put(key, tune);
         log.info("[%s] Preloaded tune: %s"
                 .formatted(this.clazz.getSimpleName(), key));
     }
@@ -103,26 +123,19 @@ public class NoteblockTuneRegistry extends AbstractCinnamonRegistry<NoteblockTun
     public void preload(Path folder) throws IOException {
         Path tunePath = folder.resolve(PRELOAD_FILE);
         if (!Files.exists(tunePath)) return;
-        try (var reader = new InputStreamReader(Files.newInputStream(tunePath))) {
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(NamespacedKey.class, new NamespacedKeyAdapter())
-                    .create();
-            Map<NamespacedKey, NoteblockTune> tunes = gson.fromJson(reader, new TypeToken<>(){});
+        try (var reader = Files.newBufferedReader(tunePath)) {
+            Map<NamespacedKey, NoteblockTune> tunes = CinnamonGson.GSON.fromJson(reader, new TypeToken<>(){});
             int wasLoaded = this.map.size();
             tunes.forEach(this::preloadTune);
             int loaded = this.map.size() - wasLoaded;
-            log.info("[%s] Preloaded a total of %d NoteblockTune(s)"
-                    .formatted(this.clazz.getSimpleName(), loaded));
+            log.info("[%s] Preloaded a total of %d NoteblockTune(s), %d tune(s) remain free"
+                    .formatted(this.clazz.getSimpleName(), loaded, this.getRemainingCapacity()));
         }
     }
 
     @Override
     public void savePreload(Path folder) throws IOException {
         Path tunesPath = folder.resolve(PRELOAD_FILE);
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(NamespacedKey.class, new NamespacedKeyAdapter())
-                .setPrettyPrinting()
-                .create();
-        Files.writeString(tunesPath, gson.toJson(this.map));
+        Files.writeString(tunesPath, CinnamonGson.PRETTY_GSON.toJson(this.map));
     }
 }
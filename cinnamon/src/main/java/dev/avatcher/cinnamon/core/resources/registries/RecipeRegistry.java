@@ -1,31 +1,40 @@
 package dev.avatcher.cinnamon.core.resources.registries;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import dev.avatcher.cinnamon.core.json.ItemStackDeserializer;
+import com.google.gson.stream.JsonReader;
 import dev.avatcher.cinnamon.core.json.RecipeDeserializer;
-import dev.avatcher.cinnamon.core.json.value.Value;
-import dev.avatcher.cinnamon.core.json.value.ValueProvider;
+import dev.avatcher.cinnamon.core.json.recipes.ItemReference;
+import dev.avatcher.cinnamon.core.json.recipes.RecipeDefinition;
 import dev.avatcher.cinnamon.core.recipes.CustomRecipe;
 import dev.avatcher.cinnamon.core.resources.CinnamonRegistry;
 import dev.avatcher.cinnamon.core.resources.CinnamonResources;
+import dev.avatcher.cinnamon.core.resources.ParallelLoadable;
+import dev.avatcher.cinnamon.core.resources.ResourceCodec;
 import org.bukkit.Bukkit;
 import org.bukkit.NamespacedKey;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.Recipe;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
 
 /**
  * A Cinnamon Module storing custom recipes
  *
  * @see CinnamonRegistry
  */
-public class RecipeRegistry extends AbstractCinnamonRegistry<CustomRecipe> {
+public class RecipeRegistry extends AbstractCinnamonRegistry<CustomRecipe>
+        implements ParallelLoadable<RecipeRegistry.RecipeSource> {
+    private static final RecipeDeserializer DESERIALIZER = new RecipeDeserializer();
+
     /**
      * Creates a new custom recipes module.
      */
@@ -35,39 +44,178 @@ public class RecipeRegistry extends AbstractCinnamonRegistry<CustomRecipe> {
 
     @Override
     public void register(NamespacedKey key, CustomRecipe value) {
+        if (this.map.containsKey(key)) Bukkit.removeRecipe(key);
         super.register(key, value);
         Bukkit.addRecipe(value.getRecipe());
     }
 
+    /**
+     * Checks, if a recipe is registered by Cinnamon.
+     *
+     * @param key Key of the recipe
+     * @return {@code true}, if the recipe is a Cinnamon recipe
+     */
+    public boolean isCustomRecipe(NamespacedKey key) {
+        return this.map.containsKey(key);
+    }
+
     @Override
     public void load(@NotNull CinnamonResources resources) throws IOException {
+        this.loadSequentially(resources);
+    }
+
+    @Override
+    public @NotNull List<Path> listFiles(@NotNull CinnamonResources resources) throws IOException {
         Path recipesFolder = resources.getRecipesFolder();
-        if (!Files.exists(recipesFolder)) return;
+        if (!Files.exists(recipesFolder)) return List.of();
         try (var walker = Files.walk(recipesFolder)) {
-            ValueProvider<NamespacedKey> identifierProvider = new ValueProvider<>();
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(Value.class, identifierProvider)
-                    .registerTypeAdapter(ItemStack.class, new ItemStackDeserializer())
-                    .registerTypeAdapter(Recipe.class, new RecipeDeserializer())
-                    .create();
-            int wasLoaded = this.map.size();
-            walker.filter(Files::isRegularFile)
-                    .map(recipePath -> {
-                        String relativeRecipePath = recipesFolder.relativize(recipePath).toString();
-                        String recipeName = relativeRecipePath.substring(0, relativeRecipePath.indexOf(".json"));
-                        NamespacedKey recipeIdentifier = new NamespacedKey(resources.getPlugin(), recipeName);
-                        identifierProvider.setValue(recipeIdentifier);
-                        try {
-                            return new CustomRecipe(
-                                    recipeIdentifier,
-                                    gson.fromJson(Files.readString(recipePath), Recipe.class));
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    })
-                    .forEach(recipe -> this.register(recipe.getKey(), recipe));
-            int loaded = this.map.size() - wasLoaded;
-            log.info("[%s] Loaded a total of %d recipe(s)".formatted(this.clazz.getSimpleName(), loaded));
+            return walker.filter(Files::isRegularFile).toList();
         }
     }
+
+    /**
+     * Reads recipes as definitions only, since creating
+     * their ingredients and results looks up custom items.
+     */
+    @Override
+    public @NotNull ResourceReader<RecipeSource> createReader(@NotNull CinnamonResources resources) {
+        Path recipesFolder = resources.getRecipesFolder();
+        return recipePath -> {
+            String relativeRecipePath = recipesFolder.relativize(recipePath).toString();
+            String recipeName = relativeRecipePath.substring(0, relativeRecipePath.indexOf(".json"));
+            try (var in = new JsonReader(Files.newBufferedReader(recipePath))) {
+                return new RecipeSource(
+                        new NamespacedKey(resources.getPlugin(), recipeName),
+                        DESERIALIZER.read(in));
+            }
+        };
+    }
+
+    @Override
+    public @NotNull ResourceCodec<RecipeSource> getCodec() {
+        return new ResourceCodec<>() {
+            @Override
+            public void write(@NotNull DataOutput out, @NotNull RecipeSource source) throws IOException {
+                RecipeDefinition definition = source.definition();
+                ResourceCodec.writeKey(out, source.key());
+                ResourceCodec.writeNullableString(out, definition.type());
+                ResourceCodec.writeNullableString(out, definition.category());
+                out.writeInt(definition.shape() == null ? -1 : definition.shape().size());
+                if (definition.shape() != null) {
+                    for (String row : definition.shape()) out.writeUTF(row);
+                }
+                out.writeInt(definition.key() == null ? -1 : definition.key().size());
+                if (definition.key() != null) {
+                    for (var entry : definition.key().entrySet()) {
+                        out.writeChar(entry.getKey());
+                        this.writeItem(out, entry.getValue());
+                    }
+                }
+                out.writeInt(definition.ingredients() == null ? -1 : definition.ingredients().size());
+                if (definition.ingredients() != null) {
+                    for (ItemReference ingredient : definition.ingredients()) this.writeItem(out, ingredient);
+                }
+                out.writeBoolean(definition.result() != null);
+                if (definition.result() != null) this.writeItem(out, definition.result());
+            }
+
+            @Override
+            public @NotNull RecipeSource read(@NotNull DataInput in) throws IOException {
+                NamespacedKey key = ResourceCodec.readKey(in);
+                String type = ResourceCodec.readNullableString(in);
+                String category = ResourceCodec.readNullableString(in);
+                List<String> shape = null;
+                int size = in.readInt();
+                if (size >= 0) {
+                    shape = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) shape.add(in.readUTF());
+                }
+                Map<Character, ItemReference> ingredientKeys = null;
+                size = in.readInt();
+                if (size >= 0) {
+                    ingredientKeys = new HashMap<>();
+                    for (int i = 0; i < size; i++) ingredientKeys.put(in.readChar(), this.readItem(in));
+                }
+                List<ItemReference> ingredients = null;
+                size = in.readInt();
+                if (size >= 0) {
+                    ingredients = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) ingredients.add(this.readItem(in));
+                }
+                ItemReference result = in.readBoolean() ? this.readItem(in) : null;
+                return new RecipeSource(key,
+                        new RecipeDefinition(type, category, shape, ingredientKeys, ingredients, result));
+            }
+
+            private void writeItem(DataOutput out, ItemReference item) throws IOException {
+                ResourceCodec.writeKey(out, item.item());
+                out.writeInt(item.amount());
+            }
+
+            private ItemReference readItem(DataInput in) throws IOException {
+                return new ItemReference(ResourceCodec.readKey(in), in.readInt());
+            }
+        };
+    }
+
+    @Override
+    public void apply(@NotNull CinnamonResources resources, @NotNull List<RecipeSource> sources) {
+        int wasLoaded = this.map.size();
+        for (RecipeSource source : sources) {
+            try {
+                Recipe recipe = DESERIALIZER.createRecipe(source.key(), source.definition());
+                if (recipe == null) continue;
+                this.register(source.key(), new CustomRecipe(source.key(), recipe));
+            } catch (RuntimeException e) {
+                log.severe("[%s] Failed to load recipe %s".formatted(this.clazz.getSimpleName(), source.key()));
+                log.log(Level.SEVERE, e.getMessage(), e);
+            }
+        }
+        int loaded = this.map.size() - wasLoaded;
+        log.info("[%s] Loaded a total of %d recipe(s)".formatted(this.clazz.getSimpleName(), loaded));
+    }
+
+    @Override
+    public @NotNull NamespacedKey getKey(@NotNull RecipeSource source) {
+        return source.key();
+    }
+
+    @Override
+    public void unregister(@NotNull NamespacedKey key) {
+        if (this.remove(key) == null) return;
+        Bukkit.removeRecipe(key);
+        log.info("[%s] Unregistered: %s".formatted(this.clazz.getSimpleName(), key));
+    }
+
+    /**
+     * Checks, if a recipe refers to any of the changed
+     * items, since its ingredients and result hold item
+     * stacks created by the items at registration.
+     */
+    @Override
+    public boolean dependsOn(@NotNull RecipeSource source, @NotNull Set<NamespacedKey> changedKeys) {
+        RecipeDefinition definition = source.definition();
+        if (definition.result() != null && changedKeys.contains(definition.result().item())) return true;
+        if (definition.key() != null) {
+            for (ItemReference ingredient : definition.key().values()) {
+                if (changedKeys.contains(ingredient.item())) return true;
+            }
+        }
+        if (definition.ingredients() != null) {
+            for (ItemReference ingredient : definition.ingredients()) {
+                if (changedKeys.contains(ingredient.item())) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A recipe read from Cinnamon resources,
+     * not yet turned into a Bukkit recipe.
+     *
+     * @param key        Key of the recipe
+     * @param definition Read definition of the recipe
+     */
+    public record RecipeSource(NamespacedKey key, RecipeDefinition definition) {
+    }
 }
@@ -0,0 +1,61 @@
+package dev.avatcher.cinnamon.core.resources.resourcepack;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket limiting the rate bytes are
+ * sent at, shared by all the transmissions.
+ * The bucket holds at most one second of tokens,
+ * so a short burst never exceeds the rate much.
+ */
+public class BandwidthLimiter {
+    /**
+     * Allowed rate in bytes per second
+     */
+    private final long bytesPerSecond;
+    /**
+     * Bytes that can be sent right now
+     */
+    private double tokens;
+    /**
+     * Time the tokens were last refilled at
+     */
+    private long refilledAt;
+
+    /**
+     * Creates a new bandwidth limiter.
+     *
+     * @param bytesPerSecond Allowed rate in bytes per second
+     */
+    public BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = bytesPerSecond;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes tokens for bytes about to be sent, waiting,
+     * until enough tokens are refilled, if there are none.
+     *
+     * @param bytes Amount of the bytes
+     */
+    public void acquire(long bytes) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            this.tokens = Math.min(this.bytesPerSecond,
+                    this.tokens + (now - this.refilledAt) * this.bytesPerSecond / (double) TimeUnit.SECONDS.toNanos(1));
+            this.refilledAt = now;
+            this.tokens -= bytes;
+            waitNanos = this.tokens >= 0 ? 0
+                    : (long) (-this.tokens * TimeUnit.SECONDS.toNanos(1) / this.bytesPerSecond);
+        }
+        // Tokens are taken in advance, so later callers wait behind this one
+        long deadline = System.nanoTime() + waitNanos;
+        while ((waitNanos = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(waitNanos);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+}
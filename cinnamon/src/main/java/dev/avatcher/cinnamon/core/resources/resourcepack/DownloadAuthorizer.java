@@ -0,0 +1,175 @@
+package dev.avatcher.cinnamon.core.resources.resourcepack;
+
+import com.sun.net.httpserver.HttpExchange;
+import io.papermc.paper.event.connection.PlayerConnectionCloseEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides, who may download the resourcepack.
+ * <p>
+ * Addresses of logged in players are kept in a concurrent
+ * allowlist filled on login and pruned, when the connection
+ * closes, so requests are checked by a single lookup on any
+ * thread, without touching Bukkit's player list. If a secret is configured,
+ * download links of players are also signed with it, which
+ * lets players download from another address, e.g. behind
+ * a proxy.
+ */
+public class DownloadAuthorizer implements Listener {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * Addresses of logged in players by their ids
+     */
+    private final Map<UUID, InetAddress> players = new ConcurrentHashMap<>();
+    /**
+     * Amount of logged in players by their addresses
+     */
+    private final Map<InetAddress, Integer> addresses = new ConcurrentHashMap<>();
+    /**
+     * Key signing download links, or
+     * {@code null}, if links are not signed
+     */
+    private final SecretKeySpec tokenKey;
+
+    /**
+     * Creates a new download authorizer allowing
+     * all the players, who are already online.
+     *
+     * @param tokenSecret Secret signing download links, or
+     *                    {@code null} to not sign them
+     */
+    public DownloadAuthorizer(@Nullable String tokenSecret) {
+        this.tokenKey = tokenSecret == null || tokenSecret.isEmpty()
+                ? null
+                : new SecretKeySpec(tokenSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            InetSocketAddress address = player.getAddress();
+            if (address != null) this.allow(player.getUniqueId(), address.getAddress());
+        }
+    }
+
+    /**
+     * Allows a player, who has logged in, to download the resourcepack.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(@NotNull PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) return;
+        this.allow(event.getPlayer().getUniqueId(), event.getAddress());
+    }
+
+    /**
+     * Allows a player, who has joined, once again, in case
+     * the closing of a replaced connection of the same
+     * player has been handled after the login.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(@NotNull PlayerJoinEvent event) {
+        InetSocketAddress address = event.getPlayer().getAddress();
+        if (address != null) this.allow(event.getPlayer().getUniqueId(), address.getAddress());
+    }
+
+    /**
+     * Stops allowing a player, whose connection has closed. Unlike
+     * quitting, it also happens to connections, that have been
+     * dropped or kicked between login and join.
+     *
+     * @param event Event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onConnectionClose(@NotNull PlayerConnectionCloseEvent event) {
+        this.disallow(event.getPlayerUniqueId());
+    }
+
+    /**
+     * Checks, if a request for the resourcepack comes
+     * from a local address, an address of a logged in
+     * player, or has a valid token of such a player.
+     *
+     * @param exchange Http exchange
+     * @return {@code true}, if the request is allowed
+     */
+    public boolean canDownload(@NotNull HttpExchange exchange) {
+        InetAddress address = exchange.getRemoteAddress().getAddress();
+        if (address.isLoopbackAddress() || this.addresses.containsKey(address)) return true;
+        if (this.tokenKey == null) return false;
+
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return false;
+        String playerId = null, token = null;
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("player=")) playerId = parameter.substring("player=".length());
+            if (parameter.startsWith("token=")) token = parameter.substring("token=".length());
+        }
+        if (playerId == null || token == null) return false;
+        try {
+            if (!this.players.containsKey(UUID.fromString(playerId))) return false;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(this.sign(playerId).getBytes(StandardCharsets.US_ASCII),
+                token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Gets a download link of a player, signed
+     * with a token, if a secret is configured.
+     *
+     * @param url    Download link of the resourcepack
+     * @param player Player downloading the resourcepack
+     * @return Download link of the player
+     */
+    public String getDownloadLink(@NotNull URL url, @NotNull Player player) {
+        if (this.tokenKey == null) return url.toString();
+        String playerId = player.getUniqueId().toString();
+        String separator = url.getQuery() == null ? "?" : "&";
+        return url + separator + "player=" + playerId + "&token=" + this.sign(playerId);
+    }
+
+    private synchronized void allow(UUID player, InetAddress address) {
+        this.disallow(player);
+        this.players.put(player, address);
+        this.addresses.merge(address, 1, Integer::sum);
+    }
+
+    private synchronized void disallow(UUID player) {
+        InetAddress address = this.players.remove(player);
+        if (address == null) return;
+        this.addresses.computeIfPresent(address, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private String sign(String playerId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(this.tokenKey);
+            return HexFormat.of().formatHex(mac.doFinal(playerId.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package dev.avatcher.cinnamon.core.resources.resourcepack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Content of a resource pack archive's entry
+ */
+@FunctionalInterface
+interface PackEntry {
+    /**
+     * Writes the content into the archive.
+     *
+     * @param out Stream of the entry
+     */
+    void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * Reads the whole content into memory.
+     *
+     * @return Bytes of the content
+     */
+    default byte[] readAllBytes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Creates an entry of content held in memory.
+     *
+     * @param content Bytes of the content
+     * @return New entry
+     */
+    static PackEntry of(byte[] content) {
+        return out -> out.write(content);
+    }
+}
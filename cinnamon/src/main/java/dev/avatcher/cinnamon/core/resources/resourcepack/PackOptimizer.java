@@ -0,0 +1,310 @@
+package dev.avatcher.cinnamon.core.resources.resourcepack;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import dev.avatcher.cinnamon.core.json.CinnamonGson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Optional stage of resource pack building, which
+ * makes the pack smaller before it is archived:
+ * <ol>
+ *     <li>strips models of plugins, that are not
+ *     reachable from any blockstate, item override
+ *     or vanilla model;</li>
+ *     <li>dedupes textures of plugins by their content,
+ *     pointing models at a single copy of each texture;</li>
+ *     <li>minifies JSON files;</li>
+ *     <li>recompresses PNG images losslessly.</li>
+ * </ol>
+ * Files of the {@code minecraft} namespace are never removed,
+ * since they override vanilla ones, and so are files, that
+ * cannot be parsed. If any JSON file cannot be parsed, its
+ * references are unknown, so nothing is stripped or deduped.
+ * Size saved by each stage is logged.
+ */
+public class PackOptimizer {
+    private static final String MINECRAFT = "minecraft";
+    private static final String MODELS = "/models/";
+    private static final String TEXTURES = "/textures/";
+
+    private final Logger log;
+
+    /**
+     * Creates a new resource pack optimizer.
+     *
+     * @param log Logger to report saved size to
+     */
+    public PackOptimizer(Logger log) {
+        this.log = log;
+    }
+
+    /**
+     * Optimizes entries of a resource pack in place.
+     *
+     * @param entries Entries of the pack by their paths
+     */
+    void optimize(SortedMap<String, PackEntry> entries) throws IOException {
+        Map<String, JsonElement> json = new TreeMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        boolean allParsed = true;
+        for (var entry : entries.entrySet()) {
+            String name = entry.getKey();
+            if (!name.endsWith(".json") && !name.endsWith(".mcmeta")) continue;
+            byte[] content = entry.getValue().readAllBytes();
+            sizes.put(name, content.length);
+            try {
+                json.put(name, JsonParser.parseString(new String(content, StandardCharsets.UTF_8)));
+            } catch (JsonParseException e) {
+                log.warning("Resourcepack file '%s' is not a valid JSON, it is left as it is".formatted(name));
+                allParsed = false;
+            }
+        }
+
+        Map<String, Long> saved = new LinkedHashMap<>();
+        // References in files, that cannot be parsed, are unknown
+        saved.put("unused models", allParsed ? this.stripUnusedModels(entries, json, sizes) : 0L);
+        saved.put("duplicate textures", allParsed ? this.dedupeTextures(entries, json) : 0L);
+        saved.put("JSON minification", this.minifyJson(entries, json, sizes));
+        saved.put("PNG recompression", this.recompressPng(entries));
+
+        long total = saved.values().stream().mapToLong(Long::longValue).sum();
+        log.info("Resourcepack optimization saved %d KB: %s".formatted(total / 1024, String.join(", ",
+                saved.entrySet().stream().map(e -> "%s %d KB".formatted(e.getKey(), e.getValue() / 1024)).toList())));
+    }
+
+    /**
+     * Removes models of plugins' namespaces, that are not referenced
+     * by any blockstate or by any model reachable from blockstates
+     * and vanilla models via parents and item overrides.
+     *
+     * @return Saved size in bytes
+     */
+    private long stripUnusedModels(SortedMap<String, PackEntry> entries, Map<String, JsonElement> json,
+                                   Map<String, Integer> sizes) {
+        Deque<String> queue = new ArrayDeque<>();
+        for (var entry : json.entrySet()) {
+            String name = entry.getKey();
+            if (name.contains("/blockstates/")) {
+                collectBlockstateModels(entry.getValue(), queue);
+            } else if (isModel(name) && getNamespace(name).equals(MINECRAFT)) {
+                queue.add(name);
+            }
+        }
+        Set<String> reachable = new HashSet<>();
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (!reachable.add(name)) continue;
+            if (!(json.get(name) instanceof JsonObject model)) continue;
+            if (model.get("parent") instanceof JsonPrimitive parent) {
+                queue.add(toPath(parent.getAsString(), "models", ".json"));
+            }
+            if (model.get("overrides") instanceof JsonArray overrides) {
+                for (JsonElement override : overrides) {
+                    if (override instanceof JsonObject object && object.get("model") instanceof JsonPrimitive overrideModel) {
+                        queue.add(toPath(overrideModel.getAsString(), "models", ".json"));
+                    }
+                }
+            }
+        }
+
+        long saved = 0;
+        for (String name : List.copyOf(json.keySet())) {
+            if (!isModel(name) || getNamespace(name).equals(MINECRAFT) || reachable.contains(name)) continue;
+            entries.remove(name);
+            json.remove(name);
+            saved += sizes.get(name);
+        }
+        return saved;
+    }
+
+    private static void collectBlockstateModels(JsonElement blockstate, Deque<String> queue) {
+        if (!(blockstate instanceof JsonObject object)) return;
+        List<JsonElement> applied = new ArrayList<>();
+        if (object.get("variants") instanceof JsonObject variants) {
+            variants.entrySet().forEach(variant -> applied.add(variant.getValue()));
+        }
+        if (object.get("multipart") instanceof JsonArray multipart) {
+            for (JsonElement part : multipart) {
+                if (part instanceof JsonObject partObject && partObject.has("apply")) applied.add(partObject.get("apply"));
+            }
+        }
+        for (JsonElement apply : applied) {
+            List<JsonElement> models = apply instanceof JsonArray array ? array.asList() : List.of(apply);
+            for (JsonElement model : models) {
+                if (model instanceof JsonObject modelObject && modelObject.get("model") instanceof JsonPrimitive key) {
+                    queue.add(toPath(key.getAsString(), "models", ".json"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes textures of plugins' namespaces with the same
+     * content as another texture, and points models at the
+     * remaining copy. Animated textures and textures named
+     * by any file other than a model are never removed.
+     *
+     * @return Saved size in bytes
+     */
+    private long dedupeTextures(SortedMap<String, PackEntry> entries, Map<String, JsonElement> json) throws IOException {
+        Set<String> foreignReferences = new HashSet<>();
+        for (var entry : json.entrySet()) {
+            if (!isModel(entry.getKey())) collectStrings(entry.getValue(), foreignReferences);
+        }
+
+        Map<String, String> canonical = new HashMap<>();
+        Map<String, String> replacements = new HashMap<>();
+        long saved = 0;
+        for (var entry : List.copyOf(entries.entrySet())) {
+            String name = entry.getKey();
+            if (!name.endsWith(".png") || !name.contains(TEXTURES) || getNamespace(name).equals(MINECRAFT)) continue;
+            if (entries.containsKey(name + ".mcmeta")) continue;
+            String key = toKey(name, TEXTURES, ".png");
+            byte[] content = entry.getValue().readAllBytes();
+            String original = canonical.putIfAbsent(sha256(content), key);
+            if (original == null || foreignReferences.contains(key) || foreignReferences.contains(key + ".png")) continue;
+            replacements.put(key, original);
+            entries.remove(name);
+            saved += content.length;
+        }
+        if (replacements.isEmpty()) return saved;
+
+        for (var entry : json.entrySet()) {
+            if (!isModel(entry.getKey()) || !(entry.getValue() instanceof JsonObject model)) continue;
+            if (!(model.get("textures") instanceof JsonObject textures)) continue;
+            for (var texture : textures.entrySet()) {
+                if (!(texture.getValue() instanceof JsonPrimitive value) || value.getAsString().startsWith("#")) continue;
+                String replacement = replacements.get(normalizeKey(value.getAsString()));
+                if (replacement != null) texture.setValue(new JsonPrimitive(replacement));
+            }
+        }
+        return saved;
+    }
+
+    private static void collectStrings(JsonElement element, Set<String> strings) {
+        if (element instanceof JsonPrimitive primitive && primitive.isString()) {
+            strings.add(normalizeKey(primitive.getAsString()));
+        } else if (element instanceof JsonArray array) {
+            array.forEach(child -> collectStrings(child, strings));
+        } else if (element instanceof JsonObject object) {
+            object.entrySet().forEach(child -> collectStrings(child.getValue(), strings));
+        }
+    }
+
+    /**
+     * Writes all the parsed JSON files without whitespaces.
+     *
+     * @return Saved size in bytes
+     */
+    private long minifyJson(SortedMap<String, PackEntry> entries, Map<String, JsonElement> json,
+                            Map<String, Integer> sizes) {
+        long saved = 0;
+        for (var entry : json.entrySet()) {
+            byte[] minified = CinnamonGson.MINIFYING_GSON.toJson(entry.getValue()).getBytes(StandardCharsets.UTF_8);
+            entries.put(entry.getKey(), PackEntry.of(minified));
+            saved += sizes.get(entry.getKey()) - minified.length;
+        }
+        return saved;
+    }
+
+    /**
+     * Recompresses all the PNG images in parallel.
+     *
+     * @return Saved size in bytes
+     *
+     * @see PngRecompressor
+     */
+    private long recompressPng(SortedMap<String, PackEntry> entries) {
+        List<String> images = entries.keySet().stream()
+                .filter(name -> name.endsWith(".png"))
+                .toList();
+        Map<String, byte[]> recompressed = new HashMap<>();
+        long saved = images.parallelStream()
+                .mapToLong(name -> {
+                    byte[] png;
+                    try {
+                        png = entries.get(name).readAllBytes();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    byte[] result = PngRecompressor.recompress(png);
+                    if (result == png) return 0;
+                    synchronized (recompressed) {
+                        recompressed.put(name, result);
+                    }
+                    return png.length - result.length;
+                })
+                .sum();
+        recompressed.forEach((name, png) -> entries.put(name, PackEntry.of(png)));
+        return saved;
+    }
+
+    private static boolean isModel(String name) {
+        return name.endsWith(".json") && name.contains(MODELS);
+    }
+
+    /**
+     * Gets the namespace of a file inside {@code assets/}.
+     */
+    private static String getNamespace(String name) {
+        int start = name.indexOf('/') + 1;
+        int end = name.indexOf('/', start);
+        return end < 0 ? "" : name.substring(start, end);
+    }
+
+    /**
+     * Converts a resource key, such as {@code ns:item/sword},
+     * into the path of its file inside the pack.
+     */
+    private static String toPath(String key, String folder, String extension) {
+        String normalized = normalizeKey(key);
+        int separator = normalized.indexOf(':');
+        return "assets/" + normalized.substring(0, separator) + "/" + folder + "/"
+                + normalized.substring(separator + 1) + extension;
+    }
+
+    /**
+     * Converts the path of a file inside the pack
+     * into its resource key, such as {@code ns:item/sword}.
+     */
+    private static String toKey(String name, String folder, String extension) {
+        String namespace = getNamespace(name);
+        String path = name.substring(("assets/" + namespace + folder).length(), name.length() - extension.length());
+        return namespace + ":" + path;
+    }
+
+    private static String normalizeKey(String key) {
+        return key.indexOf(':') < 0 ? MINECRAFT + ":" + key : key;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dev.avatcher.cinnamon.core.resources.resourcepack;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Lossless recompression of PNG images.
+ * <p>
+ * Pixels are never decoded: the image data is only inflated
+ * and deflated again with the best compression, and textual
+ * and time chunks, which the game ignores, are dropped. All
+ * the other chunks are kept in their order.
+ */
+public final class PngRecompressor {
+    /**
+     * Signature every PNG file starts with
+     */
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    /**
+     * Chunks, that do not affect the look of an image
+     */
+    private static final Set<String> DROPPED_CHUNKS = Set.of("tEXt", "zTXt", "iTXt", "tIME");
+
+    /**
+     * Deflater strategies tried for the image data
+     */
+    private static final int[] STRATEGIES = { Deflater.DEFAULT_STRATEGY, Deflater.FILTERED };
+
+    private PngRecompressor() {
+    }
+
+    /**
+     * Recompresses a PNG image.
+     *
+     * @param png Bytes of the image
+     * @return Bytes of the recompressed image, or the given
+     *         bytes, if they are not a valid PNG image or
+     *         recompression does not make them smaller
+     */
+    public static byte[] recompress(byte[] png) {
+        if (png.length < SIGNATURE.length || !Arrays.equals(png, 0, SIGNATURE.length, SIGNATURE, 0, SIGNATURE.length)) {
+            return png;
+        }
+        ByteBuffer in = ByteBuffer.wrap(png);
+        in.position(SIGNATURE.length);
+        ByteArrayOutputStream before = new ByteArrayOutputStream();
+        ByteArrayOutputStream imageData = new ByteArrayOutputStream();
+        ByteArrayOutputStream after = new ByteArrayOutputStream();
+        boolean ended = false;
+        while (!ended) {
+            if (in.remaining() < 12) return png;
+            int length = in.getInt();
+            if (length < 0 || in.remaining() < length + 8) return png;
+            byte[] typeBytes = new byte[4];
+            in.get(typeBytes);
+            String type = new String(typeBytes, StandardCharsets.US_ASCII);
+            byte[] data = new byte[length];
+            in.get(data);
+            in.getInt();
+            switch (type) {
+                case "IDAT" -> {
+                    if (after.size() > 0) return png;
+                    imageData.writeBytes(data);
+                }
+                case "IEND" -> ended = true;
+                default -> {
+                    if (DROPPED_CHUNKS.contains(type)) continue;
+                    writeChunk(imageData.size() == 0 ? before : after, typeBytes, data);
+                }
+            }
+        }
+        byte[] raw = inflate(imageData.toByteArray());
+        if (raw == null) return png;
+
+        byte[] best = null;
+        for (int strategy : STRATEGIES) {
+            byte[] deflated = deflate(raw, strategy);
+            if (best == null || deflated.length < best.length) best = deflated;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length);
+        out.writeBytes(SIGNATURE);
+        out.writeBytes(before.toByteArray());
+        writeChunk(out, "IDAT".getBytes(StandardCharsets.US_ASCII), best);
+        out.writeBytes(after.toByteArray());
+        writeChunk(out, "IEND".getBytes(StandardCharsets.US_ASCII), new byte[0]);
+        return out.size() < png.length ? out.toByteArray() : png;
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, byte[] type, byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(data);
+        out.writeBytes(ByteBuffer.allocate(4).putInt(data.length).array());
+        out.writeBytes(type);
+        out.writeBytes(data);
+        out.writeBytes(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) return null;
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] raw, int strategy) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setStrategy(strategy);
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
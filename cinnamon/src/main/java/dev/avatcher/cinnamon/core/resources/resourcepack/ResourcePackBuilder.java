@@ -1,28 +1,54 @@
 package dev.avatcher.cinnamon.core.resources.resourcepack;
 
 import com.google.common.base.Preconditions;
-import dev.avatcher.cinnamon.api.Cinnamon;
 import dev.avatcher.cinnamon.api.items.CustomItem;
 import dev.avatcher.cinnamon.core.CinnamonPlugin;
+import dev.avatcher.cinnamon.core.block.CarriedCustomBlock;
 import dev.avatcher.cinnamon.core.block.NoteblockCustomBlock;
+import dev.avatcher.cinnamon.core.block.carrier.BlockCarrier;
+import dev.avatcher.cinnamon.core.item.CustomItemImpl;
 import dev.avatcher.cinnamon.core.resources.CinnamonResources;
 import dev.avatcher.cinnamon.core.resources.CustomModelData;
+import dev.avatcher.cinnamon.core.resources.ResourcesConfig;
+import dev.avatcher.cinnamon.core.resources.registries.CustomBlocksRegistryImpl;
 import lombok.Getter;
 import org.bukkit.Material;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Comparator;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
- * Builder for Minecraft resource pack,
- * responsible both for creating a structured
- * resourcepack folder and its ZIP file.
+ * Builder for Minecraft resource pack, responsible
+ * both for generating its files and streaming them
+ * with plugins' assets into a ZIP file.
  */
 public class ResourcePackBuilder {
     /**
@@ -38,12 +64,19 @@ public class ResourcePackBuilder {
      */
     private static final String ITEM_MODEL_OVERRIDE_TEMPLATE = readResource("resourcepack/item_model_override.tjson");
 
+    /**
+     * Parts of {@link #ITEM_MODEL_OVERRIDE_TEMPLATE} around its
+     * placeholders: the parent model, the texture and the overrides
+     */
+    private static final String[] ITEM_MODEL_OVERRIDE_PARTS = ITEM_MODEL_OVERRIDE_TEMPLATE.split("%s", -1);
+
     private static final String BLOCK_MODEL_OVERRIDE_TEMPLATE = readResource("resourcepack/block_model_override.tjson");
 
     /**
-     * Path to Cinnamon's data folder with resource pack
+     * Modification time of all the archive's entries,
+     * the earliest one a .zip archive can store
      */
-    private static final String RESOURCE_PACK_FOLDER = "resourcepack/";
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
 
     private static String readResource(String path) {
         try (var in = CinnamonPlugin.class.getClassLoader().getResourceAsStream(path)) {
@@ -56,43 +89,54 @@ public class ResourcePackBuilder {
 
     @Getter
     private final Path outFolder;
-    @Getter
-    private final Path outAssets;
+    /**
+     * Level of the .zip archive's compression, from
+     * {@code 0} to {@code 9}, or {@code -1} for the default
+     */
+    private final int compressionLevel;
+    /**
+     * Optimizer of the pack's files, or
+     * {@code null}, if they are packed as they are
+     */
+    private final PackOptimizer optimizer;
+    /**
+     * Resources, assets of which are packed, by names
+     * of their plugins in the order of registration
+     */
+    private final Map<String, CinnamonResources> assetSources = Collections.synchronizedMap(new LinkedHashMap<>());
+    /**
+     * Files generated by the last build by
+     * their paths inside the resource pack
+     */
+    private volatile Map<String, byte[]> generated = Map.of();
+    private final Logger log;
 
     /**
      * Creates a new resourcepack builder,
      * building a pack at given location.
      *
-     * @param outFolder Folder to build the resourcepack in
+     * @param outFolder Folder with additional files of the resourcepack
+     * @param config    Configuration of the resourcepack
      */
-    public ResourcePackBuilder(Path outFolder) throws IOException {
+    public ResourcePackBuilder(Path outFolder, ResourcesConfig config) throws IOException {
         Preconditions.checkNotNull(outFolder);
         this.outFolder = outFolder;
-        this.outAssets = outFolder.resolve("assets/");
+        this.compressionLevel = config.getPackCompressionLevel();
+        this.log = CinnamonPlugin.getInstance().getLogger();
+        this.optimizer = config.isOptimizePack() ? new PackOptimizer(this.log) : null;
 
         Files.createDirectories(outFolder);
     }
 
     /**
-     * Adds assets from given cinnamon resources
-     * into the resourcepack.
+     * Adds assets from given cinnamon resources into the
+     * resourcepack. The assets are not copied anywhere,
+     * they are read from the resources on every build.
      *
      * @param resources Resources containing assets
      */
-    public void registerAssets(CinnamonResources resources) throws IOException {
-        Path assets = resources.getAssetsFolder();
-        try (var walker = Files.walk(assets)) {
-            walker.filter(Files::isRegularFile).forEach(file -> {
-                String relative = assets.relativize(file).toString();
-                Path fileInResourcePack = outAssets.resolve(relative);
-                try {
-                    Files.createDirectories(fileInResourcePack.resolve(".."));
-                    Files.copy(file, outAssets.resolve(relative));
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
-                }
-            });
-        }
+    public void registerAssets(CinnamonResources resources) {
+        this.assetSources.put(resources.getPlugin().getName(), resources);
     }
 
     /**
@@ -102,126 +146,197 @@ public class ResourcePackBuilder {
     public void build() throws IOException {
         Preconditions.checkNotNull(this.outFolder);
 
-        this.buildItemModelOverrides();
-        this.buildBlockModelOverrides();
+        Map<String, byte[]> generated = new HashMap<>();
+        this.buildItemModelOverrides(generated);
+        this.buildBlockModelOverrides(generated);
         this.buildPackMeta();
+        this.generated = Map.copyOf(generated);
     }
 
     /**
-     * Builds a .zip archive of the resourcepack
-     * and returns it as an array of bytes.
+     * Builds a .zip archive of the resourcepack streaming
+     * generated files, files of {@link #outFolder} and assets
+     * of all the registered resources straight into the archive.
+     * <p>
+     * The archive is written next to the given file and moved
+     * in its place once complete, its SHA-1 hash is computed
+     * while it is written. Entries are sorted and have no
+     * timestamps, so the same content gives the same archive.
+     * If several sources have the same file, the generated
+     * one wins, then the one of {@link #outFolder}, and then
+     * the one of resources registered earlier.
      *
-     * @return Bytes of .zip archive
-     */
-    public byte[] buildZip() throws IOException {
-        Path zipFile = Files.createTempFile("cinnamon", "resourcepack.zip");
-        Files.deleteIfExists(zipFile);
-        try (FileSystem fs = FileSystems.newFileSystem(zipFile, Map.of("create", "true"));
-             var walker = Files.walk(outFolder)) {
-            walker.filter(Files::isRegularFile)
-                    .forEach(file -> {
-                        Path relative = outFolder.relativize(file);
-                        Path inZip = fs.getPath(relative.toString());
-                        try {
-                            Files.createDirectories(inZip.resolve(".."));
-                            Files.copy(file, inZip, StandardCopyOption.REPLACE_EXISTING);
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    });
+     * @param zipFile Path of the archive
+     * @return Built archive
+     */
+    public ResourcepackArchive buildZip(Path zipFile) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        byte[] zipArchive = Files.readAllBytes(zipFile);
-        Files.deleteIfExists(zipFile);
-        return zipArchive;
+        List<CinnamonResources> opened = new ArrayList<>();
+        Path tempFile = Files.createTempFile(zipFile.toAbsolutePath().getParent(), "resourcepack", ".zip.tmp");
+        try {
+            SortedMap<String, PackEntry> entries = new TreeMap<>();
+            this.generated.forEach((name, content) -> entries.put(name, PackEntry.of(content)));
+            this.collectFiles(this.outFolder, entries, "the resourcepack folder", "");
+            List<CinnamonResources> sources;
+            synchronized (this.assetSources) {
+                sources = List.copyOf(this.assetSources.values());
+            }
+            for (CinnamonResources resources : sources) {
+                CinnamonResources reopened = resources.reopen();
+                opened.add(reopened);
+                Path assets = reopened.getAssetsFolder();
+                if (!Files.exists(assets)) continue;
+                this.collectFiles(assets, entries, "plugin '" + resources.getPlugin().getName() + "'", "assets/");
+            }
+            if (this.optimizer != null) {
+                this.optimizer.optimize(entries);
+            }
+
+            try (var out = new ZipOutputStream(new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)), digest))) {
+                out.setLevel(this.compressionLevel);
+                for (var entry : entries.entrySet()) {
+                    ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                    zipEntry.setTimeLocal(ENTRY_TIME);
+                    out.putNextEntry(zipEntry);
+                    entry.getValue().writeTo(out);
+                    out.closeEntry();
+                }
+            }
+            Files.move(tempFile, zipFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+            for (CinnamonResources resources : opened) {
+                resources.close();
+            }
+        }
+        return new ResourcepackArchive(zipFile, digest.digest(), Files.size(zipFile));
     }
 
     /**
-     * Deletes previously generated resourcepack files.
+     * Adds files of a folder to the entries of the archive,
+     * unless the archive already has entries at their paths.
+     *
+     * @param folder  Folder with the files
+     * @param entries Entries of the archive
+     * @param source  Name of the source for conflict warnings
+     * @param prefix  Path of the folder inside the archive
      */
-    public void clear() throws IOException {
-        if (!Files.exists(this.outAssets)) return;
-        Files.walkFileTree(this.outAssets, new SimpleFileVisitor<>(){
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                Files.delete(file);
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                Files.delete(dir);
-                return FileVisitResult.CONTINUE;
+    private void collectFiles(Path folder, Map<String, PackEntry> entries, String source, String prefix) throws IOException {
+        List<Path> files;
+        try (var walker = Files.walk(folder)) {
+            files = walker.filter(Files::isRegularFile).toList();
+        }
+        for (Path file : files) {
+            String name = prefix + folder.relativize(file).toString().replace('\\', '/');
+            if (entries.putIfAbsent(name, out -> Files.copy(file, out)) != null) {
+                log.warning("Skipping resourcepack file '%s' of %s, since it is already provided".formatted(name, source));
             }
-        });
+        }
     }
 
     /**
      * Builds item JSON models for custom items
      * containing their CustomModelData values.
+     * <p>
+     * Models are grouped by materials of the items
+     * using them in a single pass, so each material's
+     * file lists only its own models. Models no item
+     * uses go to the file of the default item material.
+     *
+     * @param generated Generated files by their paths
      *
      * @see CustomModelData
      */
-    private void buildItemModelOverrides() {
-        Cinnamon.getInstance().getCustomItems().stream()
-                .map(CustomItem::getMaterial)
-                .collect(Collectors.toSet())
-                .forEach(material -> {
-                    try {
-                        this.buildItemModelOverrides(material);
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                });
+    private void buildItemModelOverrides(Map<String, byte[]> generated) throws IOException {
+        Map<Material, SortedMap<Integer, CustomModelData>> overrides = new EnumMap<>(Material.class);
+        Set<Integer> used = new HashSet<>();
+        for (CustomItem item : CinnamonPlugin.getInstance().getResourcesManager().getCustomItems()) {
+            if (!(item instanceof CustomItemImpl customItem) || customItem.getModel() == null) continue;
+            CustomModelData model = customItem.getModel();
+            overrides.computeIfAbsent(item.getMaterial(), material -> new TreeMap<>()).put(model.numeric(), model);
+            used.add(model.numeric());
+        }
+        for (CustomModelData model : CinnamonPlugin.getInstance().getResourcesManager().getCustomModelData()) {
+            if (used.contains(model.numeric())) continue;
+            overrides.computeIfAbsent(CustomItemImpl.DEFAULT_MATERIAL, material -> new TreeMap<>())
+                    .put(model.numeric(), model);
+        }
+
+        for (var entry : overrides.entrySet()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                this.writeItemModelOverrides(writer, entry.getKey(), entry.getValue().values());
+            }
+            generated.put("assets/minecraft/models/item/" + entry.getKey().getKey().getKey() + ".json", out.toByteArray());
+        }
     }
 
     /**
-     * Builds item JSON models for a certain item material
-     * containing its CustomModelData values.
+     * Writes item JSON model for a certain item material
+     * containing given CustomModelData values.
+     *
+     * @param writer   Writer of the model file
+     * @param material Material of the items
+     * @param models   Models sorted by their numeric ids
      *
      * @see CustomModelData
      */
-    private void buildItemModelOverrides(Material material) throws IOException {
-        Path modelOverridesPath = this.outAssets
-                .resolve("minecraft/models/item/")
-                .resolve(material.getKey().getKey() + ".json");
-        Files.createDirectories(modelOverridesPath.resolve(".."));
-
-        String modelOverridesValues = CinnamonPlugin.getInstance().getResourcesManager().getCustomModelData()
-                .stream()
-                .sorted(Comparator.comparingInt(CustomModelData::numeric))
-                .map(model -> "    { \"predicate\": { \"custom_model_data\": %d }, \"model\": \"%s\" }"
-                        .formatted(model.numeric(), model.identifier()))
-                .collect(Collectors.joining(",\n"));
-        String modelOverrides = ITEM_MODEL_OVERRIDE_TEMPLATE
-                .formatted(
-                        CustomModelData.HANDHELD_ITEMS.contains(material)
-                                ? "minecraft:item/handheld"
-                                : "minecraft:item/generated",
-                        material.getKey().getNamespace() + ":item/" + material.getKey().getKey(),
-                        modelOverridesValues);
-        Files.writeString(modelOverridesPath, modelOverrides);
+    private void writeItemModelOverrides(Writer writer, Material material, Collection<CustomModelData> models) throws IOException {
+        writer.write(ITEM_MODEL_OVERRIDE_PARTS[0]);
+        writer.write(CustomModelData.HANDHELD_ITEMS.contains(material)
+                ? "minecraft:item/handheld"
+                : "minecraft:item/generated");
+        writer.write(ITEM_MODEL_OVERRIDE_PARTS[1]);
+        writer.write(material.getKey().getNamespace() + ":item/" + material.getKey().getKey());
+        writer.write(ITEM_MODEL_OVERRIDE_PARTS[2]);
+        boolean first = true;
+        for (CustomModelData model : models) {
+            if (!first) writer.write(",\n");
+            first = false;
+            writer.write("    { \"predicate\": { \"custom_model_data\": ");
+            writer.write(Integer.toString(model.numeric()));
+            writer.write(" }, \"model\": \"");
+            writer.write(model.identifier().asString());
+            writer.write("\" }");
+        }
+        writer.write(ITEM_MODEL_OVERRIDE_PARTS[3]);
     }
 
     /**
-     * Builds blocks JSON models overriding their
-     * models depending on their blockstate.
-     */
-    private void buildBlockModelOverrides() throws IOException {
-        Path modelOverridesPath = this.outAssets.resolve("minecraft/blockstates/note_block.json");
-        Files.createDirectories(modelOverridesPath.resolve(".."));
-
-        String modelOverridesValues = Cinnamon.getInstance().getCustomBlocks().stream()
-                .filter(customBlock -> customBlock instanceof NoteblockCustomBlock)
-                .map(customBlock -> (NoteblockCustomBlock) customBlock)
-                .filter(b -> b != NoteblockCustomBlock.NOTEBLOCK)
-                .map(block -> "    \"note=%d,instrument=%s\": { \"model\": \"%s\" }"
-                        .formatted(block.getTune().note(),
-                                block.getTune().getInstrumentMcString(),
-                                block.getModel().asString())
-                )
-                .collect(Collectors.joining(",\n"));
-        String modelOverrides = BLOCK_MODEL_OVERRIDE_TEMPLATE.formatted(modelOverridesValues);
-        Files.writeString(modelOverridesPath, modelOverrides);
+     * Builds blockstate files of all the enabled block
+     * carriers, overriding models of their blockstates
+     * occupied by custom blocks.
+     *
+     * @param generated Generated files by their paths
+     *
+     * @see BlockCarrier
+     */
+    private void buildBlockModelOverrides(Map<String, byte[]> generated) {
+        CustomBlocksRegistryImpl customBlocks = CinnamonPlugin.getInstance().getResourcesManager().getCustomBlocks();
+
+        for (BlockCarrier carrier : CinnamonPlugin.getInstance().getBlockCarriers().getCarriers()) {
+            Map<Material, List<String>> variants = new EnumMap<>(Material.class);
+            for (int stateIndex = 0; stateIndex < carrier.getStates(); stateIndex++) {
+                Material material = carrier.getMaterial(stateIndex);
+                CarriedCustomBlock block = customBlocks.get(carrier, stateIndex);
+                String model = block == null || block == NoteblockCustomBlock.NOTEBLOCK
+                        ? carrier.getVanillaModel(material)
+                        : block.getModel().asString();
+                variants.computeIfAbsent(material, m -> new ArrayList<>())
+                        .add("    \"%s\": { \"model\": \"%s\" }".formatted(carrier.getVariant(stateIndex), model));
+            }
+            for (Map.Entry<Material, List<String>> entry : variants.entrySet()) {
+                String modelOverrides = BLOCK_MODEL_OVERRIDE_TEMPLATE.formatted(String.join(",\n", entry.getValue()));
+                generated.put("assets/minecraft/blockstates/" + entry.getKey().getKey().getKey() + ".json",
+                        modelOverrides.getBytes(StandardCharsets.UTF_8));
+            }
+        }
     }
 
     /**
@@ -0,0 +1,15 @@
+package dev.avatcher.cinnamon.core.resources.resourcepack;
+
+import java.nio.file.Path;
+
+/**
+ * A built .zip archive of the resourcepack
+ *
+ * @param file Path of the archive
+ * @param sha1 SHA-1 hash of the archive
+ * @param size Size of the archive in bytes
+ *
+ * @see ResourcePackBuilder#buildZip(Path)
+ */
+public record ResourcepackArchive(Path file, byte[] sha1, long size) {
+}
@@ -27,6 +27,30 @@ public final class ResourcepackServerConfig implements ConfigurationSerializable
     private final int port;
     private final URL url;
     private final Component message;
+    /**
+     * Threads handling requests: {@code virtual} for a virtual thread
+     * per request where available, or {@code pool} for a fixed pool
+     */
+    private final String executor;
+    /**
+     * Size of the pool of threads handling requests
+     */
+    private final int threads;
+    /**
+     * Amount of downloads a single address may run at once,
+     * {@code 0} for no limit. Further downloads wait for a slot
+     */
+    private final int maxConnectionsPerAddress;
+    /**
+     * Total rate of all the downloads in kilobytes
+     * per second, {@code 0} for no limit
+     */
+    private final int bandwidthLimit;
+    /**
+     * Secret signing players' download links, so they
+     * may download from any address, empty to not sign them
+     */
+    private final String downloadTokenSecret;
 
     /**
      * Builds config from given map
@@ -44,6 +68,11 @@ public final class ResourcepackServerConfig implements ConfigurationSerializable
             throw new RuntimeException(e);
         }
         this.message = JSONComponentSerializer.json().deserialize((String) state.get("message"));
+        this.executor = (String) state.get("executor");
+        this.threads = (int) state.get("threads");
+        this.maxConnectionsPerAddress = (int) state.get("max-connections-per-address");
+        this.bandwidthLimit = (int) state.get("bandwidth-limit");
+        this.downloadTokenSecret = (String) state.get("download-token-secret");
     }
 
     public ResourcepackServerConfig(ConfigurationSection config) {
@@ -58,6 +87,11 @@ public final class ResourcepackServerConfig implements ConfigurationSerializable
         }
         String messageJson = config.getString("message", "{\"text\": \"Please install our resourcepack.\\nIt is required for a better server experience.\", \"color\": \"yellow\"}");
         this.message = JSONComponentSerializer.json().deserialize(messageJson);
+        this.executor = config.getString("executor", "virtual");
+        this.threads = Math.max(1, config.getInt("threads", 16));
+        this.maxConnectionsPerAddress = Math.max(0, config.getInt("max-connections-per-address", 0));
+        this.bandwidthLimit = Math.max(0, config.getInt("bandwidth-limit", 0));
+        this.downloadTokenSecret = config.getString("download-token-secret", "");
     }
 
     @Override
@@ -67,7 +101,12 @@ public final class ResourcepackServerConfig implements ConfigurationSerializable
                 "force-on-join", this.forceOnJoin,
                 "port", this.port,
                 "url", this.url.toString(),
-                "message", JSONComponentSerializer.json().serialize(this.message)
+                "message", JSONComponentSerializer.json().serialize(this.message),
+                "executor", this.executor,
+                "threads", this.threads,
+                "max-connections-per-address", this.maxConnectionsPerAddress,
+                "bandwidth-limit", this.bandwidthLimit,
+                "download-token-secret", this.downloadTokenSecret
         );
     }
 }
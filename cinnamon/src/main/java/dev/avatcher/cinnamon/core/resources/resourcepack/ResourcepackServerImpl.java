@@ -12,7 +12,6 @@ import lombok.Setter;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -21,36 +20,104 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.URL;
-import java.net.UnknownHostException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
-import java.util.Formatter;
-import java.util.Objects;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
  * Http server responsible for transmitting Cinnamon
  * resourcepack to players
+ * <p>
+ * The resourcepack is tagged with its SHA1 hash, so
+ * clients revalidate it with {@code If-None-Match}, and
+ * interrupted downloads are resumed with {@code Range}.
+ * Requests are handled by virtual threads or a pool,
+ * limited by the total bandwidth and, optionally, per
+ * client address, waiting for a slot over that limit.
  */
 public class ResourcepackServerImpl implements ResourcepackServer, HttpHandler, Listener {
+    /**
+     * Result of {@link #parseRange(String, long)}
+     * for ranges outside the resourcepack
+     */
+    private static final long[] UNSATISFIABLE = new long[0];
+    /**
+     * Amount of bytes transferred between
+     * checks of the bandwidth limit
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+    /**
+     * Amount of incoming connections waiting to be accepted,
+     * enough for everyone to rejoin after a restart
+     */
+    private static final int BACKLOG = 256;
+    /**
+     * Time a request waits for a slot of its address, before it
+     * is rejected, long enough for other downloads to finish
+     */
+    private static final long SLOT_TIMEOUT_SECONDS = 30;
+
     private final Logger log;
     private final ExecutorService executor;
     private final HttpServer server;
+    /**
+     * Limit of the total rate of downloads,
+     * or {@code null}, if it is unlimited
+     */
+    private final BandwidthLimiter bandwidthLimiter;
+    /**
+     * Amount of downloads a single address may run at once,
+     * or {@code 0}, if it is unlimited
+     */
+    private final int maxConnectionsPerAddress;
+    /**
+     * Decides, who may download the resourcepack
+     */
+    @Getter
+    private final DownloadAuthorizer authorizer;
+    /**
+     * Amount of requests being handled by client addresses,
+     * guarded by {@link #connectionsLock}
+     */
+    private final Map<InetAddress, Integer> connections = new HashMap<>();
+    private final Lock connectionsLock = new ReentrantLock();
+    private final Condition connectionClosed = this.connectionsLock.newCondition();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
     @Getter
     private final URL url;
 
     @Getter
     private boolean active;
-    @Getter
-    private byte[] resourcepackBytes;
-    @Getter
-    private byte[] resourcepackSHA1;
+    /**
+     * The transmitted resourcepack, replaced as a whole,
+     * so requests never mix content and hash of different packs.
+     * Its content is never loaded on the heap, it is transferred
+     * straight from the built archive.
+     */
+    private volatile TransmittedPack pack;
     @Getter
     @Setter
     private Component message;
@@ -58,44 +125,290 @@ public class ResourcepackServerImpl implements ResourcepackServer, HttpHandler,
     /**
      * Creates a {@link ResourcepackServerImpl}.
      *
-     * @param port The port of the http server
-     * @param url URL link to download the resourcepack
-     * @param message Message for when player is suggested to install resourcepack
+     * @param config Configuration of the server
      */
-    public ResourcepackServerImpl(int port, @Nullable URL url, Component message) throws IOException {
+    public ResourcepackServerImpl(@NotNull ResourcepackServerConfig config) throws IOException {
         this.log = CinnamonPlugin.getInstance().getLogger();
 
-        this.url = url == null
-                ? new URL("http://localhost:%s".formatted(port))
-                : url;
-        this.executor = Executors.newFixedThreadPool(3);
-        this.server = HttpServer.create(new InetSocketAddress(port), 0);
-        this.server.setExecutor(this.executor);
+        this.url = config.getUrl() == null
+                ? new URL("http://localhost:%s".formatted(config.getPort()))
+                : config.getUrl();
+        this.executor = this.createExecutor(config);
+        this.bandwidthLimiter = config.getBandwidthLimit() > 0
+                ? new BandwidthLimiter(config.getBandwidthLimit() * 1024L)
+                : null;
+        this.maxConnectionsPerAddress = config.getMaxConnectionsPerAddress();
+        this.authorizer = new DownloadAuthorizer(config.getDownloadTokenSecret());
+        this.server = HttpServer.create(new InetSocketAddress(config.getPort()), BACKLOG);
+        this.server.setExecutor(this::execute);
         this.server.createContext("/", this);
 
-        this.setResourcepackBytes(resourcepackBytes);
-        this.message = message;
+        this.message = config.getMessage();
+    }
+
+    /**
+     * Creates the executor handling requests: a virtual
+     * thread per request, if it is configured and the
+     * runtime supports it, or a fixed pool of threads.
+     *
+     * @param config Configuration of the server
+     * @return New executor
+     */
+    private ExecutorService createExecutor(ResourcepackServerConfig config) {
+        if (config.getExecutor().equalsIgnoreCase("virtual")) {
+            try {
+                // Virtual threads are available since Java 21
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.info("Virtual threads are not available, handling resourcepack requests with %d threads"
+                        .formatted(config.getThreads()));
+            }
+        }
+        return Executors.newFixedThreadPool(config.getThreads());
+    }
+
+    /**
+     * Runs a request's handling on {@link #executor},
+     * counting requests waiting for a thread.
+     *
+     * @param task Handling of the request
+     */
+    private void execute(Runnable task) {
+        int waiting = this.queued.incrementAndGet();
+        this.peakQueued.accumulateAndGet(waiting, Math::max);
+        this.executor.execute(() -> {
+            this.queued.decrementAndGet();
+            this.activeRequests.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                this.activeRequests.decrementAndGet();
+            }
+        });
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         if (!canDownload(exchange)) {
-            exchange.sendResponseHeaders(403, 0);
+            exchange.sendResponseHeaders(403, -1);
             exchange.close();
             log.warning("Rejected resourcepack request: " + exchange.getRemoteAddress().getAddress());
             return;
         }
         Headers headers = exchange.getResponseHeaders();
+        String method = exchange.getRequestMethod();
+        boolean head = method.equalsIgnoreCase("HEAD");
+        if (!head && !method.equalsIgnoreCase("GET")) {
+            headers.set("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        InetAddress address = exchange.getRemoteAddress().getAddress();
+        if (!this.openConnection(address)) {
+            this.rejected.incrementAndGet();
+            headers.set("Retry-After", "1");
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+            return;
+        }
+        TransmittedPack pack = this.retainPack();
+        try {
+            if (pack == null) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            this.transmit(exchange, pack, head);
+            this.served.incrementAndGet();
+        } finally {
+            if (pack != null) pack.release();
+            this.closeConnection(address);
+        }
+    }
+
+    /**
+     * Counts a request of an address. If the address has too
+     * many of them, waits for one of them to finish, since the
+     * client does not retry a failed download of a required pack.
+     *
+     * @param address Address of the client
+     * @return {@code true}, if the request may be handled,
+     *         {@code false}, if no slot has been freed in time
+     */
+    private boolean openConnection(InetAddress address) {
+        if (this.maxConnectionsPerAddress == 0) return true;
+        this.connectionsLock.lock();
+        try {
+            long remaining = TimeUnit.SECONDS.toNanos(SLOT_TIMEOUT_SECONDS);
+            while (this.connections.getOrDefault(address, 0) >= this.maxConnectionsPerAddress) {
+                if (remaining <= 0) return false;
+                remaining = this.connectionClosed.awaitNanos(remaining);
+            }
+            this.connections.merge(address, 1, Integer::sum);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            this.connectionsLock.unlock();
+        }
+    }
+
+    /**
+     * Stops counting a handled request of an address,
+     * letting a waiting request of it proceed.
+     *
+     * @param address Address of the client
+     */
+    private void closeConnection(InetAddress address) {
+        if (this.maxConnectionsPerAddress == 0) return;
+        this.connectionsLock.lock();
+        try {
+            this.connections.computeIfPresent(address, (key, count) -> count > 1 ? count - 1 : null);
+            this.connectionClosed.signalAll();
+        } finally {
+            this.connectionsLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current load of the server.
+     *
+     * @return Snapshot of the metrics
+     */
+    public TransmissionMetrics getMetrics() {
+        return new TransmissionMetrics(this.queued.get(), this.peakQueued.get(), this.activeRequests.get(),
+                this.served.get(), this.rejected.get(), this.bytesSent.get());
+    }
+
+    /**
+     * Responds to a request for the resourcepack.
+     *
+     * @param exchange Http exchange
+     * @param pack     Retained resourcepack
+     * @param head     Whether only headers are requested
+     */
+    private void transmit(HttpExchange exchange, TransmittedPack pack, boolean head) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        Headers requestHeaders = exchange.getRequestHeaders();
+        headers.set("ETag", pack.etag());
+        headers.set("Cache-Control", "no-cache");
+        headers.set("Accept-Ranges", "bytes");
+        if (matchesETag(requestHeaders.getFirst("If-None-Match"), pack.etag())) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
         headers.set("Content-Type", "application/zip");
         headers.set("Content-Disposition", "attachment; filename=\"resourcepack.zip\"");
         headers.set("Content-Transfer-Encoding", "binary");
-        exchange.sendResponseHeaders(200, this.resourcepackBytes.length);
-        try (var out = exchange.getResponseBody()) {
-            out.write(this.resourcepackBytes);
+
+        long length = pack.size();
+        long start = 0;
+        long end = length - 1;
+        int status = 200;
+        String range = requestHeaders.getFirst("Range");
+        String ifRange = requestHeaders.getFirst("If-Range");
+        if (range != null && (ifRange == null || ifRange.trim().equals(pack.etag()))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == UNSATISFIABLE) {
+                headers.set("Content-Range", "bytes */" + length);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                status = 206;
+                headers.set("Content-Range", "bytes %d-%d/%d".formatted(start, end, length));
+            }
+        }
+        long contentLength = end - start + 1;
+        if (head) {
+            headers.set("Content-Length", Long.toString(contentLength));
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(status, contentLength);
+        try (var out = Channels.newChannel(exchange.getResponseBody())) {
+            long position = start;
+            long remaining = contentLength;
+            while (remaining > 0) {
+                long chunk = Math.min(remaining, CHUNK_SIZE);
+                if (this.bandwidthLimiter != null) this.bandwidthLimiter.acquire(chunk);
+                long sent = pack.channel().transferTo(position, chunk, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+                this.bytesSent.addAndGet(sent);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Transmission of the resourcepack has been interrupted", e);
         }
         exchange.close();
 
-        log.info("Sent resourcepack to " + exchange.getRemoteAddress().getAddress());
+        if (status == 200) {
+            log.info("Sent resourcepack to " + exchange.getRemoteAddress().getAddress());
+        } else {
+            log.info("Sent bytes %d-%d of resourcepack to %s".formatted(start, end, exchange.getRemoteAddress().getAddress()));
+        }
+    }
+
+    /**
+     * Checks, if an {@code If-None-Match} header
+     * matches the entity tag of the resourcepack.
+     *
+     * @param ifNoneMatch Value of the header
+     * @param etag        Entity tag of the resourcepack
+     * @return {@code true}, if the client has the same resourcepack
+     */
+    private static boolean matchesETag(@Nullable String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses a {@code Range} header of a single byte range.
+     * Headers of several ranges or of other units are
+     * ignored, so the whole resourcepack is sent.
+     *
+     * @param range  Value of the header
+     * @param length Length of the resourcepack
+     * @return First and last bytes of the range, {@code null}, if the
+     *         header is ignored, or {@link #UNSATISFIABLE}
+     */
+    private static long @Nullable [] parseRange(String range, long length) {
+        range = range.trim();
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) return null;
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            long start, end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) return UNSATISFIABLE;
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+                if (end < start) return null;
+                end = Math.min(end, length - 1);
+            }
+            return start >= length ? UNSATISFIABLE : new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     /**
@@ -118,22 +431,24 @@ public class ResourcepackServerImpl implements ResourcepackServer, HttpHandler,
     }
 
     /**
-     * Sets {@link #resourcepackBytes} and calculates its SHA1 hash.
+     * Sets the transmitted resourcepack to a built archive,
+     * unless its SHA1 hash matches the current one.
      *
-     * @param resourcepackBytes Resourcepack
+     * @param archive Built resourcepack archive
+     * @return {@code true}, if the resourcepack has changed
      */
-    public void setResourcepackBytes(byte[] resourcepackBytes) {
-        if (Arrays.equals(this.resourcepackBytes, resourcepackBytes)) return;
-        this.resourcepackBytes = resourcepackBytes;
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA1");
-            this.resourcepackSHA1 = digest.digest(this.resourcepackBytes);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
-        log.info("Provided resourcepack of size " + this.getSizeString(this.resourcepackBytes.length) + " to transmitting server");
+    public boolean setResourcepack(@NotNull ResourcepackArchive archive) throws IOException {
+        TransmittedPack previous = this.pack;
+        if (previous != null && Arrays.equals(previous.sha1(), archive.sha1())) return false;
+        // The channel keeps the archive readable, even once a newer one replaces its file
+        FileChannel channel = FileChannel.open(archive.file(), StandardOpenOption.READ);
+        this.pack = new TransmittedPack(channel, channel.size(), archive.sha1(),
+                "\"" + HexFormat.of().formatHex(archive.sha1()) + "\"");
+        if (previous != null) previous.release();
+        log.info("Provided resourcepack of size " + this.getSizeString(archive.size()) + " to transmitting server");
         log.info("Resourcepack URL: " + this.url);
         log.info("Resourcepack SHA1: " + this.getResourcepackSHA1String());
+        return true;
     }
 
     /**
@@ -141,17 +456,11 @@ public class ResourcepackServerImpl implements ResourcepackServer, HttpHandler,
      *
      * @param exchange Http exchange
      * @return {@code true}, if request is valid
+     *
+     * @see DownloadAuthorizer
      */
     public boolean canDownload(@NotNull HttpExchange exchange) {
-        var exchangeAddress = exchange.getRemoteAddress().getAddress();
-        try {
-            if (exchangeAddress.equals(InetAddress.getLocalHost())) return true;
-        } catch (UnknownHostException ignored) { }
-        return Bukkit.getServer().getOnlinePlayers().stream()
-                .map(Player::getAddress)
-                .filter(Objects::nonNull)
-                .map(InetSocketAddress::getAddress)
-                .anyMatch(exchangeAddress::equals);
+        return this.authorizer.canDownload(exchange);
     }
 
     @Override
@@ -176,6 +485,9 @@ public class ResourcepackServerImpl implements ResourcepackServer, HttpHandler,
         this.server.stop(1);
         this.executor.shutdownNow();
         this.active = false;
+        TransmittedPack pack = this.pack;
+        this.pack = null;
+        if (pack != null) pack.release();
     }
 
     @Override
@@ -185,7 +497,8 @@ public class ResourcepackServerImpl implements ResourcepackServer, HttpHandler,
 
     @Override
     public void applyTo(Player player, Component message) {
-        player.setResourcePack(this.getDownloadLink().toString(), this.getResourcepackSHA1(), message, true);
+        player.setResourcePack(this.authorizer.getDownloadLink(this.getDownloadLink(), player),
+                this.getResourcepackSHA1(), message, true);
     }
 
     @Override
@@ -198,17 +511,58 @@ public class ResourcepackServerImpl implements ResourcepackServer, HttpHandler,
         return new ResourcepackImpl(this);
     }
 
+    /**
+     * Reads bytes of the transmitted resourcepack.
+     *
+     * @return Bytes of the .zip archive, or {@code null}, if none is provided
+     */
+    public byte @Nullable [] getResourcepackBytes() {
+        TransmittedPack pack = this.retainPack();
+        if (pack == null) return null;
+        try {
+            ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(pack.size()));
+            while (bytes.hasRemaining()) {
+                if (pack.channel().read(bytes, bytes.position()) < 0) break;
+            }
+            return bytes.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            pack.release();
+        }
+    }
+
+    /**
+     * Retains the transmitted resourcepack,
+     * so its archive is not closed while in use.
+     *
+     * @return Retained resourcepack, that must be released,
+     *         or {@code null}, if none is provided
+     */
+    private @Nullable TransmittedPack retainPack() {
+        while (true) {
+            TransmittedPack pack = this.pack;
+            if (pack == null || pack.retain()) return pack;
+        }
+    }
+
+    /**
+     * Gets SHA1 hash of the transmitted resourcepack.
+     *
+     * @return SHA1 hash, or {@code null}, if no resourcepack is provided
+     */
+    public byte @Nullable [] getResourcepackSHA1() {
+        TransmittedPack pack = this.pack;
+        return pack == null ? null : pack.sha1();
+    }
+
     /**
      * Gets resourcepack's SHA1 code as a string.
      *
      * @return Resourcepack's SHA1 string
      */
     public String getResourcepackSHA1String() {
-        Formatter formatter = new Formatter();
-        for (byte b : this.resourcepackSHA1) {
-            formatter.format("%02x", b);
-        }
-        return formatter.toString();
+        return HexFormat.of().formatHex(this.pack.sha1());
     }
 
     private String getSizeString(double size) {
@@ -220,4 +574,45 @@ public class ResourcepackServerImpl implements ResourcepackServer, HttpHandler,
         }
         return "%.2f%s".formatted(size, sizes[order]);
     }
+
+    /**
+     * A resourcepack provided to the server, which closes its archive
+     * once the server and all the requests using it release it
+     *
+     * @param channel    Opened channel of the .zip archive
+     * @param size       Size of the archive
+     * @param sha1       SHA1 hash of the archive
+     * @param etag       Entity tag of the archive, the quoted SHA1 string
+     * @param references Amount of the holders of the resourcepack
+     */
+    private record TransmittedPack(FileChannel channel, long size, byte[] sha1, String etag, AtomicInteger references) {
+        private TransmittedPack(FileChannel channel, long size, byte[] sha1, String etag) {
+            this(channel, size, sha1, etag, new AtomicInteger(1));
+        }
+
+        /**
+         * Retains the resourcepack, unless it is already closed.
+         *
+         * @return {@code true}, if the resourcepack has been retained
+         */
+        boolean retain() {
+            int count;
+            do {
+                count = this.references.get();
+                if (count == 0) return false;
+            } while (!this.references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        /**
+         * Releases the resourcepack, closing its
+         * archive, if it is no longer used.
+         */
+        void release() {
+            if (this.references.decrementAndGet() != 0) return;
+            try {
+                this.channel.close();
+            } catch (IOException ignored) { }
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package dev.avatcher.cinnamon.core.resources.resourcepack;
+
+/**
+ * Snapshot of the resourcepack transmitting server's load
+ *
+ * @param queued     Requests waiting for a thread
+ * @param peakQueued The most requests, that have waited at once
+ * @param active     Requests being handled
+ * @param served     Requests served since the start
+ * @param rejected   Requests, that have not got a slot of their address in time
+ * @param bytesSent  Bytes of the resourcepack sent since the start
+ */
+public record TransmissionMetrics(int queued, int peakQueued, int active,
+                                  long served, long rejected, long bytesSent) {
+}
@@ -38,6 +38,11 @@ public class FolderCinnamonResources implements CinnamonResources {
         return this.folder;
     }
 
+    @Override
+    public CinnamonResources reopen() {
+        return new FolderCinnamonResources(this.plugin, this.folder);
+    }
+
     @Override
     public String toString() {
         return "FolderCResources[plugin=" + this.getPlugin().getName() + ", folder=" + this.getFolder() + "]";
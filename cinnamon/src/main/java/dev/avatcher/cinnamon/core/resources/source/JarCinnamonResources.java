@@ -5,12 +5,17 @@ import lombok.Getter;
 import org.bukkit.plugin.Plugin;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Map;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 /**
  * {@link CinnamonResources} implementation for
@@ -40,6 +45,14 @@ public class JarCinnamonResources implements CinnamonResources {
      * File system of the .jar as an archive
      */
     private final FileSystem fileSystem;
+    /**
+     * The .jar file itself
+     */
+    private final Path jarFile;
+    /**
+     * SHA-1 of the .jar file, computed on demand
+     */
+    private String contentHash;
 
     /**
      * Creates new Cinnamon Jar resources
@@ -50,16 +63,15 @@ public class JarCinnamonResources implements CinnamonResources {
     public JarCinnamonResources(Plugin plugin, Class<?> resource) throws IOException, URISyntaxException {
         this.plugin = plugin;
         this.clazz = resource;
-        String jarPath = resource
+        URI jarUri = resource
                 .getProtectionDomain()
                 .getCodeSource()
                 .getLocation()
-                .toURI()
-                .getPath();
-        URI uri = URI.create("jar:file:" + jarPath);
-        this.fileSystem = FileSystems.newFileSystem(uri, Map.of());
+                .toURI();
+        this.jarFile = Path.of(jarUri);
+        // Not registered by URI, so the same jar can be opened several times at once
+        this.fileSystem = FileSystems.newFileSystem(this.jarFile);
         this.folder = fileSystem.getPath(CINNAMON_FOLDER);
-
     }
 
     /**
@@ -72,6 +84,32 @@ public class JarCinnamonResources implements CinnamonResources {
         this(plugin, plugin.getClass());
     }
 
+    @Override
+    public String getContentHash() throws IOException {
+        if (this.contentHash == null) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            try (var in = new DigestInputStream(Files.newInputStream(this.jarFile), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            this.contentHash = HexFormat.of().formatHex(digest.digest());
+        }
+        return this.contentHash;
+    }
+
+    @Override
+    public CinnamonResources reopen() throws IOException {
+        try {
+            return new JarCinnamonResources(this.plugin, this.clazz);
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
     @Override
     public String toString() {
         return "JarCResources[plugin=" + this.getPlugin().getName() + ", class=" + this.clazz.getName() + "]";